@@ -0,0 +1,195 @@
+package com.avaliadados.service;
+
+import com.avaliadados.model.ProjectCollaborator;
+import com.avaliadados.model.ProjetoEntity;
+import com.avaliadados.model.enums.MedicoRole;
+import com.avaliadados.model.params.NestedScoringParameters;
+import com.avaliadados.model.params.ScoringRule;
+import com.avaliadados.repository.ProjectCollaboratorRepository;
+import com.avaliadados.repository.ProjetoRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recalculo de todo o historico: {@link ProjetosService#recalcularTodos()} contra o fluxo
+ * anterior, um projeto por vez, pontuando um colaborador por vez e gravando todos. Os dois usam o
+ * mesmo nucleo de pontuacao; a diferenca medida e a do lote, do paralelismo entre projetos e de
+ * gravar so os colaboradores alterados.
+ *
+ * Os repositorios ficam em memoria, com {@code latenciaMs} de espera em cada leitura e gravacao
+ * no lugar do Mongo. Com {@code alterados} falso, os pontos ja estao em dia e o recalculo nao grava
+ * nada.
+ *
+ * <pre>./mvnw -P benchmark test-compile exec:exec -Djmh.include=RecalculoHistoricoBenchmark</pre>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecalculoHistoricoBenchmark {
+
+    private static final String[] ROLES = {"TARM", "FROTA", "MEDICO"};
+
+    @Param({"120"})
+    public int projetos;
+
+    @Param({"400"})
+    public int colaboradoresPorProjeto;
+
+    @Param({"0", "2"})
+    public long latenciaMs;
+
+    @Param({"1", "8"})
+    public int threads;
+
+    @Param({"true", "false"})
+    public boolean alterados;
+
+    private final Map<String, ProjetoEntity> projetosPorId = new LinkedHashMap<>();
+    private final Map<String, List<ProjectCollaborator>> quadros = new HashMap<>();
+    private ScoringService scoringService;
+    private ProjetoRepository projetoRepo;
+    private ProjectCollaboratorRepository projectCollaboratorRepo;
+    private ProjetosService projetosService;
+
+    @Setup
+    public void preparar() throws ReflectiveOperationException {
+        Random random = new Random(23);
+        for (int p = 0; p < projetos; p++) {
+            ProjetoEntity projeto = projeto("p" + p);
+            projetosPorId.put(projeto.getId(), projeto);
+            List<ProjectCollaborator> colaboradores = new ArrayList<>(colaboradoresPorProjeto);
+            for (int c = 0; c < colaboradoresPorProjeto; c++) colaboradores.add(colaborador(projeto.getId(), c, random));
+            quadros.put(projeto.getId(), colaboradores);
+        }
+
+        scoringService = new ScoringService();
+        projetoRepo = repositorio(ProjetoRepository.class);
+        projectCollaboratorRepo = repositorio(ProjectCollaboratorRepository.class);
+        projetosService = new ProjetosService(null, projetoRepo, projectCollaboratorRepo, null, null, scoringService, null);
+        Field recalculoThreads = ProjetosService.class.getDeclaredField("recalculoThreads");
+        recalculoThreads.setAccessible(true);
+        recalculoThreads.setInt(projetosService, threads);
+
+        projetosService.recalcularTodos();
+    }
+
+    @Setup(Level.Invocation)
+    public void limparPontos() {
+        if (!alterados) return;
+        for (List<ProjectCollaborator> colaboradores : quadros.values()) {
+            for (ProjectCollaborator pc : colaboradores) pc.setPoints(null);
+        }
+    }
+
+    @Benchmark
+    public int recalcularTodos() {
+        return projetosService.recalcularTodos().alterados();
+    }
+
+    /**
+     * Fluxo anterior ao lote; {@code threads} nao se aplica.
+     */
+    @Benchmark
+    public int umPorUm() {
+        int gravados = 0;
+        for (ProjetoEntity resumo : projetoRepo.findAll()) {
+            ProjetoEntity projeto = projetoRepo.findById(resumo.getId()).orElseThrow();
+            List<ProjectCollaborator> colaboradores = projectCollaboratorRepo.findByProjectId(projeto.getId());
+            for (ProjectCollaborator pc : colaboradores) {
+                if (pc.getMedicoRole() == null) pc.setMedicoRole(MedicoRole.NENHUM);
+                pc.setPoints(scoringService.calculateCollaboratorScore(
+                        pc.getRole(),
+                        pc.getMedicoRole().name(),
+                        pc.getDurationSeconds(),
+                        pc.getCriticos(),
+                        pc.getRemovidos(),
+                        pc.getRemovidosLider(),
+                        pc.getPausaMensalSeconds(),
+                        pc.getSaidaVtrSeconds(),
+                        projeto));
+            }
+            projectCollaboratorRepo.saveAll(colaboradores);
+            gravados += colaboradores.size();
+        }
+        return gravados;
+    }
+
+    /**
+     * Repositorio em memoria com os metodos usados no recalculo; cada chamada espera
+     * {@code latenciaMs}.
+     */
+    private <T> T repositorio(Class<T> tipo) {
+        return tipo.cast(Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo}, (proxy, metodo, args) -> {
+            if (metodo.getDeclaringClass() == Object.class) {
+                return switch (metodo.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> tipo.getSimpleName();
+                };
+            }
+            esperar();
+            return switch (metodo.getName()) {
+                case "findAll" -> new ArrayList<>(projetosPorId.values());
+                case "findById" -> Optional.ofNullable(projetosPorId.get((String) args[0]));
+                case "findByProjectId" -> quadros.getOrDefault((String) args[0], List.of());
+                case "saveAll" -> args[0];
+                default -> throw new UnsupportedOperationException(metodo.getName());
+            };
+        }));
+    }
+
+    private void esperar() throws InterruptedException {
+        if (latenciaMs > 0) Thread.sleep(latenciaMs);
+    }
+
+    private static ProjectCollaborator colaborador(String projectId, int indice, Random random) {
+        ProjectCollaborator pc = new ProjectCollaborator();
+        pc.setProjectId(projectId);
+        pc.setCollaboratorId("c" + indice);
+        pc.setRole(ROLES[random.nextInt(ROLES.length)]);
+        MedicoRole[] medicoRoles = MedicoRole.values();
+        pc.setMedicoRole(medicoRoles[random.nextInt(medicoRoles.length)]);
+        pc.setDurationSeconds((long) random.nextInt(400));
+        pc.setCriticos((long) random.nextInt(120));
+        pc.setRemovidos(random.nextInt(4));
+        pc.setRemovidosLider(random.nextInt(4));
+        pc.setPausaMensalSeconds((long) random.nextInt(1200));
+        pc.setSaidaVtrSeconds((long) random.nextInt(200));
+        return pc;
+    }
+
+    private static ScoringRule ate(long duracao, int pontos) {
+        return ScoringRule.builder().duration(duracao).points(pontos).build();
+    }
+
+    private static ScoringRule quantidade(int quantidade, int pontos) {
+        return ScoringRule.builder().quantity(quantidade).points(pontos).build();
+    }
+
+    private static ProjetoEntity projeto(String id) {
+        NestedScoringParameters params = new NestedScoringParameters();
+        params.getColab().setPausas(List.of(ate(900L, 2)));
+        params.getTarm().setRegulacao(List.of(ate(60L, 10), ate(120L, 5), ate(240L, 2)));
+        params.getTarm().setRemovidos(List.of(quantidade(0, 5), quantidade(2, 1)));
+        params.getFrota().setRegulacao(List.of(ate(90L, 8), ate(180L, 4)));
+        params.getFrota().setSaidaVtr(List.of(ate(60L, 3), ate(120L, 1)));
+        params.getFrota().setPausas(List.of(ate(600L, 4)));
+        params.getMedico().setRegulacao(List.of(ate(300L, 6)));
+        params.getMedico().setRemovidos(List.of(quantidade(1, 3)));
+        params.getMedico().setRegulacaoLider(List.of(ate(60L, 4)));
+        params.getMedico().setRemovidosLider(List.of(quantidade(2, 2)));
+
+        ProjetoEntity projeto = new ProjetoEntity();
+        projeto.setId(id);
+        projeto.setParameters(params);
+        projeto.setParametersVersion(0L);
+        return projeto;
+    }
+}
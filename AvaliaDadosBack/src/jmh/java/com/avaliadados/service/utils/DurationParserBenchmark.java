@@ -0,0 +1,126 @@
+package com.avaliadados.service.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * {@link DurationParser#parseSeconds(String)} contra o parser antigo de
+ * {@code SheetsUtils.parseTimeToSeconds} (regex, {@code Pattern.split} e
+ * {@code SimpleDateFormat}), copiado em {@link #parseAntigo(String)} sem os logs de debug.
+ *
+ * <pre>./mvnw -P benchmark test-compile exec:exec -Djmh.include=DurationParserBenchmark</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DurationParserBenchmark {
+
+    private static final Pattern PATTERN_DAYS_HMS = Pattern.compile("\\d+\\s*d\\s*\\d{1,3}:\\d{2}:\\d{2}");
+    private static final Pattern PATTERN_DAYS_HM = Pattern.compile("\\d+\\s*d\\s*\\d{1,3}:\\d{2}");
+    private static final Pattern PATTERN_HMS = Pattern.compile("\\d{1,3}:\\d{2}:\\d{2}");
+    private static final Pattern PATTERN_HM = Pattern.compile("\\d{1,3}:\\d{2}");
+    private static final Pattern PATTERN_NUMERIC = Pattern.compile("-?\\d+(\\.\\d+)?([eE][-+]?\\d+)?");
+    private static final Pattern PATTERN_WHITESPACE_D = Pattern.compile("\\s*d\\s*");
+    private static final Pattern PATTERN_COLON = Pattern.compile(":");
+
+    /**
+     * Formatos das planilhas e do historico de pausas da API.
+     */
+    @Param({"MISTO", "HORARIO", "DIAS", "NUMERO", "AM_PM"})
+    public String formato;
+
+    private String[] entradas;
+
+    @Setup
+    public void preparar() {
+        entradas = switch (formato) {
+            case "HORARIO" -> new String[]{"00:12:31", "01:02:03", "7:45", "100:00:00"};
+            case "DIAS" -> new String[]{"2 d 01:00:00", "1d 00:00:59", "3 d 12:30", "10d 23:59:59"};
+            case "NUMERO" -> new String[]{"0.5", "3600", "0.0208333", "86400"};
+            case "AM_PM" -> new String[]{"01:30 PM", "12:15 am", "11:59:59 pm", "08:00 AM"};
+            default -> new String[]{"00:12:31", "2 d 01:00:00", "7:45", "0.5", "01:30 PM", "3600"};
+        };
+    }
+
+    @Benchmark
+    public long durationParser() {
+        long total = 0;
+        for (String entrada : entradas) total += DurationParser.parseSeconds(entrada);
+        return total;
+    }
+
+    @Benchmark
+    public long parserAntigo() {
+        long total = 0;
+        for (String entrada : entradas) total += parseAntigo(entrada);
+        return total;
+    }
+
+    static Long parseAntigo(String timeStr) {
+        if (timeStr == null || timeStr.isBlank()) {
+            return 0L;
+        }
+        timeStr = timeStr.trim().toLowerCase();
+
+        try {
+            if (PATTERN_DAYS_HMS.matcher(timeStr).matches()) {
+                String[] dayTimeParts = PATTERN_WHITESPACE_D.split(timeStr);
+                long days = Long.parseLong(dayTimeParts[0]);
+                String[] timeParts = PATTERN_COLON.split(dayTimeParts[1]);
+                return days * 24 * 3600 + Long.parseLong(timeParts[0]) * 3600
+                        + Long.parseLong(timeParts[1]) * 60 + Long.parseLong(timeParts[2]);
+            }
+
+            if (PATTERN_DAYS_HM.matcher(timeStr).matches()) {
+                String[] dayTimeParts = PATTERN_WHITESPACE_D.split(timeStr);
+                long days = Long.parseLong(dayTimeParts[0]);
+                String[] timeParts = PATTERN_COLON.split(dayTimeParts[1]);
+                return days * 24 * 3600 + Long.parseLong(timeParts[0]) * 3600 + Long.parseLong(timeParts[1]) * 60;
+            }
+
+            if (PATTERN_HMS.matcher(timeStr).matches()) {
+                String[] parts = PATTERN_COLON.split(timeStr);
+                return Long.parseLong(parts[0]) * 3600 + Long.parseLong(parts[1]) * 60 + Long.parseLong(parts[2]);
+            }
+
+            if (PATTERN_HM.matcher(timeStr).matches()) {
+                String[] parts = PATTERN_COLON.split(timeStr);
+                return Long.parseLong(parts[0]) * 3600 + Long.parseLong(parts[1]) * 60;
+            }
+
+            if (PATTERN_NUMERIC.matcher(timeStr).matches()) {
+                double value = Double.parseDouble(timeStr);
+                return value > 0 && value < 1 ? Math.round(value * 24 * 60 * 60) : Math.round(value);
+            }
+
+            SimpleDateFormat[] formats = {
+                    new SimpleDateFormat("hh:mm:ss a"),
+                    new SimpleDateFormat("hh:mm a"),
+                    new SimpleDateFormat("HH:mm:ss"),
+                    new SimpleDateFormat("HH:mm")
+            };
+            for (SimpleDateFormat fmt : formats) {
+                try {
+                    Date date = fmt.parse(timeStr);
+                    Calendar cal = Calendar.getInstance();
+                    cal.setTime(date);
+                    return cal.get(Calendar.HOUR_OF_DAY) * 3600L
+                            + cal.get(Calendar.MINUTE) * 60L
+                            + cal.get(Calendar.SECOND);
+                } catch (ParseException ignored) {
+                }
+            }
+        } catch (Exception ignored) {
+        }
+        return 0L;
+    }
+}
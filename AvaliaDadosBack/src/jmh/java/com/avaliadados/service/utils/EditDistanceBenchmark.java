@@ -0,0 +1,114 @@
+package com.avaliadados.service.utils;
+
+import org.apache.commons.text.similarity.LevenshteinDistance;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distancia entre nomes normalizados: {@link LevenshteinDistance} do commons-text (a
+ * implementacao anterior de {@link SheetsUtils#similarity}) contra {@link EditDistance}, com e
+ * sem o padrao pre-processado, e as versoes com limite usadas no casamento aproximado. Cada
+ * operacao compara um par; metade dos pares sao o mesmo nome com poucas edicoes, como nas grafias
+ * da planilha.
+ *
+ * <pre>./mvnw -P benchmark test-compile exec:exec -Djmh.include=EditDistanceBenchmark</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EditDistanceBenchmark {
+
+    private static final int PARES = 1024;
+    private static final int LIMITE = 4;
+    private static final String[] PALAVRAS = {
+            "MARIA", "JOSE", "ANA", "JOAO", "ANTONIO", "FRANCISCO", "CARLOS", "PAULO", "LUCAS", "LUIZ",
+            "SILVA", "SANTOS", "OLIVEIRA", "SOUZA", "SOUSA", "RODRIGUES", "FERREIRA", "ALVES", "PEREIRA",
+            "LIMA", "GOMES", "COSTA", "RIBEIRO", "MARTINS", "CARVALHO", "ALMEIDA", "NASCIMENTO", "ARAUJO"
+    };
+
+    private final LevenshteinDistance levenshtein = LevenshteinDistance.getDefaultInstance();
+    private final LevenshteinDistance levenshteinComLimite = new LevenshteinDistance(LIMITE);
+    private final String[] nomes = new String[PARES];
+    private final String[] outros = new String[PARES];
+    private final EditDistance.Pattern[] padroes = new EditDistance.Pattern[PARES];
+
+    @Setup
+    public void preparar() {
+        Random random = new Random(11);
+        for (int i = 0; i < PARES; i++) {
+            nomes[i] = nome(random);
+            outros[i] = random.nextBoolean() ? nome(random) : editar(random, nomes[i]);
+            padroes[i] = EditDistance.Pattern.of(nomes[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PARES)
+    public long levenshteinCommons() {
+        long total = 0;
+        for (int i = 0; i < PARES; i++) total += levenshtein.apply(nomes[i], outros[i]);
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PARES)
+    public long editDistance() {
+        long total = 0;
+        for (int i = 0; i < PARES; i++) total += EditDistance.distance(nomes[i], outros[i]);
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PARES)
+    public long padraoPreProcessado() {
+        long total = 0;
+        for (int i = 0; i < PARES; i++) total += padroes[i].distance(outros[i]);
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PARES)
+    public long levenshteinCommonsComLimite() {
+        long total = 0;
+        for (int i = 0; i < PARES; i++) total += levenshteinComLimite.apply(nomes[i], outros[i]);
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PARES)
+    public long padraoComLimite() {
+        long total = 0;
+        for (int i = 0; i < PARES; i++) total += padroes[i].distance(outros[i], LIMITE);
+        return total;
+    }
+
+    private static String nome(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int palavras = 2 + random.nextInt(3);
+        for (int p = 0; p < palavras; p++) {
+            if (p > 0) sb.append(' ');
+            sb.append(PALAVRAS[random.nextInt(PALAVRAS.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static String editar(Random random, String nome) {
+        StringBuilder sb = new StringBuilder(nome);
+        int edicoes = 1 + random.nextInt(3);
+        for (int e = 0; e < edicoes && !sb.isEmpty(); e++) {
+            int pos = random.nextInt(sb.length());
+            char letra = (char) ('A' + random.nextInt(26));
+            switch (random.nextInt(3)) {
+                case 0 -> sb.setCharAt(pos, letra);
+                case 1 -> sb.insert(pos, letra);
+                default -> sb.deleteCharAt(pos);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -1,7 +1,12 @@
 package com.avaliadados.config;
 
+import com.avaliadados.model.ScoreBreakdown;
+import org.bson.Document;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
 import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.core.convert.DbRefResolver;
 import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
@@ -9,6 +14,8 @@ import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
 import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
 import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
 
+import java.util.List;
+
 @Configuration
 public class MongoConverter {
     @Bean
@@ -19,4 +26,36 @@ public class MongoConverter {
         converter.setMapKeyDotReplacement("_");
         return converter;
     }
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(List.of(
+                new PontosParaMongo(),
+                new PontosDoMongo(),
+                new PontosDoMapaAntigo()));
+    }
+
+    @WritingConverter
+    static class PontosParaMongo implements Converter<ScoreBreakdown, List<Integer>> {
+        @Override
+        public List<Integer> convert(ScoreBreakdown pontos) {
+            return pontos.paraMongo();
+        }
+    }
+
+    @ReadingConverter
+    static class PontosDoMongo implements Converter<List<?>, ScoreBreakdown> {
+        @Override
+        public ScoreBreakdown convert(List<?> valores) {
+            return ScoreBreakdown.doMongo(valores);
+        }
+    }
+
+    @ReadingConverter
+    static class PontosDoMapaAntigo implements Converter<Document, ScoreBreakdown> {
+        @Override
+        public ScoreBreakdown convert(Document mapa) {
+            return ScoreBreakdown.de(mapa);
+        }
+    }
 }
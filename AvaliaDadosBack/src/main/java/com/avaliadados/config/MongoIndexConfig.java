@@ -0,0 +1,67 @@
+package com.avaliadados.config;
+
+import com.avaliadados.model.ImportacaoPlanilha;
+import com.avaliadados.model.NomeAlias;
+import com.avaliadados.model.ProjectCollaborator;
+import com.avaliadados.model.SheetRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+
+/**
+ * Indices das colecoes consultadas por chave, criados na subida da aplicacao (a criacao
+ * automatica do Spring Data fica desligada). {@code ensureIndex} nao faz nada quando o indice ja
+ * existe.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class MongoIndexConfig {
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void criarIndices() {
+        mongoTemplate.indexOps(SheetRow.class).ensureIndex(new Index()
+                .on("projectId", Sort.Direction.ASC)
+                .on("type", Sort.Direction.ASC)
+                .named("projectId_type"));
+        mongoTemplate.indexOps(SheetRow.class).ensureIndex(new Index()
+                .on("projectId", Sort.Direction.ASC)
+                .on("collaboratorId", Sort.Direction.ASC)
+                .named("projectId_collaboratorId"));
+
+        mongoTemplate.indexOps(ProjectCollaborator.class).ensureIndex(new Index()
+                .on("projectId", Sort.Direction.ASC)
+                .on("collaboratorId", Sort.Direction.ASC)
+                .unique()
+                .named("projectId_collaboratorId"));
+        mongoTemplate.indexOps(ProjectCollaborator.class).ensureIndex(new Index()
+                .on("projectId", Sort.Direction.ASC)
+                .on("role", Sort.Direction.ASC)
+                .on("pontuacao", Sort.Direction.DESC)
+                .named("projectId_role_pontuacao"));
+
+        mongoTemplate.indexOps(NomeAlias.class).ensureIndex(new Index()
+                .on("type", Sort.Direction.ASC)
+                .on("chave", Sort.Direction.ASC)
+                .unique()
+                .named("type_chave"));
+        mongoTemplate.indexOps(NomeAlias.class).ensureIndex(new Index()
+                .on("collaboratorId", Sort.Direction.ASC)
+                .named("collaboratorId"));
+
+        mongoTemplate.indexOps(ImportacaoPlanilha.class).ensureIndex(new Index()
+                .on("projectId", Sort.Direction.ASC)
+                .on("type", Sort.Direction.ASC)
+                .unique()
+                .named("projectId_type"));
+        mongoTemplate.indexOps(ImportacaoPlanilha.class).ensureIndex(new Index()
+                .on("projectId", Sort.Direction.ASC)
+                .on("sha256", Sort.Direction.ASC)
+                .named("projectId_sha256"));
+    }
+}
@@ -0,0 +1,19 @@
+package com.avaliadados.config;
+
+import com.avaliadados.model.ProjectCollaborator;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Garante o nome canonico do colaborador antes de grava-lo, inclusive dos que foram montados
+ * pelo builder ou lidos de documentos antigos.
+ */
+@Component
+public class ProjectCollaboratorListener extends AbstractMongoEventListener<ProjectCollaborator> {
+
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<ProjectCollaborator> event) {
+        event.getSource().garantirNomeNormalizado();
+    }
+}
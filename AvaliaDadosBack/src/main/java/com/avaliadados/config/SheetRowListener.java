@@ -0,0 +1,20 @@
+package com.avaliadados.config;
+
+import com.avaliadados.model.SheetRow;
+import com.avaliadados.service.utils.SheetRowLegado;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Converte na leitura as linhas que ainda estao no formato antigo, para que o restante do codigo
+ * veja apenas os campos tipados enquanto a migracao nao termina.
+ */
+@Component
+public class SheetRowListener extends AbstractMongoEventListener<SheetRow> {
+
+    @Override
+    public void onAfterConvert(AfterConvertEvent<SheetRow> event) {
+        SheetRowLegado.converter(event.getSource());
+    }
+}
@@ -1,9 +1,12 @@
 package com.avaliadados.controller;
 
-import com.avaliadados.service.factory.AvaliacaoServiceFactory;
+import com.avaliadados.model.dto.ProcessamentoJobResponse;
+import com.avaliadados.service.avaliacao.ProcessamentoJobService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -17,19 +20,45 @@ import java.util.List;
 @Tag(name = "Avaliação", description = "Operações relacionadas à avaliação de planilhas")
 public class AvaliacaoController {
 
-    private final AvaliacaoServiceFactory factory;
+    private final ProcessamentoJobService jobService;
 
     @PostMapping("/{projectId}/processar")
     @Operation(summary = "Processa uma planilha de avaliação para o projeto especificado")
     public ResponseEntity<List<String>> processarPlanilha(@RequestParam MultipartFile arquivo, @PathVariable String projectId) {
         try {
-            var processor = factory.getProcessor(arquivo);
-            return ResponseEntity.ok(processor.processarPlanilha(arquivo, projectId));
+            return ResponseEntity.ok(jobService.processar(arquivo, projectId));
         } catch (IllegalArgumentException ex) {
             return ResponseEntity.badRequest().body(List.of(ex.getMessage()));
         } catch (IOException ex) {
             return ResponseEntity.badRequest().body(List.of("Não foi possível ler o arquivo enviado."));
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(List.of(ex.getMessage()));
         }
     }
 
+    @PostMapping("/{projectId}/processar/jobs")
+    @Operation(summary = "Inicia o processamento da planilha em segundo plano e retorna o id do job")
+    public ResponseEntity<?> iniciarProcessamento(@RequestParam MultipartFile arquivo, @PathVariable String projectId) {
+        try {
+            return ResponseEntity.accepted().body(jobService.iniciar(arquivo, projectId));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(List.of(ex.getMessage()));
+        } catch (IOException ex) {
+            return ResponseEntity.badRequest().body(List.of("Não foi possível ler o arquivo enviado."));
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(List.of(ex.getMessage()));
+        } catch (TaskRejectedException ex) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(List.of("Fila de processamento cheia, tente novamente em instantes."));
+        }
+    }
+
+    @GetMapping("/processar/jobs/{jobId}")
+    @Operation(summary = "Consulta a fase, o total de linhas lidas e o resultado de um processamento")
+    public ResponseEntity<ProcessamentoJobResponse> statusProcessamento(@PathVariable String jobId) {
+        return jobService.buscar(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
 }
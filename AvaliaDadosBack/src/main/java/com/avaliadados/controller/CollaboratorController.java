@@ -55,6 +55,22 @@ public class CollaboratorController {
         return ResponseEntity.ok(service.findAll());
     }
 
+    @GetMapping("/resumo")
+    @Operation(summary = "Lista os colaboradores globais em paginas",
+            description = "Ordena por nome e id. Para a proxima pagina, mande o nome e o id do ultimo item recebido "
+                    + "em aposNome e aposId (so aposId se o item nao tiver nome); uma pagina com menos de size "
+                    + "itens e a ultima.")
+    public ResponseEntity<?> findResumos(
+            @RequestParam(required = false) String aposNome,
+            @RequestParam(required = false) String aposId,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(service.findResumos(aposNome, aposId, size));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
     @GetMapping("/name/{nome}")
     @Operation(summary = "Busca colaboradores globais pelo nome")
     public ResponseEntity<List<CollaboratorEntity>> findByName(@PathVariable String nome) {
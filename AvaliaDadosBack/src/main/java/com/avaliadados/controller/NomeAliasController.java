@@ -0,0 +1,41 @@
+package com.avaliadados.controller;
+
+import com.avaliadados.model.NomeAlias;
+import com.avaliadados.model.dto.NomeAliasRequest;
+import com.avaliadados.model.enums.TypeAv;
+import com.avaliadados.service.avaliacao.NomeAliasService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/aliases")
+@RequiredArgsConstructor
+@Tag(name = "Aliases de nomes", description = "Grafias das planilhas associadas a colaboradores")
+public class NomeAliasController {
+
+    private final NomeAliasService service;
+
+    @GetMapping
+    @Operation(summary = "Lista os aliases, opcionalmente de um tipo de planilha")
+    public ResponseEntity<List<NomeAlias>> listar(@RequestParam(required = false) TypeAv type) {
+        return ResponseEntity.ok(service.listar(type));
+    }
+
+    @PutMapping
+    @Operation(summary = "Associa manualmente um nome da planilha a um colaborador")
+    public ResponseEntity<NomeAlias> salvar(@RequestBody NomeAliasRequest request) {
+        return ResponseEntity.ok(service.salvarManual(request));
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Remove um alias")
+    public ResponseEntity<Void> remover(@PathVariable String id) {
+        service.remover(id);
+        return ResponseEntity.noContent().build();
+    }
+}
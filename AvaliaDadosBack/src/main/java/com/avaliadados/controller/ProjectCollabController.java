@@ -2,16 +2,15 @@ package com.avaliadados.controller;
 
 import com.avaliadados.model.dto.CollaboratorsResponse;
 import com.avaliadados.model.dto.ProjectCollabRequest;
-import com.avaliadados.model.ProjetoEntity;
+import com.avaliadados.model.ProjectCollaborator;
 import com.avaliadados.service.ProjectCollabService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/projetos/{projectId}/collaborator")
 @RequiredArgsConstructor
@@ -22,23 +21,39 @@ public class ProjectCollabController {
 
     @PostMapping
     @Operation(summary = "Adiciona um colaborador ao projeto")
-    public ResponseEntity<ProjetoEntity> add(
+    public ResponseEntity<ProjectCollaborator> add(
             @PathVariable String projectId, @RequestBody ProjectCollabRequest dto) {
 
         return ResponseEntity.ok(service.addCollaborator(projectId, dto));
     }
 
     @GetMapping
-    @Operation(summary = "Busca todos os colaboradores do projeto")
-    public ResponseEntity<List<CollaboratorsResponse>> getAll(@PathVariable String projectId) {
+    @Operation(summary = "Busca os colaboradores do projeto",
+            description = "Filtra por cargo e por trecho do nome e ordena por nome ou pontuacao. Com page, devolve so a "
+                    + "pagina pedida; o total vem no cabecalho X-Total-Count.")
+    public ResponseEntity<?> getAll(
+            @PathVariable String projectId,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String nome,
+            @RequestParam(defaultValue = "nome") String ordenarPor,
+            @RequestParam(defaultValue = "ASC") String direcao,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(defaultValue = "50") int size) {
 
-        List<CollaboratorsResponse> collaborators = service.getAllProjectCollaborators(projectId);
-        return ResponseEntity.ok(collaborators);
+        Page<CollaboratorsResponse> collaborators;
+        try {
+            collaborators = service.getAllProjectCollaborators(projectId, role, nome, ordenarPor, direcao, page, size);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(collaborators.getTotalElements()))
+                .body(collaborators.getContent());
     }
 
     @PutMapping("/{collaboratorId}")
     @Operation(summary = "Atualiza um colaborador do projeto")
-    public ResponseEntity<ProjetoEntity> update(@PathVariable String projectId, @PathVariable String collaboratorId, @RequestBody ProjectCollabRequest dto, @RequestParam Boolean wasEdited) {
+    public ResponseEntity<ProjectCollaborator> update(@PathVariable String projectId, @PathVariable String collaboratorId, @RequestBody ProjectCollabRequest dto, @RequestParam Boolean wasEdited) {
 
         return ResponseEntity.ok(service.updateProjectCollaborator(
                 projectId,
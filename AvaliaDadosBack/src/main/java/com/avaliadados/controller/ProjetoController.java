@@ -1,10 +1,16 @@
 package com.avaliadados.controller;
 
 import com.avaliadados.model.ProjetoEntity;
+import com.avaliadados.model.dto.ProjetoResumo;
+import com.avaliadados.model.dto.RecalculoResumo;
+import com.avaliadados.model.dto.SimulacaoPontuacao;
+import com.avaliadados.model.params.NestedScoringParameters;
 import com.avaliadados.service.ProjetosService;
+import com.avaliadados.service.SimulacaoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,6 +25,7 @@ import java.util.Map;
 public class ProjetoController {
 
     private final ProjetosService projetoService;
+    private final SimulacaoService simulacaoService;
 
     @PostMapping
     @Operation(summary = "Cria um novo projeto com todos os colaboradores globais")
@@ -34,6 +41,45 @@ public class ProjetoController {
 
     }
 
+    @GetMapping("/resumo")
+    @Operation(summary = "Lista os projetos resumidos",
+            description = "Sem parametros nem colaboradores, so a contagem por cargo. Filtra por faixa de meses (MM-yyyy); "
+                    + "com page, devolve so a pagina pedida e o total no cabecalho X-Total-Count.")
+    public ResponseEntity<List<ProjetoResumo>> getResumos(
+            @RequestParam(required = false) String de,
+            @RequestParam(required = false) String ate,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        Page<ProjetoResumo> resumos = projetoService.getResumos(de, ate, page, size);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(resumos.getTotalElements()))
+                .body(resumos.getContent());
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Busca um projeto pelo ID, com os parametros de pontuacao")
+    public ResponseEntity<ProjetoEntity> getProject(@PathVariable String id) {
+        return projetoService.getProjeto(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/recalcular")
+    @Operation(summary = "Recalcula os pontos de todos os projetos",
+            description = "Usa os parametros gravados de cada projeto; so os colaboradores cujos pontos mudaram sao gravados.")
+    public ResponseEntity<RecalculoResumo> recalcularTodos() {
+        return ResponseEntity.ok(projetoService.recalcularTodos());
+    }
+
+    @PostMapping("/{id}/simular")
+    @Operation(summary = "Simula parametros de pontuacao no projeto",
+            description = "Nao grava nada. Compara os parametros gravados com os enviados: distribuicao de pontos "
+                    + "por grupo e os colaboradores cujos pontos ou posicao no ranking mudariam.")
+    public ResponseEntity<SimulacaoPontuacao> simular(@PathVariable String id, @RequestBody NestedScoringParameters parametros) {
+        return ResponseEntity.ok(simulacaoService.simular(id, parametros));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Atualiza um projeto existente")
     public ResponseEntity<ProjetoEntity> updateProject(@PathVariable String id, @RequestBody Map<String, Object> updates) {
@@ -1,5 +1,8 @@
 package com.avaliadados.model;
 
+import com.avaliadados.model.enums.MedicoRole;
+import com.avaliadados.model.enums.ShiftHours;
+import com.avaliadados.service.utils.SheetsUtils;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -8,7 +11,7 @@ import lombok.*;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "colaborador")
+@Table(name = "colaborador", indexes = @Index(name = "idx_colaborador_nome_id", columnList = "nome, id"))
 @ToString
 @Inheritance(strategy = InheritanceType.JOINED)
 public class CollaboratorEntity {
@@ -16,10 +19,20 @@ public class CollaboratorEntity {
     @GeneratedValue(strategy = GenerationType.UUID)
     private String id;
     private String nome;
+    @Setter(AccessLevel.NONE)
+    private String nomeNormalizado;
     private String cpf;
     private String idCallRote;
     private int pontuacao;
     private String role;
+    /**
+     * So medicos tem; ficam na tabela base para a listagem ler tudo de uma tabela, com
+     * {@code role} fazendo o papel de discriminador.
+     */
+    @Enumerated(EnumType.STRING)
+    private MedicoRole medicoRole;
+    @Enumerated(EnumType.STRING)
+    private ShiftHours shiftHours;
     @Version
     private Long version;
 
@@ -32,5 +45,24 @@ public class CollaboratorEntity {
         this.role = role;
         this.version = version;
     }
+
+    public void setNome(String nome) {
+        this.nome = nome;
+        this.nomeNormalizado = SheetsUtils.normalizeName(nome);
+    }
+
+    /**
+     * Nome canonico (ver {@link SheetsUtils#normalizeName(String)}); registros antigos, gravados
+     * antes da coluna existir, calculam na hora.
+     */
+    public String getNomeNormalizado() {
+        return nomeNormalizado != null ? nomeNormalizado : SheetsUtils.normalizeName(nome);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void atualizarNomeNormalizado() {
+        this.nomeNormalizado = SheetsUtils.normalizeName(nome);
+    }
 }
 
@@ -0,0 +1,29 @@
+package com.avaliadados.model;
+
+import com.avaliadados.model.enums.TypeAv;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Ultimo arquivo processado de cada tipo em um projeto, com o resultado devolvido. O mesmo
+ * arquivo enviado de novo, com o mesmo quadro de colaboradores, reaproveita esse resultado.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "sheet_imports")
+public class ImportacaoPlanilha {
+    @Id
+    private String id;
+    private String projectId;
+    private TypeAv type;
+    private String sha256;
+    private String assinaturaProjeto;
+    private List<String> naoEncontrados;
+    private Instant processadoEm;
+}
@@ -0,0 +1,30 @@
+package com.avaliadados.model;
+
+import com.avaliadados.model.enums.OrigemAlias;
+import com.avaliadados.model.enums.TypeAv;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Grafia de um nome na planilha ja associada a um colaborador, por tipo de planilha. A chave e
+ * o nome como veio, apenas sem espacos extras e em maiusculas (ver
+ * {@link com.avaliadados.service.avaliacao.NomeAliasService#chave(String)}).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "name_aliases")
+public class NomeAlias {
+    @Id
+    private String id;
+    private TypeAv type;
+    private String chave;
+    private String nomePlanilha;
+    private String collaboratorId;
+    private OrigemAlias origem;
+    private Instant atualizadoEm;
+}
@@ -3,19 +3,37 @@ package com.avaliadados.model;
 import com.avaliadados.model.enums.MedicoRole;
 import com.avaliadados.model.enums.ShiftHours;
 import com.avaliadados.model.params.NestedScoringParameters;
+import com.avaliadados.service.utils.SheetsUtils;
 import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.TypeAlias;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.mapping.Document;
 
-import java.util.Map;
 
+/**
+ * Colaborador dentro de um projeto (mes), com os dados e a pontuacao daquele mes. Cada um e um
+ * documento proprio, com versao propria: edicoes e uploads gravam so os colaboradores que
+ * mudaram, sem tocar no projeto.
+ */
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @ToString
+@Document(collection = "project_collaborators")
+@TypeAlias("projectCollaborator")
 public class ProjectCollaborator {
+    @Id
+    private String id;
+    private String projectId;
+    @Version
+    private Long version;
     private String collaboratorId;
     private String nome;
+    @Setter(AccessLevel.NONE)
+    private String nomeNormalizado;
     private String role;
     private Integer plantao;
     private ShiftHours shiftHours;
@@ -35,9 +53,29 @@ public class ProjectCollaborator {
     @Builder.Default
     private Long saidaVtrSeconds = 0L;
     private String idCallRote;
-    Map<String, Integer> points;
+    ScoreBreakdown points;
     private NestedScoringParameters parametros;
     @Builder.Default
     private Boolean wasEdited = false;
 
+    public void setNome(String nome) {
+        this.nome = nome;
+        this.nomeNormalizado = SheetsUtils.normalizeName(nome);
+    }
+
+    /**
+     * Nome canonico (ver {@link SheetsUtils#normalizeName(String)}); gravado junto com o
+     * colaborador e calculado na hora para colaboradores antigos ou montados sem ele.
+     */
+    public String getNomeNormalizado() {
+        return nomeNormalizado != null ? nomeNormalizado : SheetsUtils.normalizeName(nome);
+    }
+
+    /**
+     * Preenche o nome canonico de colaboradores montados pelo builder ou lidos de documentos
+     * antigos, para que ele seja gravado.
+     */
+    public void garantirNomeNormalizado() {
+        if (nomeNormalizado == null) nomeNormalizado = SheetsUtils.normalizeName(nome);
+    }
 }
@@ -6,10 +6,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
-import java.util.List;
 
 @Document
 @Data
@@ -22,11 +22,21 @@ public class ProjetoEntity {
     private String name;
     private String month;
 
-    private List<ProjectCollaborator> collaborators;
-
     private NestedScoringParameters parameters;
+    /**
+     * Sobe a cada troca de parametros; projetos antigos, sem o campo, contam como 0.
+     */
+    private Long parametersVersion;
 
     private Instant createdAt;
     private Instant updatedAt;
 
+    /**
+     * Controle otimista das gravacoes do projeto; os colaboradores ficam em
+     * {@link ProjectCollaborator}, com versao propria. Projetos antigos recebem 0 na subida (ver
+     * {@code MigracaoVersaoProjetos}).
+     */
+    @Version
+    private Long version;
+
 }
@@ -0,0 +1,183 @@
+package com.avaliadados.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pontos de um colaborador por item da avaliacao, mais o total. Cada item so aparece quando a
+ * regra dele existe no projeto, entao os presentes ficam marcados em {@code presentes}.
+ * <p>
+ * No JSON continua o mapa de antes ({@code {"Regulacao": 5, "Total": 8}}). No Mongo vira um vetor
+ * de inteiros, {@code [presentes, total, valores dos presentes na ordem de Componente]} (ver
+ * {@link #paraMongo()}); documentos antigos, ainda com o mapa, sao lidos por {@link #de(Map)}.
+ */
+@EqualsAndHashCode
+@JsonSerialize(using = ScoreBreakdown.Serializador.class)
+@JsonDeserialize(using = ScoreBreakdown.Desserializador.class)
+public final class ScoreBreakdown {
+
+    public enum Componente {
+        REGULACAO("Regulacao"),
+        SAIDA_VTR("SaidaVTR"),
+        PAUSAS("Pausas"),
+        CRITICOS("Criticos"),
+        REMOVIDOS("Removidos"),
+        REMOVIDOS_LIDER("RemovidosLider");
+
+        private static final Componente[] TODOS = values();
+
+        @Getter
+        private final String chave;
+
+        Componente(String chave) {
+            this.chave = chave;
+        }
+
+        private int bit() {
+            return 1 << ordinal();
+        }
+    }
+
+    public static final String TOTAL = "Total";
+
+    private int presentes;
+    private int regulacao;
+    private int saidaVtr;
+    private int pausas;
+    private int criticos;
+    private int removidos;
+    private int removidosLider;
+    @Getter
+    @Setter
+    private int total;
+
+    public void registrar(Componente componente, int pontos) {
+        presentes |= componente.bit();
+        switch (componente) {
+            case REGULACAO -> regulacao = pontos;
+            case SAIDA_VTR -> saidaVtr = pontos;
+            case PAUSAS -> pausas = pontos;
+            case CRITICOS -> criticos = pontos;
+            case REMOVIDOS -> removidos = pontos;
+            case REMOVIDOS_LIDER -> removidosLider = pontos;
+        }
+    }
+
+    public boolean presente(Componente componente) {
+        return (presentes & componente.bit()) != 0;
+    }
+
+    /**
+     * Pontos do item, ou 0 quando ele nao entrou na avaliacao.
+     */
+    public int get(Componente componente) {
+        return switch (componente) {
+            case REGULACAO -> regulacao;
+            case SAIDA_VTR -> saidaVtr;
+            case PAUSAS -> pausas;
+            case CRITICOS -> criticos;
+            case REMOVIDOS -> removidos;
+            case REMOVIDOS_LIDER -> removidosLider;
+        };
+    }
+
+    /**
+     * Forma gravada no Mongo: {@code [presentes, total, valores dos presentes]}.
+     */
+    public List<Integer> paraMongo() {
+        List<Integer> valores = new ArrayList<>(2 + Integer.bitCount(presentes));
+        valores.add(presentes);
+        valores.add(total);
+        for (Componente c : Componente.TODOS) {
+            if (presente(c)) valores.add(get(c));
+        }
+        return valores;
+    }
+
+    public static ScoreBreakdown doMongo(List<?> valores) {
+        ScoreBreakdown pontos = new ScoreBreakdown();
+        if (valores.size() < 2) return pontos;
+        int presentes = ((Number) valores.get(0)).intValue();
+        pontos.total = ((Number) valores.get(1)).intValue();
+        int i = 2;
+        for (Componente c : Componente.TODOS) {
+            if ((presentes & c.bit()) != 0 && i < valores.size()) {
+                pontos.registrar(c, ((Number) valores.get(i++)).intValue());
+            }
+        }
+        return pontos;
+    }
+
+    /**
+     * Le o mapa antigo; chaves desconhecidas sao ignoradas.
+     */
+    public static ScoreBreakdown de(Map<String, ?> mapa) {
+        ScoreBreakdown pontos = new ScoreBreakdown();
+        for (Componente c : Componente.TODOS) {
+            if (mapa.get(c.chave) instanceof Number n) pontos.registrar(c, n.intValue());
+        }
+        if (mapa.get(TOTAL) instanceof Number n) pontos.total = n.intValue();
+        return pontos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (Componente c : Componente.TODOS) {
+            if (presente(c)) sb.append(c.chave).append('=').append(get(c)).append(", ");
+        }
+        return sb.append(TOTAL).append('=').append(total).append('}').toString();
+    }
+
+    static class Serializador extends JsonSerializer<ScoreBreakdown> {
+        @Override
+        public void serialize(ScoreBreakdown pontos, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeStartObject();
+            for (Componente c : Componente.TODOS) {
+                if (pontos.presente(c)) gen.writeNumberField(c.chave, pontos.get(c));
+            }
+            gen.writeNumberField(TOTAL, pontos.total);
+            gen.writeEndObject();
+        }
+    }
+
+    static class Desserializador extends JsonDeserializer<ScoreBreakdown> {
+        @Override
+        public ScoreBreakdown deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            ScoreBreakdown pontos = new ScoreBreakdown();
+            if (p.currentToken() != JsonToken.START_OBJECT) {
+                return (ScoreBreakdown) ctxt.handleUnexpectedToken(ScoreBreakdown.class, p);
+            }
+            for (String campo = p.nextFieldName(); campo != null; campo = p.nextFieldName()) {
+                p.nextToken();
+                if (!p.currentToken().isNumeric()) {
+                    p.skipChildren();
+                    continue;
+                }
+                if (TOTAL.equals(campo)) {
+                    pontos.total = p.getIntValue();
+                    continue;
+                }
+                for (Componente c : Componente.TODOS) {
+                    if (c.chave.equals(campo)) pontos.registrar(c, p.getIntValue());
+                }
+            }
+            return pontos;
+        }
+    }
+}
@@ -3,23 +3,42 @@ package com.avaliadados.model;
 import com.avaliadados.model.enums.TypeAv;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.TypeAlias;
 import org.springframework.data.mongodb.core.mapping.Document;
 
-import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Linha consolidada de uma planilha. Duracoes ficam em segundos; campos que nao se aplicam ao
+ * tipo (ou vazios na planilha) ficam nulos e nao sao gravados.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Document(collection = "project_spreadsheet_rows")
+@TypeAlias("sheetRow")
 public class SheetRow {
     @Id
     private String id;
     private String projectId;
     private String collaboratorId;
     private TypeAv type;
-    @Builder.Default
-    private Map<String, String> data = new HashMap<>();
+    private String hash;
 
+    private String nome;
+    private Double plantao;
+
+    private Long tarmSegundos;
+    private Long frotaSegundos;
+
+    private Long regulacaoSegundos;
+    private Long criticosSegundos;
+    private Long analiticoSegundos;
+
+    /**
+     * Formato antigo, com todos os valores em texto. Documentos que ainda o tem sao convertidos
+     * na leitura e migrados em segundo plano (ver {@code MigracaoSheetRows}).
+     */
+    private Map<String, String> data;
 }
@@ -0,0 +1,14 @@
+package com.avaliadados.model.dto;
+
+import com.avaliadados.service.utils.SheetsUtils;
+
+/**
+ * Projecao leve do colaborador (id, nome e nome canonico) usada no casamento de nomes das
+ * planilhas. Linhas antigas, sem o nome canonico gravado, calculam na hora.
+ */
+public record CollaboratorNome(String id, String nome, String nomeNormalizado) {
+
+    public CollaboratorNome {
+        if (nomeNormalizado == null) nomeNormalizado = SheetsUtils.normalizeName(nome);
+    }
+}
@@ -0,0 +1,12 @@
+package com.avaliadados.model.dto;
+
+import com.avaliadados.model.enums.MedicoRole;
+import com.avaliadados.model.enums.ShiftHours;
+
+/**
+ * Linha da listagem de colaboradores globais, lida so da tabela base. {@code medicoRole} e
+ * {@code shiftHours} vem nulos para quem nao e medico.
+ */
+public record CollaboratorResumo(String id, String nome, String cpf, String idCallRote, String role,
+                                 int pontuacao, MedicoRole medicoRole, ShiftHours shiftHours) {
+}
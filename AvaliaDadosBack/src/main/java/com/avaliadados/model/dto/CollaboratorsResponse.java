@@ -1,5 +1,6 @@
 package com.avaliadados.model.dto;
 
+import com.avaliadados.model.ScoreBreakdown;
 import com.avaliadados.model.enums.MedicoRole;
 import com.avaliadados.model.enums.ShiftHours;
 import jakarta.persistence.EnumType;
@@ -7,7 +8,6 @@ import jakarta.persistence.Enumerated;
 import lombok.*;
 
 import java.io.Serializable;
-import java.util.Map;
 
 @Getter
 @Setter
@@ -35,6 +35,6 @@ public class CollaboratorsResponse implements Serializable {
     private Long criticos;
     private int pontuacao;
 
-    Map<String, Integer> points;
+    ScoreBreakdown points;
 
 }
@@ -0,0 +1,23 @@
+package com.avaliadados.model.dto;
+
+import com.avaliadados.model.enums.TypeAv;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class NomeAliasRequest {
+    @NotNull(message = "O tipo da planilha é obrigatório")
+    private TypeAv type;
+
+    @NotBlank(message = "O nome da planilha é obrigatório")
+    private String nomePlanilha;
+
+    @NotBlank(message = "O ID do colaborador é obrigatório")
+    private String collaboratorId;
+}
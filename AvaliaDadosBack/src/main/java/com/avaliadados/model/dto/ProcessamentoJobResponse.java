@@ -0,0 +1,21 @@
+package com.avaliadados.model.dto;
+
+import com.avaliadados.model.enums.FaseProcessamento;
+import com.avaliadados.model.enums.StatusProcessamento;
+
+import java.time.Instant;
+import java.util.List;
+
+public record ProcessamentoJobResponse(
+        String jobId,
+        String projectId,
+        StatusProcessamento status,
+        FaseProcessamento fase,
+        long linhasLidas,
+        int colaboradores,
+        List<String> naoEncontrados,
+        String erro,
+        Instant criadoEm,
+        Instant finalizadoEm
+) {
+}
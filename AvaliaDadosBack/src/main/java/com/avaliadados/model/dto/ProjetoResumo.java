@@ -0,0 +1,18 @@
+package com.avaliadados.model.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Linha da listagem de projetos: so os dados do projeto e a contagem de colaboradores por
+ * cargo, sem parametros nem colaboradores.
+ */
+public record ProjetoResumo(
+        String id,
+        String name,
+        String month,
+        Map<String, Long> colaboradoresPorRole,
+        Instant updatedAt,
+        long parametersVersion
+) {
+}
@@ -0,0 +1,10 @@
+package com.avaliadados.model.dto;
+
+import java.util.List;
+
+/**
+ * Resultado do recalculo de todos os projetos: quantos colaboradores foram pontuados, quantos
+ * mudaram (e foram gravados) e os projetos que falharam.
+ */
+public record RecalculoResumo(int projetos, int colaboradores, int alterados, List<String> falhas, long duracaoMs) {
+}
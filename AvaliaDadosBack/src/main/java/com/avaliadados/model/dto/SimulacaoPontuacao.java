@@ -0,0 +1,49 @@
+package com.avaliadados.model.dto;
+
+import com.avaliadados.model.ScoreBreakdown;
+import com.avaliadados.model.enums.MedicoRole;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado de uma simulacao de parametros: a distribuicao de pontos por grupo de ranking com os
+ * parametros gravados e com os simulados, e so os colaboradores cujos pontos ou posicao mudariam.
+ * Os grupos sao o role, e os medicos separados por {@code medicoRole} (ex.: {@code MEDICO_LIDER}).
+ */
+public record SimulacaoPontuacao(
+        String projectId,
+        long parametersVersion,
+        int colaboradores,
+        int alterados,
+        int mudaramPosicao,
+        Map<String, Distribuicao> atual,
+        Map<String, Distribuicao> simulada,
+        List<Diferenca> diferencas,
+        long duracaoMs
+) {
+
+    /**
+     * {@code porPontos}: quantos colaboradores ficaram com cada total.
+     */
+    public record Distribuicao(int colaboradores, int min, int max, double media, double mediana,
+                               Map<Integer, Integer> porPontos) {
+    }
+
+    /**
+     * Posicoes no ranking do grupo, 1 = maior pontuacao; empates dividem a posicao (1, 2, 2, 4).
+     */
+    public record Diferenca(
+            String collaboratorId,
+            String nome,
+            String grupo,
+            MedicoRole medicoRole,
+            int pontosAtual,
+            int pontosSimulado,
+            int delta,
+            int posicaoAtual,
+            int posicaoSimulada,
+            ScoreBreakdown detalhe
+    ) {
+    }
+}
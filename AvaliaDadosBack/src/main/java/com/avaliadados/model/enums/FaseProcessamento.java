@@ -0,0 +1,9 @@
+package com.avaliadados.model.enums;
+
+public enum FaseProcessamento {
+    PARSE,
+    MATCH,
+    FETCH,
+    SCORE,
+    SAVE
+}
@@ -0,0 +1,11 @@
+package com.avaliadados.model.enums;
+
+public enum OrigemAlias {
+    CONFIRMADO,
+    MANUAL,
+    /**
+     * Casamento ambiguo registrado para revisao; nao e usado na leitura ate ser confirmado
+     * manualmente.
+     */
+    SUGERIDO
+}
@@ -0,0 +1,8 @@
+package com.avaliadados.model.enums;
+
+public enum StatusProcessamento {
+    PENDENTE,
+    EXECUTANDO,
+    CONCLUIDO,
+    ERRO
+}
@@ -2,6 +2,9 @@ package com.avaliadados.repository;
 
 
 import com.avaliadados.model.CollaboratorEntity;
+import com.avaliadados.model.dto.CollaboratorNome;
+import com.avaliadados.model.dto.CollaboratorResumo;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,6 +16,22 @@ public interface CollaboratorRepository extends JpaRepository<CollaboratorEntity
     @Query("SELECT c FROM CollaboratorEntity c WHERE UPPER(c.nome) LIKE UPPER(CONCAT('%', :nome, '%'))")
     List<CollaboratorEntity> findByNomeApproximate(@Param("nome") String nome);
 
+    @Query("SELECT new com.avaliadados.model.dto.CollaboratorNome(c.id, c.nome, c.nomeNormalizado) FROM CollaboratorEntity c")
+    List<CollaboratorNome> findAllNomes();
+
+    /**
+     * Proxima pagina da listagem, ordenada por (nome, id) e comecando logo depois do par
+     * informado; para a primeira, passar strings vazias. Registros antigos sem nome entram como
+     * nome vazio, no inicio da listagem.
+     */
+    @Query("""
+            SELECT new com.avaliadados.model.dto.CollaboratorResumo(c.id, c.nome, c.cpf, c.idCallRote, c.role,
+                c.pontuacao, c.medicoRole, c.shiftHours)
+            FROM CollaboratorEntity c
+            WHERE coalesce(c.nome, '') > :nome OR (coalesce(c.nome, '') = :nome AND c.id > :id)
+            ORDER BY coalesce(c.nome, ''), c.id""")
+    List<CollaboratorResumo> findResumosApos(@Param("nome") String nome, @Param("id") String id, Limit limit);
+
     boolean existsByNome(String nome);
 
     boolean existsByCpf(String cpf);
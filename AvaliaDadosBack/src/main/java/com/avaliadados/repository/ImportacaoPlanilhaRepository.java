@@ -0,0 +1,14 @@
+package com.avaliadados.repository;
+
+import com.avaliadados.model.ImportacaoPlanilha;
+import com.avaliadados.model.enums.TypeAv;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ImportacaoPlanilhaRepository extends MongoRepository<ImportacaoPlanilha, String> {
+    List<ImportacaoPlanilha> findByProjectIdAndSha256(String projectId, String sha256);
+
+    Optional<ImportacaoPlanilha> findByProjectIdAndType(String projectId, TypeAv type);
+}
@@ -0,0 +1,16 @@
+package com.avaliadados.repository;
+
+import com.avaliadados.model.NomeAlias;
+import com.avaliadados.model.enums.TypeAv;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface NomeAliasRepository extends MongoRepository<NomeAlias, String> {
+    List<NomeAlias> findByType(TypeAv type);
+
+    Optional<NomeAlias> findByTypeAndChave(TypeAv type, String chave);
+
+    List<NomeAlias> findByCollaboratorId(String collaboratorId);
+}
@@ -0,0 +1,32 @@
+package com.avaliadados.repository;
+
+import com.avaliadados.model.ProjectCollaborator;
+import com.avaliadados.model.enums.MedicoRole;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ProjectCollaboratorRepository extends MongoRepository<ProjectCollaborator, String> {
+    List<ProjectCollaborator> findByProjectId(String projectId);
+
+    List<ProjectCollaborator> findByProjectIdAndRoleIn(String projectId, Collection<String> roles);
+
+    /**
+     * So id, nome e cargo de cada colaborador do projeto.
+     */
+    @Query(value = "{ 'projectId': ?0 }", fields = "{ 'collaboratorId': 1, 'nome': 1, 'role': 1 }")
+    List<ProjectCollaborator> findQuadroByProjectId(String projectId);
+
+    Optional<ProjectCollaborator> findByProjectIdAndCollaboratorId(String projectId, String collaboratorId);
+
+    List<ProjectCollaborator> findByCollaboratorId(String collaboratorId);
+
+    boolean existsByProjectIdAndNomeAndMedicoRoleAndCollaboratorIdNot(String projectId, String nome, MedicoRole medicoRole, String collaboratorId);
+
+    void deleteByProjectIdAndCollaboratorId(String projectId, String collaboratorId);
+
+    void deleteByProjectId(String projectId);
+}
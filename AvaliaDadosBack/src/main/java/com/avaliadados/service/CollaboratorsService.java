@@ -1,17 +1,20 @@
 package com.avaliadados.service;
 
 import com.avaliadados.model.CollaboratorEntity;
-import com.avaliadados.model.ProjetoEntity;
+import com.avaliadados.model.ProjectCollaborator;
 import com.avaliadados.model.dto.CollaboratorRequest;
+import com.avaliadados.model.dto.CollaboratorResumo;
 import com.avaliadados.model.dto.CollaboratorsResponse;
 import com.avaliadados.model.roles.MedicoEntity;
 import com.avaliadados.repository.CollaboratorRepository;
 import com.avaliadados.repository.MedicoRepository;
-import com.avaliadados.repository.ProjetoRepository;
+import com.avaliadados.repository.ProjectCollaboratorRepository;
 import com.avaliadados.service.utils.CollaboratorsMapper;
+import com.avaliadados.service.utils.ConflitoVersao;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -23,7 +26,7 @@ public class CollaboratorsService {
     private final CollaboratorRepository collaboratorRepo;
     private final MedicoRepository medicoRepo;
     private final CollaboratorsMapper mapper;
-    private final ProjetoRepository projetoRepository;
+    private final ProjectCollaboratorRepository projectCollaboratorRepository;
 
 
     @Transactional
@@ -61,6 +64,24 @@ public class CollaboratorsService {
         return collaboratorRepo.findAll();
     }
 
+    /**
+     * Pagina da listagem por (nome, id), comecando depois do ultimo item da pagina anterior. Uma
+     * pagina com menos de {@code size} itens e a ultima. Se o ultimo item nao tem nome, basta o
+     * {@code aposId}.
+     */
+    public List<CollaboratorResumo> findResumos(String aposNome, String aposId, int size) {
+        if (size < 1 || size > 500) {
+            throw new IllegalArgumentException("Tamanho de página inválido: " + size);
+        }
+        if (aposNome != null && aposId == null) {
+            throw new IllegalArgumentException("Informe aposId junto com aposNome");
+        }
+        return collaboratorRepo.findResumosApos(
+                aposNome != null ? aposNome : "",
+                aposId != null ? aposId : "",
+                Limit.of(size));
+    }
+
     public List<CollaboratorEntity> findByName(String nome) {
         return collaboratorRepo.findByNomeApproximate(nome);
     }
@@ -130,17 +151,13 @@ public class CollaboratorsService {
 
     public void syncIds(String oldId, String newId) {
 
-        List<ProjetoEntity> projetos = projetoRepository.findByCollaboratorsCollaboratorId(oldId);
-        if (projetos.isEmpty()) {
-            return;
-        }
-        projetos.forEach(projeto -> {
-            projeto.getCollaborators().forEach(pc -> {
-                if (pc.getCollaboratorId().equals(oldId)) {
-                    pc.setCollaboratorId(newId);
-                }
-            });
-            projetoRepository.save(projeto);
+        ConflitoVersao.repetir("troca de id do colaborador " + oldId, () -> {
+            List<ProjectCollaborator> vinculos = projectCollaboratorRepository.findByCollaboratorId(oldId);
+            if (vinculos.isEmpty()) {
+                return;
+            }
+            vinculos.forEach(pc -> pc.setCollaboratorId(newId));
+            projectCollaboratorRepository.saveAll(vinculos);
         });
     }
 
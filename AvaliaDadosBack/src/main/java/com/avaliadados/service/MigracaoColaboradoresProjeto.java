@@ -0,0 +1,92 @@
+package com.avaliadados.service;
+
+import com.avaliadados.model.ProjectCollaborator;
+import com.avaliadados.model.ProjetoEntity;
+import com.avaliadados.repository.ProjectCollaboratorRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Move os colaboradores que ainda estao embutidos nos projetos ({@code collaborators}) para a
+ * colecao propria. Por projeto, grava os que ainda nao existem la (o primeiro de cada
+ * {@code collaboratorId}, como o resto do codigo ja fazia) e so depois tira a lista do projeto;
+ * se a subida for interrompida no meio, a proxima retoma de onde parou.
+ *
+ * Roda assim que os beans estao prontos, antes de o servidor web ser iniciado: enquanto a colecao
+ * nao estiver completa, a listagem, os envios de planilha e a inclusao de colaboradores veriam
+ * projetos vazios ou pela metade.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MigracaoColaboradoresProjeto implements SmartInitializingSingleton {
+
+    private final MongoTemplate mongoTemplate;
+    private final ProjectCollaboratorRepository projectCollaboratorRepo;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        migrar();
+    }
+
+    void migrar() {
+        Query comLista = Query.query(Criteria.where("collaborators").exists(true));
+        comLista.fields().include("collaborators");
+
+        int projetos = 0;
+        long colaboradores = 0;
+        String colecao = mongoTemplate.getCollectionName(ProjetoEntity.class);
+        try (Stream<ProjetoLegado> legados = mongoTemplate.stream(comLista, ProjetoLegado.class, colecao)) {
+            for (ProjetoLegado legado : (Iterable<ProjetoLegado>) legados::iterator) {
+                colaboradores += migrar(legado);
+                projetos++;
+            }
+        }
+        if (projetos > 0) log.info("{} colaboradores de {} projetos movidos para a colecao propria", colaboradores, projetos);
+    }
+
+    private int migrar(ProjetoLegado legado) {
+        Set<String> existentes = projectCollaboratorRepo.findQuadroByProjectId(legado.getId()).stream()
+                .map(ProjectCollaborator::getCollaboratorId)
+                .collect(Collectors.toCollection(HashSet::new));
+
+        List<ProjectCollaborator> novos = new ArrayList<>();
+        if (legado.getCollaborators() != null) {
+            for (ProjectCollaborator pc : legado.getCollaborators()) {
+                if (pc == null || pc.getCollaboratorId() == null || !existentes.add(pc.getCollaboratorId())) continue;
+                pc.setProjectId(legado.getId());
+                novos.add(pc);
+            }
+        }
+        projectCollaboratorRepo.saveAll(novos);
+
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(legado.getId())),
+                new Update().unset("collaborators"), ProjetoEntity.class);
+        return novos.size();
+    }
+
+    /**
+     * Projeto no formato antigo, lido so com a lista embutida.
+     */
+    @Getter
+    @Setter
+    static class ProjetoLegado {
+        private String id;
+        private List<ProjectCollaborator> collaborators;
+    }
+}
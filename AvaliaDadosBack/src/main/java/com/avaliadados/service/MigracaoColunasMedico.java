@@ -0,0 +1,47 @@
+package com.avaliadados.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * {@code medicoRole} e {@code shiftHours} ficavam na tabela {@code medico_entity} e passaram para
+ * {@code colaborador}. Na subida, copia os valores dos medicos que ainda nao tem a coluna nova
+ * preenchida e renomeia as colunas antigas (sufixo {@code _migrado}) na mesma transacao, entao a
+ * copia acontece uma unica vez: valores apagados depois nao voltam na proxima subida. Bancos
+ * criados depois da mudanca nao tem as colunas antigas e nao fazem nada.
+ *
+ * Roda antes de o servidor web ser iniciado: ate a copia, a listagem de colaboradores e a criacao
+ * de projetos leriam medicos sem cargo e sem turno.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MigracaoColunasMedico implements SmartInitializingSingleton {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        transactionTemplate.executeWithoutResult(status -> migrar());
+    }
+
+    void migrar() {
+        Integer colunasAntigas = jdbcTemplate.queryForObject("""
+                SELECT count(*) FROM information_schema.columns
+                WHERE table_name = 'medico_entity' AND column_name IN ('medico_role', 'shift_hours')""", Integer.class);
+        if (colunasAntigas == null || colunasAntigas < 2) return;
+
+        int migrados = jdbcTemplate.update("""
+                UPDATE colaborador c SET medico_role = m.medico_role, shift_hours = m.shift_hours
+                FROM medico_entity m
+                WHERE m.id = c.id AND c.medico_role IS NULL AND c.shift_hours IS NULL""");
+        jdbcTemplate.execute("ALTER TABLE medico_entity RENAME COLUMN medico_role TO medico_role_migrado");
+        jdbcTemplate.execute("ALTER TABLE medico_entity RENAME COLUMN shift_hours TO shift_hours_migrado");
+        log.info("Cargo e turno copiados para a tabela base em {} medicos", migrados);
+    }
+}
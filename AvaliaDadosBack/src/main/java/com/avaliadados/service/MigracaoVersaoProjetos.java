@@ -0,0 +1,38 @@
+package com.avaliadados.service;
+
+import com.avaliadados.model.ProjetoEntity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Projetos gravados antes do {@code @Version} nao tem o campo; sem ele o Spring Data trata o
+ * projeto como novo e tenta inseri-lo de novo. Um unico update na subida os coloca na versao 0.
+ *
+ * Roda antes de o servidor web ser iniciado: um projeto salvo por uma requisicao antes da
+ * migracao falharia com chave duplicada.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MigracaoVersaoProjetos implements SmartInitializingSingleton {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        migrar();
+    }
+
+    void migrar() {
+        Query semVersao = Query.query(Criteria.where("version").exists(false));
+        long migrados = mongoTemplate.updateMulti(semVersao, new Update().set("version", 0L), ProjetoEntity.class)
+                .getModifiedCount();
+        if (migrados > 0) log.info("Versao inicial gravada em {} projetos", migrados);
+    }
+}
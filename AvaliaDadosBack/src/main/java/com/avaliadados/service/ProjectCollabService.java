@@ -7,27 +7,56 @@ import com.avaliadados.model.dto.CollaboratorsResponse;
 import com.avaliadados.model.dto.ProjectCollabRequest;
 import com.avaliadados.model.enums.MedicoRole;
 import com.avaliadados.repository.CollaboratorRepository;
+import com.avaliadados.repository.ProjectCollaboratorRepository;
 import com.avaliadados.repository.ProjetoRepository;
 import com.avaliadados.service.utils.CollabParams;
+import com.avaliadados.service.utils.ConflitoVersao;
 import com.avaliadados.service.utils.SheetProcessingService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.regex.Pattern;
 
+import static com.avaliadados.service.utils.SheetsUtils.normalizeName;
+
+/**
+ * Colaboradores de um projeto, cada um no seu documento. Inclusao e edicao gravam sobre a versao
+ * lida do colaborador; se ele mudou no meio, o calculo e refeito (ver {@link ConflitoVersao}).
+ */
 @Service
 @RequiredArgsConstructor
 public class ProjectCollabService {
 
+    private static final Map<String, String> ORDENACOES = Map.of(
+            "nome", "nome",
+            "pontuacao", "pontuacao");
+
+    private final MongoTemplate mongoTemplate;
     private final ProjetoRepository projetoRepo;
+    private final ProjectCollaboratorRepository projectCollaboratorRepo;
     private final CollaboratorRepository collaboratorRepo;
     private final CollabParams collabParams;
     private final SheetProcessingService sheetProcessingService;
 
     @Transactional
-    public ProjetoEntity addCollaborator(String projectId, ProjectCollabRequest dto) {
+    public ProjectCollaborator addCollaborator(String projectId, ProjectCollabRequest dto) {
+        return ConflitoVersao.repetir("inclusao de colaborador no projeto " + projectId, () -> incluir(projectId, dto));
+    }
+
+    private ProjectCollaborator incluir(String projectId, ProjectCollabRequest dto) {
 
         ProjetoEntity projeto = projetoRepo.findById(projectId)
                 .orElseThrow(() -> new RuntimeException("Projeto não encontrado"));
@@ -38,6 +67,7 @@ public class ProjectCollabService {
                 .orElse(com.avaliadados.model.enums.MedicoRole.NENHUM);
 
         ProjectCollaborator pc = ProjectCollaborator.builder()
+                .projectId(projectId)
                 .collaboratorId(dto.getCollaboratorId())
                 .nome(collab.getNome())
                 .role(dto.getRole())
@@ -75,112 +105,158 @@ public class ProjectCollabService {
                     pc.setPontuacao(pontos);
                 });
 
-        projeto.getCollaborators().removeIf(p -> p.getCollaboratorId().equals(dto.getCollaboratorId()));
-        projeto.getCollaborators().add(pc);
-        return projetoRepo.save(projeto);
+        projectCollaboratorRepo.findByProjectIdAndCollaboratorId(projectId, pc.getCollaboratorId())
+                .ifPresent(existente -> {
+                    pc.setId(existente.getId());
+                    pc.setVersion(existente.getVersion());
+                });
+        try {
+            return projectCollaboratorRepo.save(pc);
+        } catch (DuplicateKeyException e) {
+            throw new OptimisticLockingFailureException("Colaborador " + pc.getCollaboratorId() + " incluido no projeto " + projectId + " em paralelo", e);
+        }
     }
 
-    public List<CollaboratorsResponse> getAllProjectCollaborators(String projectId) {
-        ProjetoEntity projeto = projetoRepo.findById(projectId)
-                .orElseThrow(() -> new RuntimeException("Projeto não encontrado"));
+    /**
+     * Colaboradores do projeto, com filtro por cargo e por trecho do nome e ordenados por nome ou
+     * pontuacao. Sem {@code page}, devolve todos.
+     *
+     * @throws IllegalArgumentException para ordenacao, direcao, pagina ou tamanho invalidos
+     */
+    public Page<CollaboratorsResponse> getAllProjectCollaborators(String projectId, String role, String nome,
+                                                                  String ordenarPor, String direcao,
+                                                                  Integer page, int size) {
+        if (!projetoRepo.existsById(projectId)) {
+            throw new RuntimeException("Projeto não encontrado");
+        }
+        String campo = ORDENACOES.get(ordenarPor);
+        if (campo == null) {
+            throw new IllegalArgumentException("Ordenação inválida: " + ordenarPor);
+        }
+        Sort.Direction sentido = Sort.Direction.fromOptionalString(direcao)
+                .orElseThrow(() -> new IllegalArgumentException("Direção inválida: " + direcao));
+        if (page != null && (page < 0 || size < 1 || size > 500)) {
+            throw new IllegalArgumentException("Página inválida: page=" + page + ", size=" + size);
+        }
+        Sort sort = Sort.by(sentido, campo).and(Sort.by("collaboratorId"));
+
+        Query query = Query.query(Criteria.where("projectId").is(projectId));
+        if (role != null && !role.isBlank()) {
+            query.addCriteria(Criteria.where("role").is(role));
+        }
+        String trecho = nome != null ? normalizeName(nome) : "";
+        if (!trecho.isEmpty()) {
+            query.addCriteria(Criteria.where("nomeNormalizado").regex(Pattern.quote(trecho)));
+        }
+
+        if (page == null) {
+            List<CollaboratorsResponse> todos = mongoTemplate.find(query.with(sort), ProjectCollaborator.class).stream()
+                    .map(ProjectCollabService::toResponse)
+                    .toList();
+            return new PageImpl<>(todos);
+        }
 
-        return projeto.getCollaborators().stream().map(
-                pc -> CollaboratorsResponse.builder()
-                        .id(pc.getCollaboratorId())
-                        .nome(pc.getNome())
-                        .role(pc.getRole())
-                        .medicoRole(pc.getMedicoRole())
-                        .shiftHours(pc.getShiftHours())
-                        .durationSeconds(pc.getDurationSeconds())
-                        .removidos(pc.getRemovidos())
-                        .removidosLider(pc.getRemovidosLider())
-                        .pausaMensalSeconds(pc.getPausaMensalSeconds())
-                        .saidaVtr(pc.getSaidaVtrSeconds())
-                        .pontuacao(pc.getPontuacao())
-                        .criticos(pc.getCriticos())
-                        .points(pc.getPoints())
-                        .idCallRote(pc.getIdCallRote())
-                        .build()
-        ).toList();
+        PageRequest pagina = PageRequest.of(page, size, sort);
+        long total = mongoTemplate.count(query, ProjectCollaborator.class);
+        List<CollaboratorsResponse> conteudo = mongoTemplate.find(query.with(pagina), ProjectCollaborator.class).stream()
+                .map(ProjectCollabService::toResponse)
+                .toList();
+        return new PageImpl<>(conteudo, pagina, total);
+    }
+
+    private static CollaboratorsResponse toResponse(ProjectCollaborator pc) {
+        return CollaboratorsResponse.builder()
+                .id(pc.getCollaboratorId())
+                .nome(pc.getNome())
+                .role(pc.getRole())
+                .medicoRole(pc.getMedicoRole())
+                .shiftHours(pc.getShiftHours())
+                .durationSeconds(pc.getDurationSeconds())
+                .removidos(pc.getRemovidos())
+                .removidosLider(pc.getRemovidosLider())
+                .pausaMensalSeconds(pc.getPausaMensalSeconds())
+                .saidaVtr(pc.getSaidaVtrSeconds())
+                .pontuacao(pc.getPontuacao())
+                .criticos(pc.getCriticos())
+                .points(pc.getPoints())
+                .idCallRote(pc.getIdCallRote())
+                .build();
     }
 
     @Transactional
-    public ProjetoEntity updateProjectCollaborator(
+    public ProjectCollaborator updateProjectCollaborator(
             String projectId,
             String collaboratorId,
             ProjectCollabRequest dto,
             boolean wasEdited
     ) {
+        return ConflitoVersao.repetir("edicao do colaborador " + collaboratorId + " no projeto " + projectId,
+                () -> editar(projectId, collaboratorId, dto, wasEdited));
+    }
+
+    private ProjectCollaborator editar(String projectId, String collaboratorId, ProjectCollabRequest dto, boolean wasEdited) {
         ProjetoEntity projeto = projetoRepo.findById(projectId)
                 .orElseThrow(() -> new RuntimeException("Projeto não encontrado"));
         collaboratorRepo.findById(collaboratorId)
                 .orElseThrow(() -> new RuntimeException("Colaborador não encontrado: " + collaboratorId));
 
-        boolean existsNoProjeto = projeto.getCollaborators().stream()
-                .anyMatch(c ->
-                        !c.getCollaboratorId().equals(collaboratorId) &&
-                                c.getNome().equals(dto.getNome()) &&
-                                c.getMedicoRole().equals(dto.getMedicoRole())
-                );
-
-        if (existsNoProjeto) {
+        if (dto.getNome() != null && dto.getMedicoRole() != null
+                && projectCollaboratorRepo.existsByProjectIdAndNomeAndMedicoRoleAndCollaboratorIdNot(projectId, dto.getNome(), dto.getMedicoRole(), collaboratorId)) {
             throw new RuntimeException("Colaborador com mesmo nome e médicoRole já existe no projeto.");
         }
 
-        projeto.getCollaborators().stream()
-                .filter(pc -> pc.getCollaboratorId().equals(collaboratorId))
-                .findFirst()
-                .ifPresent(pc -> {
-                    boolean pointEdited = false;
-
-                    if (!wasEdited && !pc.getWasEdited()) {
-                        sheetProcessingService
-                                .findAndAssociateSheetRow(collaboratorId, projectId, pc.getNome())
-                                .ifPresent(sheetRow -> sheetProcessingService.populateFromSheet(pc, sheetRow));
-                    }
-
-                    Optional.ofNullable(dto.getNome()).ifPresent(pc::setNome);
-                    Optional.ofNullable(dto.getRole()).ifPresent(pc::setRole);
-                    Optional.ofNullable(dto.getCriticos()).ifPresent(pc::setCriticos);
-                    pc.setMedicoRole(Optional.ofNullable(dto.getMedicoRole()).orElse(MedicoRole.NENHUM));
-                    Optional.ofNullable(dto.getShiftHours()).ifPresent(pc::setShiftHours);
-                    Optional.ofNullable(dto.getIdCallRote()).ifPresent(pc::setIdCallRote);
-                    pc.setWasEdited(wasEdited || pc.getWasEdited());
-                    Optional.ofNullable(dto.getSaidaVtr()).ifPresent(pc::setSaidaVtrSeconds);
-                    Optional.ofNullable(dto.getDurationSeconds()).ifPresent(pc::setDurationSeconds);
-                    Optional.ofNullable(dto.getRemovidos()).ifPresent(pc::setRemovidos);
-                    Optional.ofNullable(dto.getRemovidosLider()).ifPresent(pc::setRemovidosLider);
-                    Optional.ofNullable(dto.getPausaMensalSeconds()).ifPresent(pc::setPausaMensalSeconds);
-
-                    if (!dto.getPontuacao().equals(pc.getPontuacao())) {
-                        Optional.of(dto.getPontuacao()).ifPresent(pc::setPontuacao);
-                        pointEdited = true;
-                    }
-
-                    if (!pointEdited) {
-                        int pontos = collabParams.setParams(
-                                pc,
-                                projeto,
-                                pc.getRemovidos()          != null ? pc.getRemovidos()          : 0,
-                                pc.getRemovidosLider()     != null ? pc.getRemovidosLider()      : 0,
-                                pc.getDurationSeconds()    != null ? pc.getDurationSeconds()     : 0L,
-                                Optional.ofNullable(pc.getCriticos()).orElse(0L),
-                                pc.getPausaMensalSeconds() != null ? pc.getPausaMensalSeconds()  : 0,
-                                Optional.ofNullable(pc.getSaidaVtrSeconds()).orElse(0L)
-                        );
-                        pc.setPontuacao(pontos);
-                    }
+        Optional<ProjectCollaborator> editado = projectCollaboratorRepo.findByProjectIdAndCollaboratorId(projectId, collaboratorId);
+        editado.ifPresent(pc -> {
+            boolean pointEdited = false;
 
-                });
+            if (!wasEdited && !pc.getWasEdited()) {
+                sheetProcessingService
+                        .findAndAssociateSheetRow(collaboratorId, projectId, pc.getNome())
+                        .ifPresent(sheetRow -> sheetProcessingService.populateFromSheet(pc, sheetRow));
+            }
 
-        return projetoRepo.save(projeto);
+            Optional.ofNullable(dto.getNome()).ifPresent(pc::setNome);
+            Optional.ofNullable(dto.getRole()).ifPresent(pc::setRole);
+            Optional.ofNullable(dto.getCriticos()).ifPresent(pc::setCriticos);
+            pc.setMedicoRole(Optional.ofNullable(dto.getMedicoRole()).orElse(MedicoRole.NENHUM));
+            Optional.ofNullable(dto.getShiftHours()).ifPresent(pc::setShiftHours);
+            Optional.ofNullable(dto.getIdCallRote()).ifPresent(pc::setIdCallRote);
+            pc.setWasEdited(wasEdited || pc.getWasEdited());
+            Optional.ofNullable(dto.getSaidaVtr()).ifPresent(pc::setSaidaVtrSeconds);
+            Optional.ofNullable(dto.getDurationSeconds()).ifPresent(pc::setDurationSeconds);
+            Optional.ofNullable(dto.getRemovidos()).ifPresent(pc::setRemovidos);
+            Optional.ofNullable(dto.getRemovidosLider()).ifPresent(pc::setRemovidosLider);
+            Optional.ofNullable(dto.getPausaMensalSeconds()).ifPresent(pc::setPausaMensalSeconds);
+
+            if (!dto.getPontuacao().equals(pc.getPontuacao())) {
+                Optional.of(dto.getPontuacao()).ifPresent(pc::setPontuacao);
+                pointEdited = true;
+            }
+
+            if (!pointEdited) {
+                int pontos = collabParams.setParams(
+                        pc,
+                        projeto,
+                        pc.getRemovidos()          != null ? pc.getRemovidos()          : 0,
+                        pc.getRemovidosLider()     != null ? pc.getRemovidosLider()      : 0,
+                        pc.getDurationSeconds()    != null ? pc.getDurationSeconds()     : 0L,
+                        Optional.ofNullable(pc.getCriticos()).orElse(0L),
+                        pc.getPausaMensalSeconds() != null ? pc.getPausaMensalSeconds()  : 0,
+                        Optional.ofNullable(pc.getSaidaVtrSeconds()).orElse(0L)
+                );
+                pc.setPontuacao(pontos);
+            }
+
+        });
+
+        return editado.map(projectCollaboratorRepo::save).orElse(null);
     }
 
     @Transactional
     public void removeCollaborator(String projectId, String collaboratorId) {
-        ProjetoEntity projeto = projetoRepo.findById(projectId)
-                .orElseThrow(() -> new RuntimeException("Projeto não encontrado"));
-        projeto.getCollaborators().removeIf(pc -> pc.getCollaboratorId().equals(collaboratorId));
-        projetoRepo.save(projeto);
+        if (!projetoRepo.existsById(projectId)) {
+            throw new RuntimeException("Projeto não encontrado");
+        }
+        projectCollaboratorRepo.deleteByProjectIdAndCollaboratorId(projectId, collaboratorId);
     }
 }
@@ -3,69 +3,211 @@ package com.avaliadados.service;
 import com.avaliadados.model.CollaboratorEntity;
 import com.avaliadados.model.ProjectCollaborator;
 import com.avaliadados.model.ProjetoEntity;
+import com.avaliadados.model.ScoreBreakdown;
 import com.avaliadados.model.enums.MedicoRole;
+import com.avaliadados.model.dto.ProjetoResumo;
+import com.avaliadados.model.dto.RecalculoResumo;
 import com.avaliadados.model.params.NestedScoringParameters;
 import com.avaliadados.model.roles.MedicoEntity;
 import com.avaliadados.repository.CollaboratorRepository;
 import com.avaliadados.repository.MedicoRepository;
+import com.avaliadados.repository.ProjectCollaboratorRepository;
 import com.avaliadados.repository.ProjetoRepository;
+import com.avaliadados.service.utils.ConflitoVersao;
+import com.avaliadados.service.utils.RegrasCompiladas;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ProjetosService {
 
+    private static final Pattern MES = Pattern.compile("(\\d{2})-(\\d{4})");
+
+    private final MongoTemplate mongoTemplate;
     private final ProjetoRepository projetoRepo;
+    private final ProjectCollaboratorRepository projectCollaboratorRepo;
     private final CollaboratorRepository collaboratorRepo;
     private final MedicoRepository medicoRepository;
     private final ScoringService scoringService;
     private final ObjectMapper objectMapper;
 
+    @Value("${avaliacao.recalculo.threads:0}")
+    private int recalculoThreads;
+
+    /**
+     * Aplica a atualizacao e grava o projeto primeiro; so depois repontua, com a versao de
+     * parametros que acabou de ser gravada, quem usa alguma lista de regras que mudou. Um conflito
+     * na gravacao do projeto nao deixa colaboradores pontuados com parametros que nao foram salvos.
+     */
     public ProjetoEntity updateProjeto(String id, Map<String, Object> updates) {
+        Atualizacao atualizacao = ConflitoVersao.repetir("atualizacao do projeto " + id, () -> aplicarAtualizacao(id, updates));
+        if (atualizacao.diferenca() != null) {
+            ConflitoVersao.repetir("recalculo do projeto " + id,
+                    () -> recalcularAfetados(atualizacao.projeto(), atualizacao.diferenca(), atualizacao.regras()));
+        }
+        return atualizacao.projeto();
+    }
+
+    private record Atualizacao(ProjetoEntity projeto, RegrasCompiladas regras, RegrasCompiladas.Diferenca diferenca) {
+    }
+
+    private Atualizacao aplicarAtualizacao(String id, Map<String, Object> updates) {
         var p = projetoRepo.findById(id).orElseThrow();
 
+        RegrasCompiladas novasRegras = null;
+        RegrasCompiladas.Diferenca diferenca = null;
         if (updates.containsKey("parameters")) {
             NestedScoringParameters newParams = objectMapper.convertValue(
                     updates.get("parameters"), NestedScoringParameters.class);
 
-            p.setParameters(newParams);
+            if (!newParams.equals(p.getParameters())) {
+                RegrasCompiladas anteriores = p.getParameters() != null ? scoringService.regras(p) : null;
+                // a versao nova so vale depois de gravada; ate la, nada de cache
+                novasRegras = RegrasCompiladas.compilar(newParams);
+                diferenca = novasRegras.diferenca(anteriores);
+                p.setParameters(newParams);
+                p.setParametersVersion(Optional.ofNullable(p.getParametersVersion()).orElse(0L) + 1);
+            }
+        }
+
+        p.setUpdatedAt(Instant.now());
+        ProjetoEntity salvo = projetoRepo.save(p);
+        if (novasRegras != null) scoringService.trocarRegras(salvo, novasRegras);
+        return new Atualizacao(salvo, novasRegras, diferenca);
+    }
 
-            scoringService.invalidateCache();
+    /**
+     * Repontua so quem usa alguma lista de regras que mudou e grava so quem mudou de pontos. Se
+     * outra atualizacao ja gravou parametros mais novos, ela repontua e esta para.
+     */
+    private void recalcularAfetados(ProjetoEntity salvo, RegrasCompiladas.Diferenca diferenca, RegrasCompiladas regras) {
+        if (diferenca.nenhuma()) return;
 
-            p.getCollaborators().forEach(collab -> recalculateCollaboratorPoints(collab, p));
+        String projectId = salvo.getId();
+        Long versaoAtual = projetoRepo.findById(projectId).map(ProjetoEntity::getParametersVersion).orElse(null);
+        if (!Objects.equals(versaoAtual, salvo.getParametersVersion())) return;
+
+        List<ProjectCollaborator> lidos = diferenca.todos()
+                ? projectCollaboratorRepo.findByProjectId(projectId)
+                : projectCollaboratorRepo.findByProjectIdAndRoleIn(projectId, diferenca.roles());
+        List<ProjectCollaborator> afetados = lidos.stream()
+                .filter(pc -> diferenca.afeta(pc.getRole(), pc.getMedicoRole()))
+                .toList();
+        List<ProjectCollaborator> alterados = recalcularPontos(afetados, regras);
+        if (!alterados.isEmpty()) projectCollaboratorRepo.saveAll(alterados);
+    }
+
+    /**
+     * Recalcula os pontos de todos os projetos com os parametros gravados, varios projetos ao
+     * mesmo tempo ({@code avaliacao.recalculo.threads}; 0 usa um por nucleo). So os colaboradores
+     * cujos pontos mudaram sao gravados; um projeto que falha nao interrompe os outros e aparece
+     * em {@code falhas}.
+     */
+    public RecalculoResumo recalcularTodos() {
+        long inicio = System.nanoTime();
+        List<String> ids = projetoRepo.findAll().stream().map(ProjetoEntity::getId).toList();
+        int threads = recalculoThreads > 0 ? recalculoThreads : Runtime.getRuntime().availableProcessors();
+        threads = Math.max(1, Math.min(ids.size(), threads));
+
+        List<Future<Parcial>> parciais;
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads)) {
+            parciais = ids.stream().map(id -> pool.submit(() -> recalcularProjeto(id))).toList();
         }
 
-        p.setUpdatedAt(Instant.now());
-        return projetoRepo.save(p);
+        int colaboradores = 0;
+        int alterados = 0;
+        List<String> falhas = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            try {
+                Parcial parcial = parciais.get(i).get();
+                colaboradores += parcial.colaboradores();
+                alterados += parcial.alterados();
+            } catch (ExecutionException e) {
+                log.error("Falha ao recalcular o projeto {}", ids.get(i), e.getCause());
+                falhas.add(ids.get(i));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Recalculo interrompido", e);
+            }
+        }
+        return new RecalculoResumo(ids.size(), colaboradores, alterados, falhas,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
     }
 
-    private void recalculateCollaboratorPoints(ProjectCollaborator collaborator, ProjetoEntity projeto) {
-        if (collaborator.getMedicoRole() == null)
-            collaborator.setMedicoRole(MedicoRole.valueOf("NENHUM"));
-
-        Map<String, Integer> pontos = scoringService.calculateCollaboratorScore(
-                collaborator.getRole(),
-                collaborator.getMedicoRole().name(),
-                collaborator.getDurationSeconds(),
-                collaborator.getCriticos(),
-                collaborator.getRemovidos(),
-                collaborator.getRemovidosLider(),
-                collaborator.getPausaMensalSeconds(),
-                collaborator.getSaidaVtrSeconds(),
-                projeto.getParameters()
-        );
-        collaborator.setPoints(pontos);
+    private record Parcial(int colaboradores, int alterados) {
+    }
+
+    private Parcial recalcularProjeto(String projectId) {
+        return ConflitoVersao.repetir("recalculo do projeto " + projectId, () -> {
+            ProjetoEntity projeto = projetoRepo.findById(projectId).orElse(null);
+            if (projeto == null || projeto.getParameters() == null) return new Parcial(0, 0);
+
+            List<ProjectCollaborator> colaboradores = projectCollaboratorRepo.findByProjectId(projectId);
+            List<ProjectCollaborator> alterados = recalcularPontos(colaboradores, scoringService.regras(projeto));
+            if (!alterados.isEmpty()) projectCollaboratorRepo.saveAll(alterados);
+            return new Parcial(colaboradores.size(), alterados.size());
+        });
+    }
+
+    /**
+     * Pontua a lista inteira em lote e devolve os colaboradores que mudaram.
+     */
+    private List<ProjectCollaborator> recalcularPontos(List<ProjectCollaborator> colaboradores, RegrasCompiladas regras) {
+        List<ProjectCollaborator> alterados = new ArrayList<>();
+        boolean[] semMedicoRole = new boolean[colaboradores.size()];
+        for (int i = 0; i < colaboradores.size(); i++) {
+            ProjectCollaborator collaborator = colaboradores.get(i);
+            if (collaborator.getMedicoRole() == null) {
+                collaborator.setMedicoRole(MedicoRole.NENHUM);
+                semMedicoRole[i] = true;
+            }
+        }
+
+        ScoreBreakdown[] pontos = scoringService.pontuarLote(colaboradores, regras);
+        for (int i = 0; i < pontos.length; i++) {
+            ProjectCollaborator collaborator = colaboradores.get(i);
+            if (semMedicoRole[i] || !pontos[i].equals(collaborator.getPoints())) {
+                alterados.add(collaborator);
+            }
+            collaborator.setPoints(pontos[i]);
+        }
+        return alterados;
     }
 
     public ProjetoEntity createProjetoWithCollaborators(ProjetoEntity projeto) {
         projeto.setCreatedAt(Instant.now());
+        projeto.setParametersVersion(0L);
         ProjetoEntity novo = projetoRepo.save(projeto);
         List<CollaboratorEntity> globais = collaboratorRepo.findAll();
         List<MedicoEntity> medicos = medicoRepository.findAll();
@@ -73,6 +215,7 @@ public class ProjetosService {
         var collabs = globais.stream().map(g -> {
             if (!Objects.equals(g.getRole(), "MEDICO")) {
                 return ProjectCollaborator.builder()
+                        .projectId(novo.getId())
                         .nome(g.getNome())
                         .collaboratorId(g.getId())
                         .role(g.getRole())
@@ -81,6 +224,7 @@ public class ProjetosService {
             return medicos.stream()
                     .filter(m -> m.getId().equals(g.getId()))
                     .map(m -> ProjectCollaborator.builder()
+                            .projectId(novo.getId())
                             .nome(m.getNome())
                             .collaboratorId(m.getId())
                             .role(g.getRole())
@@ -89,17 +233,92 @@ public class ProjetosService {
                             .build())
                     .findFirst()
                     .orElse(null);
-        }).toList();
+        }).filter(Objects::nonNull).toList();
 
-        novo.setCollaborators(collabs);
-        return projetoRepo.save(novo);
+        projectCollaboratorRepo.saveAll(collabs);
+        return novo;
     }
 
     public List<ProjetoEntity> getAllProjeto() {
         return projetoRepo.findAll();
     }
 
+    public Optional<ProjetoEntity> getProjeto(String id) {
+        return projetoRepo.findById(id);
+    }
+
+    /**
+     * Projetos do mais recente para o mais antigo, opcionalmente entre os meses {@code de} e
+     * {@code ate} ("MM-yyyy", inclusivos). Le so os campos do resumo e conta os colaboradores de
+     * cada cargo pelo indice, sem carregar nenhum. Sem {@code page}, devolve todos.
+     */
+    public Page<ProjetoResumo> getResumos(String de, String ate, Integer page, int size) {
+        List<AggregationOperation> filtro = new ArrayList<>();
+        filtro.add(Aggregation.project("_id", "name", "month", "updatedAt", "parametersVersion"));
+        filtro.add(Aggregation.addFields()
+                .addFieldWithValue("competencia", StringOperators.Concat.valueOf(StringOperators.valueOf("month").substringCP(3, 4))
+                        .concatValueOf(StringOperators.valueOf("month").substringCP(0, 2)))
+                .build());
+        if (de != null || ate != null) {
+            Criteria faixa = Criteria.where("competencia");
+            if (de != null) faixa.gte(competencia(de));
+            if (ate != null) faixa.lte(competencia(ate));
+            filtro.add(Aggregation.match(faixa));
+        }
+
+        List<AggregationOperation> consulta = new ArrayList<>(filtro);
+        consulta.add(Aggregation.sort(Sort.by(Sort.Direction.DESC, "competencia").and(Sort.by("_id"))));
+        Pageable pagina = page != null ? PageRequest.of(page, size) : Pageable.unpaged();
+        if (pagina.isPaged()) {
+            consulta.add(Aggregation.skip(pagina.getOffset()));
+            consulta.add(Aggregation.limit(pagina.getPageSize()));
+        }
+        List<ProjetoEntity> projetos = mongoTemplate.aggregate(Aggregation.newAggregation(consulta), ProjetoEntity.class, ProjetoEntity.class)
+                .getMappedResults();
+
+        Map<String, Map<String, Long>> porRole = contarPorRole(projetos.stream().map(ProjetoEntity::getId).toList());
+        List<ProjetoResumo> resumos = projetos.stream()
+                .map(p -> new ProjetoResumo(p.getId(), p.getName(), p.getMonth(),
+                        porRole.getOrDefault(p.getId(), Map.of()), p.getUpdatedAt(),
+                        Optional.ofNullable(p.getParametersVersion()).orElse(0L)))
+                .toList();
+
+        if (pagina.isUnpaged()) return new PageImpl<>(resumos);
+        filtro.add(Aggregation.count().as("total"));
+        Document contagem = mongoTemplate.aggregate(Aggregation.newAggregation(filtro), ProjetoEntity.class, Document.class)
+                .getUniqueMappedResult();
+        long total = contagem != null ? ((Number) contagem.get("total")).longValue() : 0L;
+        return new PageImpl<>(resumos, pagina, total);
+    }
+
+    private Map<String, Map<String, Long>> contarPorRole(List<String> projectIds) {
+        Map<String, Map<String, Long>> porProjeto = new HashMap<>();
+        if (projectIds.isEmpty()) return porProjeto;
+
+        Aggregation contagem = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("projectId").in(projectIds)),
+                Aggregation.group("projectId", "role").count().as("total"));
+        for (Document grupo : mongoTemplate.aggregate(contagem, ProjectCollaborator.class, Document.class)) {
+            Document chave = grupo.get("_id", Document.class);
+            porProjeto.computeIfAbsent(chave.getString("projectId"), id -> new TreeMap<>())
+                    .put(Objects.requireNonNullElse(chave.getString("role"), "NENHUM"), ((Number) grupo.get("total")).longValue());
+        }
+        return porProjeto;
+    }
+
+    /**
+     * "MM-yyyy" para "yyyyMM", que ordena como texto.
+     */
+    private static String competencia(String mes) {
+        var m = MES.matcher(mes);
+        if (!m.matches()) {
+            throw new IllegalArgumentException("Mês inválido, use MM-yyyy: " + mes);
+        }
+        return m.group(2) + m.group(1);
+    }
+
     public void deleteProject(String projectId) {
         projetoRepo.deleteById(projectId);
+        projectCollaboratorRepo.deleteByProjectId(projectId);
     }
 }
@@ -1,25 +1,84 @@
 package com.avaliadados.service;
 
-import com.avaliadados.model.params.NestedScoringParameters;
-import com.avaliadados.model.params.ScoringRule;
-import com.avaliadados.model.params.ScoringSectionParams;
+import com.avaliadados.model.ProjectCollaborator;
+import com.avaliadados.model.ProjetoEntity;
+import com.avaliadados.model.ScoreBreakdown;
+import com.avaliadados.model.ScoreBreakdown.Componente;
+import com.avaliadados.service.utils.RegrasCompiladas;
+import com.avaliadados.service.utils.RegrasCompiladas.Faixas;
+import com.avaliadados.service.utils.RegrasCompiladas.Secao;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Optional;
 
+/**
+ * Pontuacao dos colaboradores. Os parametros de cada projeto sao compilados uma vez por
+ * {@code parametersVersion} (ver {@link RegrasCompiladas}) e guardados em um cache LRU limitado;
+ * trocar os parametros sobe a versao e {@link #trocarRegras} descarta as versoes antigas do projeto.
+ */
 @Service
 public class ScoringService {
 
-    private final ConcurrentHashMap<String, Integer> ruleCache = new ConcurrentHashMap<>();
+    private static final int MAX_PROJETOS_EM_CACHE = 256;
 
-    public void invalidateCache() {
-        ruleCache.clear();
+    // codigos de role e medicoRole, para nao comparar texto a cada regra
+    private static final byte OUTRO = 0;
+    private static final byte TARM = 1;
+    private static final byte FROTA = 2;
+    private static final byte MEDICO = 3;
+
+    private static final byte NENHUM = 0;
+    private static final byte LIDER = 1;
+    private static final byte REGULADOR = 2;
+
+    private record Chave(String projectId, long parametersVersion) {
+    }
+
+    private final Map<Chave, RegrasCompiladas> regrasPorProjeto = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Chave, RegrasCompiladas> eldest) {
+            return size() > MAX_PROJETOS_EM_CACHE;
+        }
+    };
+
+    /**
+     * Regras do projeto na versao de parametros gravada. Projeto ainda sem id compila sem cache.
+     */
+    public RegrasCompiladas regras(ProjetoEntity projeto) {
+        if (projeto.getParameters() == null) {
+            throw new IllegalArgumentException("Parâmetros nulos no projeto " + projeto.getId());
+        }
+        if (projeto.getId() == null) {
+            return RegrasCompiladas.compilar(projeto.getParameters());
+        }
+        Chave chave = new Chave(projeto.getId(), Optional.ofNullable(projeto.getParametersVersion()).orElse(0L));
+        synchronized (regrasPorProjeto) {
+            RegrasCompiladas cached = regrasPorProjeto.get(chave);
+            if (cached != null) return cached;
+        }
+        RegrasCompiladas compiladas = RegrasCompiladas.compilar(projeto.getParameters());
+        synchronized (regrasPorProjeto) {
+            regrasPorProjeto.putIfAbsent(chave, compiladas);
+        }
+        return compiladas;
     }
 
-    public Map<String, Integer> calculateCollaboratorScore(
+    /**
+     * Guarda as regras da versao recem-gravada do projeto e descarta as versoes anteriores dele;
+     * as entradas dos outros projetos ficam como estao.
+     */
+    public void trocarRegras(ProjetoEntity projeto, RegrasCompiladas regras) {
+        long versao = Optional.ofNullable(projeto.getParametersVersion()).orElse(0L);
+        synchronized (regrasPorProjeto) {
+            regrasPorProjeto.keySet().removeIf(c -> c.projectId().equals(projeto.getId()) && c.parametersVersion() < versao);
+            regrasPorProjeto.put(new Chave(projeto.getId(), versao), regras);
+        }
+    }
+
+    public ScoreBreakdown calculateCollaboratorScore(
             String role,
             String medicRole,
             Long durationSeconds,
@@ -28,153 +87,199 @@ public class ScoringService {
             Integer removidosLider,
             Long pausaMensalSeconds,
             Long saidaVtrSeconds,
-            NestedScoringParameters params
+            ProjetoEntity projeto
     ) {
-        Map<String, Integer> points = new HashMap<>();
-        if (params == null || role == null) {
-            throw new IllegalArgumentException("Parâmetros nulos: role= " + role + " , params= " + params);
+        if (role == null) {
+            throw new IllegalArgumentException("Parâmetros nulos: role= null, projeto= " + projeto.getId());
+        }
+        return calculateCollaboratorScore(role, medicRole, durationSeconds, criticos, removidos, removidosLider,
+                pausaMensalSeconds, saidaVtrSeconds, regras(projeto));
+    }
+
+    public ScoreBreakdown calculateCollaboratorScore(
+            String role,
+            String medicRole,
+            Long durationSeconds,
+            Long criticos,
+            Integer removidos,
+            Integer removidosLider,
+            Long pausaMensalSeconds,
+            Long saidaVtrSeconds,
+            RegrasCompiladas regras
+    ) {
+        if (regras == null || role == null) {
+            throw new IllegalArgumentException("Parâmetros nulos: role= " + role + " , params= " + regras);
+        }
+        ScoreBreakdown points = new ScoreBreakdown();
+        pontuar(codigoRole(role), codigoMedico(medicRole),
+                positivo(durationSeconds), positivo(criticos),
+                removidos != null, removidos != null ? removidos : 0,
+                removidosLider != null ? removidosLider : 0,
+                positivo(pausaMensalSeconds), positivo(saidaVtrSeconds),
+                regras, points);
+        return points;
+    }
+
+    /**
+     * Pontua todos os colaboradores de um projeto com as mesmas regras, sem repetir a busca das
+     * regras nem a conversao do role em texto para cada um. O resultado sai na mesma ordem da
+     * lista, igual ao de {@link #calculateCollaboratorScore} para cada um.
+     */
+    public ScoreBreakdown[] pontuarLote(List<ProjectCollaborator> colaboradores, RegrasCompiladas regras) {
+        if (regras == null) {
+            throw new IllegalArgumentException("Parâmetros nulos para o lote de " + colaboradores.size() + " colaboradores");
+        }
+        ScoreBreakdown[] pontos = new ScoreBreakdown[colaboradores.size()];
+        for (int i = 0; i < pontos.length; i++) {
+            ProjectCollaborator pc = colaboradores.get(i);
+            if (pc.getRole() == null) {
+                throw new IllegalArgumentException("Colaborador sem role no lote: " + pc.getCollaboratorId());
+            }
+            pontos[i] = new ScoreBreakdown();
+            pontuar(codigoRole(pc.getRole()),
+                    pc.getMedicoRole() != null ? codigoMedico(pc.getMedicoRole().name()) : NENHUM,
+                    positivo(pc.getDurationSeconds()), positivo(pc.getCriticos()),
+                    pc.getRemovidos() != null, pc.getRemovidos() != null ? pc.getRemovidos() : 0,
+                    pc.getRemovidosLider() != null ? pc.getRemovidosLider() : 0,
+                    positivo(pc.getPausaMensalSeconds()), positivo(pc.getSaidaVtrSeconds()),
+                    regras, pontos[i]);
         }
+        return pontos;
+    }
+
+    private static byte codigoRole(String role) {
+        return switch (role) {
+            case "TARM" -> TARM;
+            case "FROTA" -> FROTA;
+            case "MEDICO" -> MEDICO;
+            default -> OUTRO;
+        };
+    }
 
-        ScoringSectionParams sectionParams = switch (role) {
-            case "TARM"   -> params.getTarm();
-            case "FROTA"  -> params.getFrota();
-            case "MEDICO" -> params.getMedico();
-            default       -> null;
+    private static byte codigoMedico(String medicRole) {
+        if (medicRole == null) return NENHUM;
+        return switch (medicRole) {
+            case "LIDER" -> LIDER;
+            case "REGULADOR" -> REGULADOR;
+            default -> NENHUM;
         };
-        ScoringSectionParams colabParams = params.getColab();
+    }
+
+    /**
+     * Duracoes nulas e nao positivas nao pontuam; as duas viram 0.
+     */
+    private static long positivo(Long valor) {
+        return valor != null && valor > 0 ? valor : 0L;
+    }
+
+    private static void pontuar(byte role, byte medico, long duracao, long criticos,
+                                boolean temRemovidos, int removidos, int removidosLider,
+                                long pausa, long saidaVtr,
+                                RegrasCompiladas regras, ScoreBreakdown points) {
+        Secao sectionParams = switch (role) {
+            case TARM -> regras.tarm();
+            case FROTA -> regras.frota();
+            case MEDICO -> regras.medico();
+            default -> null;
+        };
+        Secao colabParams = regras.colab();
 
         int totalScore = 0;
 
-        switch (role) {
-            case "TARM" -> {
-                if (sectionParams != null)
-                    totalScore += calculateTarmScore(durationSeconds, removidos, sectionParams, points);
-            }
-            case "FROTA" -> {
-                if (sectionParams != null)
-                    totalScore += calculateFrotaScore(durationSeconds, pausaMensalSeconds, saidaVtrSeconds, sectionParams, points);
-            }
-            case "MEDICO" -> {
-                if (sectionParams != null)
-                    totalScore += calculateMedicoScore(medicRole, durationSeconds, criticos, removidos, removidosLider, sectionParams, points);
+        if (sectionParams != null) {
+            switch (role) {
+                case TARM -> totalScore += calculateTarmScore(duracao, temRemovidos, removidos, sectionParams, points);
+                case FROTA -> totalScore += calculateFrotaScore(duracao, pausa, saidaVtr, sectionParams, points);
+                case MEDICO -> totalScore += calculateMedicoScore(medico, duracao, criticos, removidos, removidosLider, sectionParams, points);
+                default -> {
+                }
             }
         }
 
         if (colabParams != null)
-            totalScore += calculateColabPausasScore(pausaMensalSeconds, colabParams, points);
+            totalScore += calculateColabPausasScore(pausa, colabParams, points);
 
-        points.put("Total", totalScore);
-        return points;
+        points.setTotal(totalScore);
     }
 
-    private int calculateTarmScore(Long duration, Integer removidos, ScoringSectionParams params, Map<String, Integer> points) {
-        int score = calculateRemovidos(removidos, params, points);
-        if (duration != null && duration > 0 && params.getRegulacao() != null && !params.getRegulacao().isEmpty()) {
-            int pt = matchDurationRule(duration, params.getRegulacao());
+    private static int calculateTarmScore(long duration, boolean temRemovidos, int removidos, Secao params, ScoreBreakdown points) {
+        int score = 0;
+        if (temRemovidos && params.removidos().presente()) {
+            int pt = matchRemovidosRule(removidos, params.removidos());
+            points.registrar(Componente.REMOVIDOS, pt);
             score += pt;
-            points.put("Regulacao", pt);
+        }
+        if (duration > 0 && params.regulacao().presente()) {
+            int pt = params.regulacao().pontos(duration);
+            score += pt;
+            points.registrar(Componente.REGULACAO, pt);
         }
         return score;
     }
 
-    private int calculateFrotaScore(Long durationRegulacao, Long pausa, Long durationSaidaVtr,
-                                    ScoringSectionParams params, Map<String, Integer> points) {
+    private static int calculateFrotaScore(long durationRegulacao, long pausa, long durationSaidaVtr,
+                                           Secao params, ScoreBreakdown points) {
         int score = 0;
-        if (durationRegulacao != null && durationRegulacao > 0
-                && params.getRegulacao() != null && !params.getRegulacao().isEmpty()) {
-            int pt = matchDurationRule(durationRegulacao, params.getRegulacao());
+        if (durationRegulacao > 0 && params.regulacao().presente()) {
+            int pt = params.regulacao().pontos(durationRegulacao);
             score += pt;
-            points.put("Regulacao", pt);
+            points.registrar(Componente.REGULACAO, pt);
         }
-        if (durationSaidaVtr != null && durationSaidaVtr > 0
-                && params.getSaidaVtr() != null && !params.getSaidaVtr().isEmpty()) {
-            int pt = matchDurationRule(durationSaidaVtr, params.getSaidaVtr());
+        if (durationSaidaVtr > 0 && params.saidaVtr().presente()) {
+            int pt = params.saidaVtr().pontos(durationSaidaVtr);
             score += pt;
-            points.put("SaidaVTR", pt);
+            points.registrar(Componente.SAIDA_VTR, pt);
         }
-        if (pausa != null && pausa > 0
-                && params.getPausas() != null && !params.getPausas().isEmpty()) {
-            int pt = matchDurationRule(pausa, params.getPausas());
+        if (pausa > 0 && params.pausas().presente()) {
+            int pt = params.pausas().pontos(pausa);
             score += pt;
-            points.put("Pausas", pt);
+            points.registrar(Componente.PAUSAS, pt);
         }
         return score;
     }
 
-    private int calculateColabPausasScore(Long pausaSeconds, ScoringSectionParams colabParams, Map<String, Integer> points) {
-        if (pausaSeconds == null || pausaSeconds <= 0
-                || colabParams.getPausas() == null || colabParams.getPausas().isEmpty()) return 0;
-        int pt = matchDurationRule(pausaSeconds, colabParams.getPausas());
-        points.put("Pausas", pt);
+    private static int calculateColabPausasScore(long pausaSeconds, Secao colabParams, ScoreBreakdown points) {
+        if (pausaSeconds <= 0 || !colabParams.pausas().presente()) return 0;
+        int pt = colabParams.pausas().pontos(pausaSeconds);
+        points.registrar(Componente.PAUSAS, pt);
         return pt;
     }
 
-    private int calculateMedicoScore(String medicRole, Long duration, Long criticos,
-                                     Integer removidos, Integer removidosLider,
-                                     ScoringSectionParams params, Map<String, Integer> points) {
+    private static int calculateMedicoScore(byte medico, long duration, long criticos,
+                                            int removidos, int removidosLider,
+                                            Secao params, ScoreBreakdown points) {
         int score = 0;
-        switch (medicRole) {
-            case "LIDER" -> {
-                if (criticos != null && criticos > 0
-                        && params.getRegulacaoLider() != null && !params.getRegulacaoLider().isEmpty()) {
-                    int pt = matchDurationRule(criticos, params.getRegulacaoLider());
+        switch (medico) {
+            case LIDER -> {
+                if (criticos > 0 && params.regulacaoLider().presente()) {
+                    int pt = params.regulacaoLider().pontos(criticos);
                     score += pt;
-                    points.put("Criticos", pt);
+                    points.registrar(Componente.CRITICOS, pt);
                 }
-                if (removidosLider != null && removidosLider > 0
-                        && params.getRemovidosLider() != null && !params.getRemovidosLider().isEmpty()) {
-                    int pt = matchRemovidosRule(removidosLider, params.getRemovidosLider());
+                if (removidosLider > 0 && params.removidosLider().presente()) {
+                    int pt = params.removidosLider().pontos(removidosLider);
                     score += pt;
-                    points.put("RemovidosLider", pt);
+                    points.registrar(Componente.REMOVIDOS_LIDER, pt);
                 }
             }
-            case "REGULADOR" -> {
-                if (duration != null && duration > 0
-                        && params.getRegulacao() != null && !params.getRegulacao().isEmpty()) {
-                    int pt = matchDurationRule(duration, params.getRegulacao());
+            case REGULADOR -> {
+                if (duration > 0 && params.regulacao().presente()) {
+                    int pt = params.regulacao().pontos(duration);
                     score += pt;
-                    points.put("Regulacao", pt);
+                    points.registrar(Componente.REGULACAO, pt);
                 }
-                if (removidos != null && removidos > 0
-                        && params.getRemovidos() != null && !params.getRemovidos().isEmpty()) {
-                    int pt = matchRemovidosRule(removidos, params.getRemovidos());
-                    score += pt;
+                if (removidos > 0 && params.removidos().presente()) {
+                    score += params.removidos().pontos(removidos);
                 }
             }
+            default -> {
+            }
         }
         return score;
     }
 
-    private int calculateRemovidos(Integer removidos, ScoringSectionParams params, Map<String, Integer> points) {
-        if (removidos != null && params.getRemovidos() != null && !params.getRemovidos().isEmpty()) {
-            int pt = matchRemovidosRule(removidos, params.getRemovidos());
-            points.put("Removidos", pt);
-            return pt;
-        }
-        return 0;
-    }
-
-    private int matchRemovidosRule(Integer value, List<ScoringRule> rules) {
-        if (value == null || value < 0 || rules == null || rules.isEmpty()) return 0;
-        String cacheKey = "removidos_" + value + "_" + rules.hashCode();
-        return ruleCache.computeIfAbsent(cacheKey, k ->
-                rules.stream()
-                        .filter(r -> r.getQuantity() != null && r.getPoints() != null && value <= r.getQuantity())
-                        .mapToInt(ScoringRule::getPoints)
-                        .max()
-                        .orElse(0)
-        );
-    }
-
-    private int matchDurationRule(Long seconds, List<ScoringRule> rules) {
-        if (seconds == null || seconds <= 0 || rules == null || rules.isEmpty()) return 0;
-        String cacheKey = "duration_" + seconds + "_" + rules.hashCode();
-        return ruleCache.computeIfAbsent(cacheKey, k ->
-                rules.stream()
-                        .filter(r -> r.getDuration() != null && r.getPoints() != null && seconds <= r.getDuration())
-                        .mapToInt(ScoringRule::getPoints)
-                        .max()
-                        .orElse(0)
-        );
+    private static int matchRemovidosRule(int value, Faixas rules) {
+        if (value < 0) return 0;
+        return rules.pontos(value);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,152 @@
+package com.avaliadados.service;
+
+import com.avaliadados.model.ProjectCollaborator;
+import com.avaliadados.model.ProjetoEntity;
+import com.avaliadados.model.ScoreBreakdown;
+import com.avaliadados.model.dto.SimulacaoPontuacao;
+import com.avaliadados.model.dto.SimulacaoPontuacao.Diferenca;
+import com.avaliadados.model.dto.SimulacaoPontuacao.Distribuicao;
+import com.avaliadados.model.enums.MedicoRole;
+import com.avaliadados.model.params.NestedScoringParameters;
+import com.avaliadados.repository.ProjetoRepository;
+import com.avaliadados.service.utils.RegrasCompiladas;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simula parametros de pontuacao em um projeto sem gravar nada: pontua os colaboradores em memoria
+ * com os parametros gravados e com os candidatos e compara os dois resultados.
+ */
+@Service
+@RequiredArgsConstructor
+public class SimulacaoService {
+
+    // so o que a pontuacao e o resultado usam; sem pontos gravados nem parametros por colaborador
+    private static final String[] CAMPOS = {"_id", "collaboratorId", "nome", "role", "medicoRole",
+            "durationSeconds", "criticos", "removidos", "removidosLider", "pausaMensalSeconds", "saidaVtrSeconds"};
+
+    private final MongoTemplate mongoTemplate;
+    private final ProjetoRepository projetoRepo;
+    private final ScoringService scoringService;
+
+    /**
+     * Compara os parametros gravados do projeto com {@code parametros}. Projeto ainda sem
+     * parametros compara contra zero. Colaboradores sem role ficam de fora, como na pontuacao.
+     */
+    public SimulacaoPontuacao simular(String projectId, NestedScoringParameters parametros) {
+        if (parametros == null) {
+            throw new IllegalArgumentException("Parâmetros nulos na simulação do projeto " + projectId);
+        }
+        long inicio = System.nanoTime();
+        ProjetoEntity projeto = projetoRepo.findById(projectId).orElseThrow();
+
+        Query query = Query.query(Criteria.where("projectId").is(projectId));
+        query.fields().include(CAMPOS);
+        List<ProjectCollaborator> colaboradores = mongoTemplate.find(query, ProjectCollaborator.class).stream()
+                .filter(pc -> pc.getRole() != null)
+                .toList();
+
+        ScoreBreakdown[] atuais = projeto.getParameters() != null
+                ? scoringService.pontuarLote(colaboradores, scoringService.regras(projeto))
+                : null;
+        ScoreBreakdown[] simulados = scoringService.pontuarLote(colaboradores, RegrasCompiladas.compilar(parametros));
+
+        int n = colaboradores.size();
+        int[] totalAtual = new int[n];
+        int[] totalSimulado = new int[n];
+        Map<String, List<Integer>> grupos = new TreeMap<>();
+        for (int i = 0; i < n; i++) {
+            totalAtual[i] = atuais != null ? atuais[i].getTotal() : 0;
+            totalSimulado[i] = simulados[i].getTotal();
+            grupos.computeIfAbsent(grupo(colaboradores.get(i)), g -> new ArrayList<>()).add(i);
+        }
+
+        int[] posicaoAtual = new int[n];
+        int[] posicaoSimulada = new int[n];
+        Map<String, Distribuicao> distribuicaoAtual = new TreeMap<>();
+        Map<String, Distribuicao> distribuicaoSimulada = new TreeMap<>();
+        grupos.forEach((grupo, membros) -> {
+            distribuicaoAtual.put(grupo, ranquear(membros, totalAtual, posicaoAtual));
+            distribuicaoSimulada.put(grupo, ranquear(membros, totalSimulado, posicaoSimulada));
+        });
+
+        int alterados = 0;
+        int mudaramPosicao = 0;
+        List<Diferenca> diferencas = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            boolean pontosMudaram = totalAtual[i] != totalSimulado[i];
+            boolean posicaoMudou = posicaoAtual[i] != posicaoSimulada[i];
+            if (pontosMudaram) alterados++;
+            if (posicaoMudou) mudaramPosicao++;
+            if (!pontosMudaram && !posicaoMudou) continue;
+
+            ProjectCollaborator pc = colaboradores.get(i);
+            diferencas.add(new Diferenca(pc.getCollaboratorId(), pc.getNome(), grupo(pc), pc.getMedicoRole(),
+                    totalAtual[i], totalSimulado[i], totalSimulado[i] - totalAtual[i],
+                    posicaoAtual[i], posicaoSimulada[i], simulados[i]));
+        }
+        diferencas.sort(Comparator.comparingInt((Diferenca d) -> -Math.abs(d.delta()))
+                .thenComparing(Diferenca::nome, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        long versao = projeto.getParametersVersion() != null ? projeto.getParametersVersion() : 0L;
+        return new SimulacaoPontuacao(projectId, versao, n, alterados, mudaramPosicao,
+                distribuicaoAtual, distribuicaoSimulada, diferencas,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+    }
+
+    /**
+     * Grupo de ranking: o role, e os medicos separados por {@code medicoRole}, que pontuam com
+     * regras diferentes.
+     */
+    private static String grupo(ProjectCollaborator pc) {
+        if (!"MEDICO".equals(pc.getRole())) return pc.getRole();
+        return "MEDICO_" + (pc.getMedicoRole() != null ? pc.getMedicoRole() : MedicoRole.NENHUM);
+    }
+
+    /**
+     * Preenche a posicao de cada membro do grupo em {@code posicoes} e devolve a distribuicao dos
+     * totais. A posicao e 1 + quantos fizeram mais pontos, achada por busca binaria nos totais
+     * ordenados.
+     */
+    private static Distribuicao ranquear(List<Integer> membros, int[] totais, int[] posicoes) {
+        int[] ordenados = new int[membros.size()];
+        long soma = 0;
+        for (int k = 0; k < ordenados.length; k++) {
+            ordenados[k] = totais[membros.get(k)];
+            soma += ordenados[k];
+        }
+        Arrays.sort(ordenados);
+
+        Map<Integer, Integer> porPontos = new TreeMap<>();
+        for (int total : ordenados) porPontos.merge(total, 1, Integer::sum);
+        for (int indice : membros) {
+            posicoes[indice] = 1 + ordenados.length - primeiroMaior(ordenados, totais[indice]);
+        }
+
+        int m = ordenados.length;
+        double mediana = m % 2 == 1 ? ordenados[m / 2] : (ordenados[m / 2 - 1] + ordenados[m / 2]) / 2.0;
+        return new Distribuicao(m, ordenados[0], ordenados[m - 1], (double) soma / m, mediana, porPontos);
+    }
+
+    private static int primeiroMaior(int[] ordenados, int valor) {
+        int inicio = 0;
+        int fim = ordenados.length;
+        while (inicio < fim) {
+            int meio = (inicio + fim) >>> 1;
+            if (ordenados[meio] <= valor) inicio = meio + 1;
+            else fim = meio;
+        }
+        return inicio;
+    }
+}
@@ -4,21 +4,27 @@ import com.avaliadados.model.CollaboratorEntity;
 import com.avaliadados.model.ProjectCollaborator;
 import com.avaliadados.model.ProjetoEntity;
 import com.avaliadados.model.SheetRow;
+import com.avaliadados.model.enums.FaseProcessamento;
 import com.avaliadados.model.enums.TypeAv;
 import com.avaliadados.model.params.NestedScoringParameters;
 import com.avaliadados.model.params.ScoringSectionParams;
 import com.avaliadados.repository.CollaboratorRepository;
+import com.avaliadados.repository.ProjectCollaboratorRepository;
 import com.avaliadados.repository.ProjetoRepository;
 import com.avaliadados.repository.SheetRowRepository;
 import com.avaliadados.service.factory.AvaliacaoProcessor;
+import com.avaliadados.service.factory.ProgressoProcessamento;
 import com.avaliadados.service.utils.CollabParams;
-import com.avaliadados.service.utils.SheetsUtils;
-import com.avaliadados.service.utils.WorkbookReader;
+import com.avaliadados.service.utils.ConflitoVersao;
+import com.avaliadados.service.utils.HeaderResolver;
+import com.avaliadados.service.utils.HeaderResolver.Coluna;
+import com.avaliadados.service.utils.NameMatcher;
+import com.avaliadados.service.utils.WorkbookRow;
+import com.avaliadados.service.utils.WorkbookRowHandler;
+import com.avaliadados.service.utils.WorkbookSource;
 import lombok.RequiredArgsConstructor;
-import org.apache.poi.ss.usermodel.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.*;
@@ -32,263 +38,203 @@ public class AvaliacaoService implements AvaliacaoProcessor {
 
     private final CollaboratorRepository colaboradorRepository;
     private final ProjetoRepository projetoRepository;
+    private final ProjectCollaboratorRepository projectCollaboratorRepository;
     private final SheetRowRepository sheetRowRepository;
     private final CollabParams collabParams;
-
-    private static final String KEY_TEMPO_REGULACAO_TARM = "TEMPO_REGULACAO_TARM";
-    private static final String KEY_TEMPO_REGULACAO_FROTA = "TEMPO_REGULACAO_FROTA";
+    private final NomeAliasService nomeAliasService;
 
     @Transactional
-    public List<String> processarPlanilha(MultipartFile arquivo, String projectId) throws IOException {
-        sheetRowRepository.deleteByProjectIdAndType(projectId, TypeAv.TARM_FROTA);
-
-        Map<String, Map<String, Object>> consolidatedData = new HashMap<>();
-
-        try (Workbook wb = WorkbookReader.read(arquivo)) {
-            FormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
-            DataFormatter formatter = new DataFormatter();
-
-            Sheet sheet = null;
-            Row headerRow = null;
-            Map<String, Integer> cols = null;
-
-            for (int i = 0; i < wb.getNumberOfSheets(); i++) {
-                Sheet currentSheet = wb.getSheetAt(i);
-                if (currentSheet == null) continue;
-
-                for (int rowIndex = 0; rowIndex <= 1; rowIndex++) {
-                    Row tempHeader = currentSheet.getRow(rowIndex);
-                    Map<String, Integer> tempCols = getColumnMapping(tempHeader, evaluator, formatter);
-                    if (temCabecalhoValido(tempCols)) {
-                        sheet = currentSheet;
-                        headerRow = tempHeader;
-                        cols = tempCols;
-                        break;
-                    }
-                }
-
-                if (sheet != null) break;
-            }
-
-            if (sheet == null) {
-                throw new RuntimeException("Aba com a coluna de COLABORADOR ou MÉDICO REGULADOR não encontrada no arquivo.");
-            }
-
-            Integer idxColab   = encontrarIndiceColuna(cols, "COLABORADOR", "MEDICO REGULADOR", "MEDICO REGULADOR");
-            Integer idxTarm    = encontrarIndiceColuna(cols, "TEMPO REGULAÇÃO TARM", "TEMPO REGULACAO TARM", "TEMPO REGULACAO", "TEMPO MEDIO REGULACAO MEDICA", "TEMPO MEDIO REGULACAO");
-            Integer idxFrota   = encontrarIndiceColuna(cols, "OP. FROTA REGULAÇÃO MÉDICA", "OP. FROTA REGULACAO MEDICA", "OP FROTA REGULACAO MEDICA", "TIH", "TEMPO MEDIO TIH", "TEMPO MEDIO CRITICOS", "CRITICOS");
-            Integer idxPlantao = encontrarIndiceColuna(cols, "TOTAL DE PLANTÃO DE 12 HORAS", "TOTAL DE PLANTAO", "PLANTAO 12 HORAS", "PLANTAO");
-
-            int startRow = headerRow.getRowNum() + 1;
-            if (headerRow.getRowNum() <= 1) {
-                for (int offset = 1; offset <= 2; offset++) {
-                    Row rowAfterHeader = sheet.getRow(headerRow.getRowNum() + offset);
-                    if (rowAfterHeader == null) continue;
-                    String valRow = Objects.requireNonNullElse(getCellStringValue(rowAfterHeader, 0, evaluator, formatter), "").toUpperCase();
-                    if (valRow.contains("PLANTAO") || valRow.contains("PLANTÃO")) {
-                        startRow = headerRow.getRowNum() + offset + 1;
-                        break;
-                    }
-                }
-            }
-
-            for (int i = startRow; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null || row == headerRow) continue;
-
-                if (idxColab == null) {
-                    throw new RuntimeException("Não foi possível localizar a coluna de colaborador na planilha.");
-                }
-
-                String name = getCellStringValue(row, idxColab, evaluator, formatter);
-                if (name == null || name.trim().isEmpty() || name.equalsIgnoreCase("nan") || name.equalsIgnoreCase("COLABORADOR") || name.equalsIgnoreCase("MÉDICO REGULADOR") || name.equalsIgnoreCase("MEDICO REGULADOR")) continue;
-
-                double plantao = 0;
-                if (idxPlantao != null) {
-                    plantao = getNumericValue(row.getCell(idxPlantao), evaluator);
-                }
-
-                long tarmSecs = 0;
-                if (idxTarm != null) {
-                    tarmSecs = parseCellToSeconds(row.getCell(idxTarm), evaluator, formatter);
-                }
+    public List<String> processarPlanilha(WorkbookSource planilha, String projectId, ProgressoProcessamento progresso) throws IOException {
+        progresso.fase(FaseProcessamento.PARSE);
+        ConsolidacaoTarmFrota consolidacao = new ConsolidacaoTarmFrota();
 
-                long frotaSecs = 0;
-                if (idxFrota != null) {
-                    frotaSecs = parseCellToSeconds(row.getCell(idxFrota), evaluator, formatter);
-                }
+        LeituraTarmFrota leitura = new LeituraTarmFrota(consolidacao, progresso);
+        planilha.read(leitura);
 
-                consolidar(consolidatedData, name.trim(), plantao, tarmSecs, frotaSecs);
-            }
+        if (!leitura.abaEncontrada()) {
+            throw new RuntimeException("Aba com a coluna de COLABORADOR ou MÉDICO REGULADOR não encontrada no arquivo.");
         }
 
         List<SheetRow> srList = new ArrayList<>();
-        for (Map.Entry<String, Map<String, Object>> entry : consolidatedData.entrySet()) {
-            String name = entry.getKey();
-            Map<String, Object> data = entry.getValue();
-
+        for (ConsolidacaoTarmFrota.Totais totais : consolidacao.totais()) {
             SheetRow sr = new SheetRow();
             sr.setProjectId(projectId);
             sr.setType(TypeAv.TARM_FROTA);
 
-            sr.getData().put("COLABORADOR", name);
-            sr.getData().put("PLANTAO", String.valueOf(data.get("PLANTAO")));
-
-            long tarmSecs  = (long) data.get("TARM_SECONDS");
-            long frotaSecs = (long) data.get("FROTA_SECONDS");
-
-            sr.getData().put(KEY_TEMPO_REGULACAO_TARM,   String.valueOf(tarmSecs));
-            sr.getData().put("TEMPO.REGULACAO.TARM",     String.valueOf(tarmSecs));
-            sr.getData().put(KEY_TEMPO_REGULACAO_FROTA,  String.valueOf(frotaSecs));
-            sr.getData().put("TEMPO.REGULACAO.FROTA",    String.valueOf(frotaSecs));
+            sr.setNome(totais.getNome());
+            sr.setPlantao(totais.getPlantao());
+            sr.setTarmSegundos(totais.getTarmSegundos());
+            sr.setFrotaSegundos(totais.getFrotaSegundos());
 
             srList.add(sr);
         }
 
-        sheetRowRepository.saveAll(srList);
+        DiffLinhas diff = DiffLinhas.calcular(sheetRowRepository, projectId, TypeAv.TARM_FROTA, srList);
 
-        List<String> result = atualizarColaboradoresDoProjeto(projectId);
-        return !result.isEmpty() ? result : List.of();
+        Resultado result = ConflitoVersao.repetir("planilha TARM/FROTA do projeto " + projectId,
+                () -> atualizarColaboradoresDoProjeto(projectId, progresso, diff));
+        diff.gravar(sheetRowRepository);
+        nomeAliasService.salvar(result.aliases());
+        return !result.naoEncontrados().isEmpty() ? result.naoEncontrados() : List.of();
     }
 
-    private boolean temCabecalhoValido(Map<String, Integer> cols) {
-        if (cols == null || cols.isEmpty()) return false;
-
-        boolean hasColaborador = encontrarIndiceColuna(cols, "COLABORADOR", "MEDICO REGULADOR", "MEDICO REGULADOR") != null;
-        boolean hasPlantao = encontrarIndiceColuna(cols, "TOTAL DE PLANTÃO DE 12 HORAS", "TOTAL DE PLANTAO", "PLANTAO 12 HORAS", "PLANTAO") != null;
-        boolean hasTime = encontrarIndiceColuna(cols, "TEMPO REGULAÇÃO TARM", "TEMPO REGULACAO TARM", "TEMPO REGULACAO", "TEMPO MEDIO REGULACAO MEDICA", "TEMPO MEDIO REGULACAO") != null;
-        boolean hasFrota = encontrarIndiceColuna(cols, "OP. FROTA REGULAÇÃO MÉDICA", "OP. FROTA REGULACAO MEDICA", "OP FROTA REGULACAO MEDICA", "TIH", "TEMPO MEDIO TIH", "TEMPO MEDIO CRITICOS", "CRITICOS") != null;
-
-        return hasColaborador && (hasPlantao || hasTime || hasFrota);
+    /**
+     * Nomes nao encontrados e os aliases da tentativa que deu certo; os aliases so sao gravados
+     * depois dos colaboradores.
+     */
+    private record Resultado(List<String> naoEncontrados, NomeAliasService.Dicionario aliases) {
     }
 
-    private void consolidar(Map<String, Map<String, Object>> consolidatedData,
-                            String name, double plantao, long tarmSecs, long frotaSecs) {
-        Map<String, Object> data = consolidatedData.computeIfAbsent(name, k -> {
-            Map<String, Object> m = new HashMap<>();
-            m.put("PLANTAO", 0.0);
-            m.put("TARM_SECONDS", 0L);
-            m.put("FROTA_SECONDS", 0L);
-            return m;
-        });
-        data.put("PLANTAO",       (double) data.get("PLANTAO")       + plantao);
-        data.put("TARM_SECONDS",  (long)   data.get("TARM_SECONDS")  + tarmSecs);
-        data.put("FROTA_SECONDS", (long)   data.get("FROTA_SECONDS") + frotaSecs);
+    @Override
+    public TypeAv tipo() {
+        return TypeAv.TARM_FROTA;
     }
 
-    private long parseCellToSeconds(Cell cell, FormulaEvaluator evaluator, DataFormatter formatter) {
-        if (cell == null) return 0;
-        CellType type = cell.getCellType() == CellType.FORMULA ? cell.getCachedFormulaResultType() : cell.getCellType();
+    /**
+     * Consome as linhas da planilha TARM/FROTA em streaming.
+     *
+     * O cabecalho e procurado nas linhas 0 e 1 de cada aba; a primeira aba com cabecalho
+     * valido e processada e as demais sao ignoradas. Ate duas linhas apos o cabecalho ficam
+     * em espera para descobrir se existe uma sub-linha de "PLANTAO" que deve ser pulada.
+     */
+    private final class LeituraTarmFrota implements WorkbookRowHandler {
+
+        private final ConsolidacaoTarmFrota consolidacao;
+        private final ProgressoProcessamento progresso;
+        private final List<WorkbookRow> pendentes = new ArrayList<>(2);
+
+        private int abaSelecionada = -1;
+        private int linhaCabecalho;
+        private int startRow;
+        private boolean inicioDefinido;
+        private boolean concluida;
+
+        private Integer idxColab;
+        private Integer idxTarm;
+        private Integer idxFrota;
+        private Integer idxPlantao;
+
+        private LeituraTarmFrota(ConsolidacaoTarmFrota consolidacao, ProgressoProcessamento progresso) {
+            this.consolidacao = consolidacao;
+            this.progresso = progresso;
+        }
 
-        if (type == CellType.NUMERIC) {
-            double excelTime = cell.getNumericCellValue();
-            return Math.round(excelTime * 86400);
-        } else {
-            String timeStr = formatter.formatCellValue(cell, evaluator);
-            return parseStringToSeconds(timeStr.trim());
+        boolean abaEncontrada() {
+            return abaSelecionada >= 0;
+        }
+
+        @Override
+        public boolean startSheet(int sheetIndex, String sheetName) {
+            return !concluida;
         }
-    }
 
-    private long parseStringToSeconds(String timeStr) {
-        if (timeStr == null || timeStr.isEmpty() || timeStr.equals("-")) return 0;
-        try {
-            long days = 0;
-            String workingTime = timeStr.trim();
-            if (workingTime.contains("d.")) {
-                String[] parts = workingTime.split("d\\.");
-                days = Long.parseLong(parts[0]);
-                workingTime = parts[1];
+        @Override
+        public boolean row(WorkbookRow row) {
+            if (abaSelecionada < 0) {
+                if (row.getRowNum() > 1) return false;
+                HeaderResolver.Colunas cols = HeaderResolver.TARM_FROTA.resolver(row);
+                if (temCabecalhoValido(cols)) {
+                    selecionarAba(row, cols);
+                }
+                return true;
             }
-            String[] parts = workingTime.split(":");
-            long h = 0, m = 0, s = 0;
-            if (parts.length == 3) {
-                h = Long.parseLong(parts[0]);
-                m = Long.parseLong(parts[1]);
-                s = Long.parseLong(parts[2]);
-            } else if (parts.length == 2) {
-                m = Long.parseLong(parts[0]);
-                s = Long.parseLong(parts[1]);
+
+            if (!inicioDefinido) {
+                if (row.getRowNum() <= linhaCabecalho + 2) {
+                    String valRow = Objects.requireNonNullElse(row.getText(0), "").toUpperCase();
+                    if (valRow.contains("PLANTAO") || valRow.contains("PLANTÃO")) {
+                        startRow = row.getRowNum() + 1;
+                        inicioDefinido = true;
+                        pendentes.clear();
+                    } else {
+                        pendentes.add(row);
+                    }
+                    return true;
+                }
+                liberarPendentes();
             }
-            return (days * 86400) + (h * 3600) + (m * 60) + s;
-        } catch (Exception e) {
-            return 0;
+
+            processarLinha(row);
+            return true;
         }
-    }
 
-    private double getNumericValue(Cell cell, FormulaEvaluator evaluator) {
-        if (cell == null) return 0;
-        CellType type = cell.getCellType() == CellType.FORMULA ? cell.getCachedFormulaResultType() : cell.getCellType();
-
-        if (type == CellType.NUMERIC) return cell.getNumericCellValue();
-        if (type == CellType.STRING || type == CellType.FORMULA) {
-            try {
-                String val = cell.getStringCellValue();
-                if(val == null) return 0;
-                return Double.parseDouble(val.replace(",", "."));
-            } catch (Exception e) {
-                return 0;
-            }
+        @Override
+        public void endSheet(int sheetIndex) {
+            if (sheetIndex != abaSelecionada) return;
+            if (!inicioDefinido) liberarPendentes();
+            concluida = true;
         }
-        return 0;
-    }
 
-    private Map<String, Integer> getColumnMapping(Row row, FormulaEvaluator evaluator, DataFormatter formatter) {
-        Map<String, Integer> mapping = new HashMap<>();
-        if (row == null) return mapping;
-        for (int i = 0; i < row.getLastCellNum(); i++) {
-            Cell cell = row.getCell(i);
-            if (cell == null) continue;
-            String val = formatter.formatCellValue(cell, evaluator).toUpperCase().trim();
-            if (!val.isEmpty()) mapping.put(val, i);
+        private void selecionarAba(WorkbookRow headerRow, HeaderResolver.Colunas cols) {
+            abaSelecionada = headerRow.getSheetIndex();
+            linhaCabecalho = headerRow.getRowNum();
+            startRow = linhaCabecalho + 1;
+
+            idxColab   = cols.get(Coluna.COLABORADOR);
+            idxTarm    = cols.get(Coluna.TARM);
+            idxFrota   = cols.get(Coluna.FROTA);
+            idxPlantao = cols.get(Coluna.PLANTAO);
         }
-        return mapping;
-    }
 
-    private String getCellStringValue(Row row, int idx, FormulaEvaluator evaluator, DataFormatter formatter) {
-        Cell cell = row.getCell(idx);
-        if (cell == null) return null;
-        return formatter.formatCellValue(cell, evaluator);
-    }
+        private void liberarPendentes() {
+            inicioDefinido = true;
+            for (WorkbookRow pendente : pendentes) {
+                if (pendente.getRowNum() >= startRow) processarLinha(pendente);
+            }
+            pendentes.clear();
+        }
+
+        private void processarLinha(WorkbookRow row) {
+            if (idxColab == null) {
+                throw new RuntimeException("Não foi possível localizar a coluna de colaborador na planilha.");
+            }
+            progresso.linhaLida();
+
+            String name = row.getText(idxColab);
+            if (name == null || name.trim().isEmpty() || name.equalsIgnoreCase("nan") || name.equalsIgnoreCase("COLABORADOR") || name.equalsIgnoreCase("MÉDICO REGULADOR") || name.equalsIgnoreCase("MEDICO REGULADOR")) return;
+
+            double plantao = 0;
+            if (idxPlantao != null) {
+                plantao = row.count(idxPlantao);
+            }
 
-    private Integer encontrarIndiceColuna(Map<String, Integer> cols, String... possiveisNomes) {
-        for (String nome : possiveisNomes) {
-            String normBusca = normalize(nome);
-            for (Map.Entry<String, Integer> e : cols.entrySet()) {
-                if (normalize(e.getKey()).equals(normBusca)) return e.getValue();
+            long tarmSecs = 0;
+            if (idxTarm != null) {
+                tarmSecs = row.daySeconds(idxTarm);
             }
-            for (Map.Entry<String, Integer> e : cols.entrySet()) {
-                if (normalize(e.getKey()).contains(normBusca)) return e.getValue();
+
+            long frotaSecs = 0;
+            if (idxFrota != null) {
+                frotaSecs = row.daySeconds(idxFrota);
             }
+
+            consolidacao.adicionar(name, plantao, tarmSecs, frotaSecs);
         }
-        return null;
     }
 
-    private String normalize(String s) {
-        if (s == null) return "";
-        return java.text.Normalizer.normalize(s, java.text.Normalizer.Form.NFD)
-                .replaceAll("[^\\p{ASCII}]", "")
-                .toUpperCase()
-                .replaceAll("[^A-Z0-9 ]", " ")
-                .replaceAll("\\s+", " ")
-                .trim();
+    private boolean temCabecalhoValido(HeaderResolver.Colunas cols) {
+        return cols.has(Coluna.COLABORADOR)
+                && (cols.has(Coluna.PLANTAO) || cols.has(Coluna.TARM) || cols.has(Coluna.FROTA));
     }
 
-    @Transactional
-    public List<String> atualizarColaboradoresDoProjeto(String projectId) {
+    /**
+     * Casa as linhas com os colaboradores TARM/FROTA do projeto. Na primeira leitura todos sao
+     * atualizados; nas seguintes, so os casados com linhas inseridas ou removidas, e os que ainda
+     * nao tem os dados da linha casada, voltam a consultar a API, a ser pontuados e a ser gravados.
+     */
+    private Resultado atualizarColaboradoresDoProjeto(String projectId, ProgressoProcessamento progresso, DiffLinhas diff) {
+        progresso.fase(FaseProcessamento.MATCH);
         ProjetoEntity projeto = projetoRepository.findById(projectId)
                 .orElseThrow(() -> new RuntimeException("Projeto não encontrado: " + projectId));
+        List<ProjectCollaborator> doProjeto = projectCollaboratorRepository.findByProjectId(projectId);
 
-        List<ProjectCollaborator> tarmFrotaColabs = projeto.getCollaborators().stream()
+        List<ProjectCollaborator> tarmFrotaColabs = doProjeto.stream()
                 .filter(pc -> !"MEDICO".equals(pc.getRole()))
                 .toList();
 
-        Map<String, ProjectCollaborator> colaboradores = tarmFrotaColabs.stream()
-                .collect(Collectors.toMap(
-                        pc -> normalizeName(pc.getNome()),
-                        pc -> pc,
-                        (a, b) -> a));
+        NameMatcher<ProjectCollaborator> colaboradores = NameMatcher.of(tarmFrotaColabs, ProjectCollaborator::getNomeNormalizado);
 
-        List<SheetRow> rows = sheetRowRepository.findByProjectIdAndType(projectId, TypeAv.TARM_FROTA);
+        List<SheetRow> rows = diff.linhas;
 
         Map<String, String> idCallRoteMap = colaboradorRepository
                 .findAllById(tarmFrotaColabs.stream()
@@ -299,94 +245,147 @@ public class AvaliacaoService implements AvaliacaoProcessor {
                         CollaboratorEntity::getId,
                         c -> c.getIdCallRote() != null ? c.getIdCallRote() : ""));
 
-        List<ProjectCollaborator> pcsToUpdate   = new ArrayList<>();
-        List<String>              idCallroutList = new ArrayList<>();
-
-        for (SheetRow sr : rows) {
-            String nomeNorm = normalizeName(sr.getData().get("COLABORADOR"));
-            colaboradores.entrySet().stream()
-                    .filter(e -> similarity(e.getKey(), nomeNorm) >= 0.85)
-                    .max(Comparator.comparingDouble(e -> similarity(e.getKey(), nomeNorm)))
-                    .ifPresent(match -> {
-                        ProjectCollaborator colEnt = match.getValue();
-                        projeto.getCollaborators().stream()
-                                .filter(pc -> pc.getCollaboratorId().equals(colEnt.getCollaboratorId()))
-                                .findFirst()
-                                .ifPresent(pc -> {
-                                    atualizarDadosColaborador(pc, sr.getData());
-                                    pcsToUpdate.add(pc);
-                                    idCallroutList.add(idCallRoteMap.get(pc.getCollaboratorId()));
-                                });
-                    });
+        Map<String, ProjectCollaborator> pcPorId = new HashMap<>();
+        for (ProjectCollaborator pc : doProjeto) {
+            pcPorId.putIfAbsent(pc.getCollaboratorId(), pc);
         }
 
-        Map<String, Double>  bestScoreByCollab = new HashMap<>();
-        Map<String, String>  bestNameByCollab  = new HashMap<>();
-
-        for (SheetRow sr : rows) {
-            String sheetName = sr.getData().get("COLABORADOR");
-            String sheetNorm = normalizeName(sheetName);
-            for (ProjectCollaborator pc : tarmFrotaColabs) {
-                String collabNorm = normalizeName(pc.getNome());
-                double score = similarity(sheetNorm, collabNorm);
-                if (score > bestScoreByCollab.getOrDefault(collabNorm, 0.0)) {
-                    bestScoreByCollab.put(collabNorm, score);
-                    bestNameByCollab.put(collabNorm, sheetName);
-                }
+        List<ProjectCollaborator> pcsToUpdate = new ArrayList<>();
+        Set<ProjectCollaborator>  atualizados = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<ProjectCollaborator>  alterados   = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        NomeAliasService.Dicionario aliases = nomeAliasService.dicionario(TypeAv.TARM_FROTA);
+        List<SheetRow> semAlias     = new ArrayList<>();
+        List<String>   nomesPlanilha = new ArrayList<>();
+        for (SheetRow row : rows) {
+            ProjectCollaborator pc = colaboradorDoAlias(aliases, pcPorId, row);
+            if (pc == null) {
+                semAlias.add(row);
+                nomesPlanilha.add(normalizeName(row.getNome()));
+                continue;
+            }
+            atualizados.add(pc);
+            if (diff.inserida(row) || desatualizado(pc, row)) {
+                atualizarDadosColaborador(pc, row);
+                if (alterados.add(pc)) pcsToUpdate.add(pc);
+            }
+        }
+
+        NameMatcher.Pareamento pareamento = colaboradores.parear(nomesPlanilha, 0.85, 0.4);
+
+        for (int r = 0; r < semAlias.size(); r++) {
+            int match = pareamento.itemDaConsulta(r);
+            if (match < 0 || pareamento.scoreDaConsulta(r) < 0.85) continue;
+
+            ProjectCollaborator pc = pcPorId.get(colaboradores.item(match).getCollaboratorId());
+            if (pc == null) continue;
+            SheetRow row = semAlias.get(r);
+            atualizados.add(pc);
+            if (diff.inserida(row) || desatualizado(pc, row)) {
+                atualizarDadosColaborador(pc, row);
+                if (alterados.add(pc)) pcsToUpdate.add(pc);
+            }
+            boolean inequivoco = pareamento.consultaDoItem(match) == r
+                    && colaboradores.buscar(nomesPlanilha.get(r), NomeAliasService.LIMITE_AMBIGUIDADE).size() == 1;
+            aliases.registrar(row.getNome(), pc.getCollaboratorId(), inequivoco);
+        }
+
+        if (!diff.completo) {
+            for (ProjectCollaborator pc : colaboradoresDasRemovidas(diff.removidas, aliases, pcPorId, colaboradores)) {
+                if (alterados.add(pc)) pcsToUpdate.add(pc);
             }
         }
 
         List<String> naoEncontrados = new ArrayList<>();
 
-        for (ProjectCollaborator pc : tarmFrotaColabs) {
-            String collabNorm  = normalizeName(pc.getNome());
-            double bestScore   = bestScoreByCollab.getOrDefault(collabNorm, 0.0);
-            String bestMatch   = bestNameByCollab.get(collabNorm);
+        for (int i = 0; i < colaboradores.size(); i++) {
+            ProjectCollaborator pc = colaboradores.item(i);
+            String collabNorm  = colaboradores.nome(i);
+            double bestScore   = pareamento.scoreDoItem(i);
+            int    bestRow     = pareamento.consultaDoItem(i);
 
-            if (bestScore < 0.75) {
-                if (bestMatch != null && bestScore >= 0.4) {
+            if (bestScore < 0.75 && !atualizados.contains(pc)) {
+                if (bestRow >= 0) {
+                    String bestMatch = semAlias.get(bestRow).getNome();
                     naoEncontrados.add(String.format("%s (possível correspondência: %s)", collabNorm, bestMatch));
                 } else {
                     naoEncontrados.add(collabNorm + " (nenhuma correspondência próxima encontrada)");
                 }
             }
 
-            if (!pcsToUpdate.contains(pc)) {
+            if (diff.completo && alterados.add(pc)) {
                 pcsToUpdate.add(pc);
-                idCallroutList.add(idCallRoteMap.get(pc.getCollaboratorId()));
             }
         }
 
+        progresso.colaboradores(pcsToUpdate.size());
+        if (pcsToUpdate.isEmpty()) return new Resultado(naoEncontrados, aliases);
+
+        progresso.fase(FaseProcessamento.FETCH);
+        List<String> idCallroutList = pcsToUpdate.stream()
+                .map(pc -> idCallRoteMap.get(pc.getCollaboratorId()))
+                .toList();
         collabParams.setDataFromApi(pcsToUpdate, projeto, idCallroutList);
 
+        progresso.fase(FaseProcessamento.SCORE);
+        List<ProjectCollaborator> aPontuar = new ArrayList<>(pcsToUpdate.size());
         for (ProjectCollaborator pc : pcsToUpdate) {
-            if (pc.getPausaMensalSeconds() != null || pc.getDurationSeconds() != null) {
-                int pontos = collabParams.setParams(
-                        pc,
-                        projeto,
-                        pc.getRemovidos(),
-                        pc.getRemovidosLider() != null ? pc.getRemovidosLider() : 0,
-                        pc.getDurationSeconds(),
-                        0L,
-                        pc.getPausaMensalSeconds() != null ? pc.getPausaMensalSeconds() : 0L,
-                        pc.getSaidaVtrSeconds());
-                pc.setPontuacao(pontos);
+            if ((pc.getPausaMensalSeconds() != null || pc.getDurationSeconds() != null)
+                    && collabParams.registrarEntradas(
+                            pc,
+                            pc.getRemovidos(),
+                            pc.getRemovidosLider() != null ? pc.getRemovidosLider() : 0,
+                            pc.getDurationSeconds(),
+                            0L,
+                            pc.getPausaMensalSeconds() != null ? pc.getPausaMensalSeconds() : 0L,
+                            pc.getSaidaVtrSeconds())) {
+                aPontuar.add(pc);
             } else {
                 pc.setPontuacao(0);
             }
         }
+        collabParams.pontuarLote(aPontuar, projeto);
+
+        progresso.fase(FaseProcessamento.SAVE);
+        projectCollaboratorRepository.saveAll(pcsToUpdate);
+        return new Resultado(naoEncontrados, aliases);
+    }
 
-        projetoRepository.save(projeto);
-        return naoEncontrados;
+    private ProjectCollaborator colaboradorDoAlias(NomeAliasService.Dicionario aliases,
+                                                   Map<String, ProjectCollaborator> pcPorId, SheetRow row) {
+        ProjectCollaborator pc = pcPorId.get(aliases.buscar(row.getNome()));
+        return pc == null || "MEDICO".equals(pc.getRole()) ? null : pc;
     }
 
-    private void atualizarDadosColaborador(ProjectCollaborator pc, Map<String, String> data) {
+    /**
+     * Colaboradores que estavam casados com linhas que sairam da planilha; eles nao recebem
+     * dados novos, mas voltam a ser pontuados.
+     */
+    private List<ProjectCollaborator> colaboradoresDasRemovidas(List<SheetRow> removidas, NomeAliasService.Dicionario aliases,
+                                                                Map<String, ProjectCollaborator> pcPorId,
+                                                                NameMatcher<ProjectCollaborator> colaboradores) {
+        List<ProjectCollaborator> encontrados = new ArrayList<>();
+        List<String> semAlias = new ArrayList<>();
+        for (SheetRow row : removidas) {
+            ProjectCollaborator pc = colaboradorDoAlias(aliases, pcPorId, row);
+            if (pc != null) encontrados.add(pc);
+            else semAlias.add(normalizeName(row.getNome()));
+        }
+
+        NameMatcher.Pareamento pareamento = colaboradores.parear(semAlias, 0.85, 0.85);
+        for (int r = 0; r < semAlias.size(); r++) {
+            int match = pareamento.itemDaConsulta(r);
+            if (match < 0 || pareamento.scoreDaConsulta(r) < 0.85) continue;
+            ProjectCollaborator pc = pcPorId.get(colaboradores.item(match).getCollaboratorId());
+            if (pc != null) encontrados.add(pc);
+        }
+        return encontrados;
+    }
+
+    private void atualizarDadosColaborador(ProjectCollaborator pc, SheetRow row) {
         if (pc.getWasEdited()) return;
 
-        var plantao    = data.get("PLANTAO") != null ? data.get("PLANTAO") : "0";
-        int plantaoQtd = (int) Math.round(Double.parseDouble(
-                Objects.equals(plantao, "00:00:00") ? "0" : plantao));
-        pc.setPlantao(plantaoQtd);
+        pc.setPlantao((int) Math.round(row.getPlantao() != null ? row.getPlantao() : 0));
 
         NestedScoringParameters params = Optional.ofNullable(pc.getParametros())
                 .orElseGet(() -> {
@@ -397,26 +396,39 @@ public class AvaliacaoService implements AvaliacaoProcessor {
         if (params.getTarm()  == null) params.setTarm(new ScoringSectionParams());
         if (params.getFrota() == null) params.setFrota(new ScoringSectionParams());
 
-        Map<String, List<String>> keyMap = new HashMap<>();
-        keyMap.put("TARM",  Arrays.asList(KEY_TEMPO_REGULACAO_TARM,  "TEMPO.REGULACAO.TARM"));
-        keyMap.put("FROTA", Arrays.asList(KEY_TEMPO_REGULACAO_FROTA, "TEMPO.REGULACAO.FROTA", "OP FROTA REGULAO MDICA"));
+        Long secs = segundosDoCargo(pc, row);
+        if (secs != null) {
+            ScoringSectionParams section = pc.getRole().equals("TARM") ? params.getTarm() : params.getFrota();
 
-        List<String> possiveisChaves = keyMap.getOrDefault(pc.getRole(), Collections.emptyList());
+            Long existingSaidaVtr = Optional.ofNullable(section.getSaidaVtr())
+                    .filter(list -> !list.isEmpty())
+                    .map(list -> list.getLast().getDuration())
+                    .orElse(0L);
 
-        for (String chave : possiveisChaves) {
-            if (data.containsKey(chave)) {
-                Long secs = SheetsUtils.parseTimeToSeconds(data.get(chave));
-
-                ScoringSectionParams section = pc.getRole().equals("TARM") ? params.getTarm() : params.getFrota();
+            pc.setDurationSeconds(secs);
+            pc.setSaidaVtrSeconds(existingSaidaVtr);
+        }
+    }
 
-                Long existingSaidaVtr = Optional.ofNullable(section.getSaidaVtr())
-                        .filter(list -> !list.isEmpty())
-                        .map(list -> list.getLast().getDuration())
-                        .orElse(0L);
+    /**
+     * Verdadeiro quando um colaborador nao editado tem plantao ou duracao diferentes da linha
+     * casada. Acontece com linhas mantidas casadas com colaboradores incluidos no projeto depois
+     * do ultimo envio, que ainda nao receberam os dados dela.
+     */
+    private boolean desatualizado(ProjectCollaborator pc, SheetRow row) {
+        if (Boolean.TRUE.equals(pc.getWasEdited())) return false;
+        int plantao = (int) Math.round(row.getPlantao() != null ? row.getPlantao() : 0);
+        Long secs = segundosDoCargo(pc, row);
+        return !Objects.equals(pc.getPlantao(), plantao)
+                || secs != null && !secs.equals(pc.getDurationSeconds());
+    }
 
-                pc.setDurationSeconds(secs);
-                pc.setSaidaVtrSeconds(existingSaidaVtr);
-            }
-        }
+    private Long segundosDoCargo(ProjectCollaborator pc, SheetRow row) {
+        if (pc.getRole() == null) return null;
+        return switch (pc.getRole()) {
+            case "TARM"  -> row.getTarmSegundos();
+            case "FROTA" -> row.getFrotaSegundos();
+            default      -> null;
+        };
     }
-}
\ No newline at end of file
+}
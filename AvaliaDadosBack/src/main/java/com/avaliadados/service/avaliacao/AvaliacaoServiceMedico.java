@@ -3,30 +3,36 @@ package com.avaliadados.service.avaliacao;
 import com.avaliadados.model.CollaboratorEntity;
 import com.avaliadados.model.ProjectCollaborator;
 import com.avaliadados.model.SheetRow;
+import com.avaliadados.model.dto.CollaboratorNome;
+import com.avaliadados.model.enums.FaseProcessamento;
 import com.avaliadados.model.enums.MedicoRole;
 import com.avaliadados.model.enums.ShiftHours;
 import com.avaliadados.model.enums.TypeAv;
 import com.avaliadados.model.roles.MedicoEntity;
 import com.avaliadados.repository.CollaboratorRepository;
 import com.avaliadados.repository.MedicoEntityRepository;
+import com.avaliadados.repository.ProjectCollaboratorRepository;
 import com.avaliadados.repository.ProjetoRepository;
 import com.avaliadados.repository.SheetRowRepository;
 import com.avaliadados.service.factory.AvaliacaoProcessor;
+import com.avaliadados.service.factory.ProgressoProcessamento;
 import com.avaliadados.service.utils.CollabParams;
+import com.avaliadados.service.utils.ConflitoVersao;
+import com.avaliadados.service.utils.HeaderResolver;
+import com.avaliadados.service.utils.HeaderResolver.Coluna;
+import com.avaliadados.service.utils.NameMatcher;
 import com.avaliadados.service.utils.SheetsUtils;
-import com.avaliadados.service.utils.WorkbookReader;
+import com.avaliadados.service.utils.WorkbookRow;
+import com.avaliadados.service.utils.WorkbookRowHandler;
+import com.avaliadados.service.utils.WorkbookSource;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.text.Normalizer;
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import static com.avaliadados.service.utils.SheetsUtils.*;
 
@@ -36,27 +42,103 @@ import static com.avaliadados.service.utils.SheetsUtils.*;
 public class AvaliacaoServiceMedico implements AvaliacaoProcessor {
 
     private final ProjetoRepository projetoRepo;
+    private final ProjectCollaboratorRepository projectCollaboratorRepo;
     private final MedicoEntityRepository medicoRepo;
     private final SheetRowRepository sheetRowRepo;
     private final CollabParams collabParams;
     private final CollaboratorRepository colaboradorRepository;
+    private final NomeAliasService nomeAliasService;
 
     @Transactional
-    public List<String> processarPlanilha(MultipartFile arquivo, String projectId) throws IOException {
+    public List<String> processarPlanilha(WorkbookSource planilha, String projectId, ProgressoProcessamento progresso) throws IOException {
+        progresso.fase(FaseProcessamento.PARSE);
+
+        NameMatcher<CollaboratorNome> colaboradores = NameMatcher.of(colaboradorRepository.findAllNomes(), CollaboratorNome::nomeNormalizado);
+        NomeAliasService.Dicionario aliases = nomeAliasService.dicionario(TypeAv.MEDICO);
+        LeituraMedico leitura = new LeituraMedico(projectId, colaboradores, aliases, progresso);
+        planilha.read(leitura);
+        DiffLinhas diff = DiffLinhas.calcular(sheetRowRepo, projectId, TypeAv.MEDICO, leitura.linhas);
+
+        List<String> naoEncontrados = ConflitoVersao.repetir("planilha de medicos do projeto " + projectId,
+                () -> sincronizarColaboradores(projectId, progresso, diff));
+        diff.gravar(sheetRowRepo);
+        nomeAliasService.salvar(aliases);
+        return naoEncontrados;
+    }
 
-        sheetRowRepo.deleteByProjectIdAndType(projectId, TypeAv.MEDICO);
+    @Override
+    public TypeAv tipo() {
+        return TypeAv.MEDICO;
+    }
 
-        try (Workbook wb = WorkbookReader.read(arquivo)) {
+    /**
+     * Consome a primeira aba da planilha de medicos em streaming: as linhas 0 e 1 formam o
+     * cabecalho e os dados comecam na linha 2.
+     */
+    private final class LeituraMedico implements WorkbookRowHandler {
+
+        private static final int START_ROW = 2;
+
+        private final String projectId;
+        private final NameMatcher<CollaboratorNome> colaboradores;
+        private final Map<String, CollaboratorNome> colaboradoresPorId = new HashMap<>();
+        private final NomeAliasService.Dicionario aliases;
+        private final ProgressoProcessamento progresso;
+        private final List<SheetRow> linhas = new ArrayList<>();
+        private WorkbookRow r0;
+        private WorkbookRow r1;
+
+        private Integer idxMedReg;
+        private Integer idxPlantao;
+        private Integer idxTempoMed;
+        private Integer idxCrit;
+        private Integer idxTempoAnalitico;
+        private boolean colunasMapeadas;
+
+        private LeituraMedico(String projectId, NameMatcher<CollaboratorNome> colaboradores,
+                              NomeAliasService.Dicionario aliases, ProgressoProcessamento progresso) {
+            this.projectId = projectId;
+            this.colaboradores = colaboradores;
+            this.aliases = aliases;
+            this.progresso = progresso;
+            for (int i = 0; i < colaboradores.size(); i++) {
+                colaboradoresPorId.putIfAbsent(colaboradores.item(i).id(), colaboradores.item(i));
+            }
+        }
 
-            Sheet sheet = wb.getSheetAt(0);
+        @Override
+        public boolean startSheet(int sheetIndex, String sheetName) {
+            return sheetIndex == 0;
+        }
+
+        @Override
+        public boolean row(WorkbookRow row) {
+            if (row.getRowNum() < START_ROW) {
+                if (row.getRowNum() == 0) r0 = row;
+                else r1 = row;
+                return true;
+            }
+            if (!colunasMapeadas) mapearColunas();
+            progresso.linhaLida();
+            processarLinha(row);
+            return true;
+        }
+
+        @Override
+        public void endSheet(int sheetIndex) {
+            if (!colunasMapeadas) mapearColunas();
+        }
 
-            Map<String, Integer> cols = mapearColunasBlindado(sheet);
+        private void mapearColunas() {
+            colunasMapeadas = true;
+            HeaderResolver.Colunas cols = HeaderResolver.MEDICO.resolver(r0, r1);
+            log.info("Colunas mapeadas corretamente: {}", cols);
 
-            Integer idxMedReg = cols.get("MEDICO");
-            Integer idxPlantao = cols.get("PLANTAO");
-            Integer idxTempoMed = cols.get("TEMPO_REG");
-            Integer idxCrit = cols.get("CRITICOS");
-            Integer idxTempoAnalitico = cols.get("TEMPO_ANALITICO");
+            idxMedReg = cols.get(Coluna.COLABORADOR);
+            idxPlantao = cols.get(Coluna.PLANTAO);
+            idxTempoMed = cols.get(Coluna.TARM);
+            idxCrit = cols.get(Coluna.CRITICOS);
+            idxTempoAnalitico = cols.get(Coluna.TEMPO_ANALITICO);
 
             if (idxMedReg == null) {
                 throw new IllegalArgumentException("Não foi possível localizar a coluna de MÉDICO REGULADOR na planilha.");
@@ -65,149 +147,83 @@ public class AvaliacaoServiceMedico implements AvaliacaoProcessor {
                 log.warn("⚠️ Fallback tempo regulação -> coluna 15");
                 idxTempoMed = 15;
             }
-
-            int startRow = 2;
-            if (sheet.getRow(1) != null) {
-                String headerRow0 = normalize(getCellStringValue(sheet.getRow(1), 0));
-                if (headerRow0.contains("MEDICO") || headerRow0.contains("COLABORADOR")) {
-                    startRow = 2;
-                }
-            }
-
-            for (int i = startRow; i <= sheet.getLastRowNum(); i++) {
-
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
-
-                String nomeMed = getCellStringValue(row, idxMedReg);
-                String tempoReg = getCellStringValue(row, idxTempoMed);
-                String plantao = idxPlantao != null ? getCellStringValue(row, idxPlantao) : "";
-
-                if (isBlank(nomeMed) || isBlank(tempoReg)) continue;
-
-                String nomeNormPlanilha = SheetsUtils.normalizeName(nomeMed);
-                List<CollaboratorEntity> encontrados = colaboradorRepository.findAll().stream()
-                        .filter(c -> {
-                            String nomeBase = SheetsUtils.normalizeName(c.getNome());
-                            if (nomeBase == null) return false;
-                            return nomeBase.equals(nomeNormPlanilha) || SheetsUtils.similarity(nomeBase, nomeNormPlanilha) > 0.85;
-                        })
-                        .toList();
-
-                if (!encontrados.isEmpty()) {
-
-                    List<SheetRow> srList = new ArrayList<>();
-
-                    for (CollaboratorEntity colaborador : encontrados) {
-
-                        SheetRow sr = new SheetRow();
-                        sr.setProjectId(projectId);
-                        sr.setCollaboratorId(colaborador.getId());
-                        sr.setType(TypeAv.MEDICO);
-
-                        sr.getData().put("MEDICO.REGULADOR", nomeMed);
-                        sr.getData().put("TEMPO.REGULACAO", tempoReg);
-                        sr.getData().put("PLANTAO", plantao);
-
-                        if (idxCrit != null) {
-                            String crit = getCellStringValue(row, idxCrit);
-                            if (!isBlank(crit)) {
-                                sr.getData().put("CRITICOS", crit);
-                            }
-                        }
-
-                        if (idxTempoAnalitico != null) {
-                            String analitico = getCellStringValue(row, idxTempoAnalitico);
-                            if (!isBlank(analitico)) {
-                                sr.getData().put("TEMPO.ANALITICO", analitico);
-                            }
-                        }
-
-                        srList.add(sr);
-                    }
-
-                    sheetRowRepo.saveAll(srList);
-                }
-            }
         }
 
-        return sincronizarColaboradores(projectId);
-    }
-
-    private Map<String, Integer> mapearColunasBlindado(Sheet sheet) {
-        Map<String, Integer> result = new HashMap<>();
-
-        Row r0 = sheet.getRow(0);
-        Row r1 = sheet.getRow(1);
-
-        if (r0 == null && r1 == null) return result;
-
-        int maxCols = Math.max(
-                r0 != null ? r0.getLastCellNum() : 0,
-                r1 != null ? r1.getLastCellNum() : 0
-        );
-
-        for (int i = 0; i < maxCols; i++) {
-            String h0 = normalize(getCell(r0, i));
-            String h1 = normalize(getCell(r1, i));
-            String fullHeader = Stream.of(h0, h1)
-                    .filter(s -> s != null && !s.isBlank())
-                    .collect(Collectors.joining(" "));
-
-            if (fullHeader.contains("MEDICO") && fullHeader.contains("REGULADOR")) {
-                result.putIfAbsent("MEDICO", i);
-            }
-
-            if (fullHeader.contains("PLANTAO") && (fullHeader.contains("12") || fullHeader.contains("HORA"))) {
-                result.putIfAbsent("PLANTAO", i);
-            }
-
-            if (fullHeader.contains("REGULACAO") && !fullHeader.contains("ANALITICO") && !fullHeader.contains("TIH")) {
-                result.putIfAbsent("TEMPO_REG", i);
-            }
-
-            if ((h0.contains("CRITICO") || h1.contains("CRITICO"))) {
-                result.put("CRITICOS", i);
+        private void processarLinha(WorkbookRow row) {
+            String nomeMed = row.getText(idxMedReg);
+            if (isBlank(nomeMed) || isBlank(row.getText(idxTempoMed))) return;
+
+            long tempoReg = row.seconds(idxTempoMed);
+            Double plantao = idxPlantao != null && !isBlank(row.getText(idxPlantao))
+                    ? row.count(idxPlantao) : null;
+            Long crit = idxCrit != null && !isBlank(row.getText(idxCrit))
+                    ? row.seconds(idxCrit) : null;
+            Long analitico = idxTempoAnalitico != null && !isBlank(row.getText(idxTempoAnalitico))
+                    ? row.seconds(idxTempoAnalitico) : null;
+
+            List<CollaboratorNome> encontrados = buscarColaboradores(nomeMed);
+
+            for (CollaboratorNome colaborador : encontrados) {
+                SheetRow sr = new SheetRow();
+                sr.setProjectId(projectId);
+                sr.setCollaboratorId(colaborador.id());
+                sr.setType(TypeAv.MEDICO);
+
+                sr.setNome(nomeMed);
+                sr.setRegulacaoSegundos(tempoReg);
+                sr.setPlantao(plantao);
+                sr.setCriticosSegundos(crit);
+                sr.setAnaliticoSegundos(analitico);
+
+                linhas.add(sr);
             }
+        }
 
-            if ((fullHeader.contains("ANALITICO") || fullHeader.contains("TIH")) && !fullHeader.contains("MEDICO")) {
-                result.put("TEMPO_ANALITICO", i);
+        /**
+         * Colaborador do alias do nome quando ele existe; senao, os que casam pelo nome. Um
+         * casamento unico vira alias, confirmado so quando nenhum outro colaborador chega perto
+         * (ver {@link NomeAliasService#LIMITE_AMBIGUIDADE}).
+         */
+        private List<CollaboratorNome> buscarColaboradores(String nomeMed) {
+            CollaboratorNome porAlias = colaboradoresPorId.get(aliases.buscar(nomeMed));
+            if (porAlias != null) return List.of(porAlias);
+
+            String nomeNorm = SheetsUtils.normalizeName(nomeMed);
+            List<CollaboratorNome> encontrados = colaboradores.buscar(nomeNorm, 0.85);
+            if (encontrados.size() == 1) {
+                boolean inequivoco = colaboradores.buscar(nomeNorm, NomeAliasService.LIMITE_AMBIGUIDADE).size() == 1;
+                aliases.registrar(nomeMed, encontrados.get(0).id(), inequivoco);
             }
+            return encontrados;
         }
-
-        log.info("Colunas mapeadas corretamente: {}", result);
-        return result;
-    }
-
-    private String getCell(Row row, int idx) {
-        if (row == null) return "";
-        Cell c = row.getCell(idx);
-        return c == null ? "" : c.toString();
-    }
-
-    private String normalize(String s) {
-        if (s == null) return "";
-        return Normalizer.normalize(s, Normalizer.Form.NFD)
-                .replaceAll("[^\\p{ASCII}]", "")
-                .toUpperCase()
-                .replaceAll("[^A-Z0-9 ]", " ")
-                .replaceAll("\\s+", " ")
-                .trim();
     }
 
     private boolean isBlank(String s) {
         return s == null || s.trim().isEmpty() || "-".equals(s.trim());
     }
 
-    @Transactional
-    public List<String> sincronizarColaboradores(String projectId) {
+    /**
+     * Associa as linhas aos medicos do projeto. Na primeira leitura todos sao pontuados; nas
+     * seguintes, apenas os medicos de linhas inseridas ou removidas, os incluidos agora e os que
+     * ainda nao tem os dados da linha casada. So os medicos pontuados, incluidos ou com dados
+     * novos sao gravados.
+     */
+    private List<String> sincronizarColaboradores(String projectId, ProgressoProcessamento progresso, DiffLinhas diff) {
+        progresso.fase(FaseProcessamento.MATCH);
         var projeto = projetoRepo.findById(projectId)
                 .orElseThrow(() -> new RuntimeException("Projeto não encontrado: " + projectId));
+        List<ProjectCollaborator> doProjeto = projectCollaboratorRepo.findByProjectId(projectId);
+        Map<String, ProjectCollaborator> porColaborador = new HashMap<>();
+        for (ProjectCollaborator pc : doProjeto) {
+            porColaborador.putIfAbsent(pc.getCollaboratorId(), pc);
+        }
 
-        Map<String, List<MedicoEntity>> medicosPorNome = medicoRepo.findAll().stream()
-                .collect(Collectors.groupingBy(m -> normalizeName(m.getNome())));
+        List<MedicoEntity> medicos = medicoRepo.findAll();
+        Map<String, List<MedicoEntity>> medicosPorNome = medicos.stream()
+                .collect(Collectors.groupingBy(MedicoEntity::getNomeNormalizado));
+        Set<String> alterados = diff.completo ? null : idsAlterados(diff, medicosPorNome);
 
-        List<ProjectCollaborator> medicosNoProjeto = projeto.getCollaborators().stream()
+        List<ProjectCollaborator> medicosNoProjeto = doProjeto.stream()
                 .filter(pc -> "MEDICO".equals(pc.getRole()))
                 .toList();
 
@@ -218,190 +234,183 @@ public class AvaliacaoServiceMedico implements AvaliacaoProcessor {
                 .stream()
                 .collect(Collectors.toMap(CollaboratorEntity::getId, c -> c));
 
-        List<SheetRow> sheetRows = sheetRowRepo.findByProjectId(projectId);
+        List<SheetRow> sheetRows = diff.linhas;
         Set<String> normalizedSheetNames = sheetRows.stream()
-                .map(sr -> normalizeName(sr.getData().get("MEDICO.REGULADOR")))
-                .collect(Collectors.toSet());
-
-        List<String> naoEncontrados = new ArrayList<>();
+                .map(sr -> normalizeName(sr.getNome()))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        NameMatcher<String> nomesPlanilha = NameMatcher.of(normalizedSheetNames, nome -> nome);
 
+        List<CollaboratorEntity> semLinha = new ArrayList<>();
+        List<String> nomesSemLinha = new ArrayList<>();
         for (ProjectCollaborator pc : medicosNoProjeto) {
             CollaboratorEntity collab = collaboratorMap.get(pc.getCollaboratorId());
             if (collab == null) {
                 log.warn("⚠️ Colaborador ID {} listado no projeto mas não existe no banco!", pc.getCollaboratorId());
                 continue;
             }
-            String nomeOriginal = collab.getNome();
-            String nomeNorm = normalizeName(nomeOriginal);
-
+            String nomeNorm = collab.getNomeNormalizado();
             if (!normalizedSheetNames.contains(nomeNorm)) {
-                String bestMatchName = null;
-                double highestScore = 0.0;
-
-                for (String sheetName : normalizedSheetNames) {
-                    double currentScore = similarity(nomeNorm, sheetName);
-                    if (currentScore > highestScore) {
-                        highestScore = currentScore;
-                        bestMatchName = sheetName;
-                    }
-                }
+                semLinha.add(collab);
+                nomesSemLinha.add(nomeNorm);
+            }
+        }
 
-                if (bestMatchName != null && highestScore >= 0.5) {
-                    naoEncontrados.add(nomeOriginal + " (possível correspondência: " + bestMatchName + ")");
-                } else {
-                    naoEncontrados.add(nomeOriginal + " (nenhuma correspondência próxima encontrada)");
-                }
+        NameMatcher.Pareamento sugestoes = nomesPlanilha.parear(nomesSemLinha, 0.85, 0.5);
+        List<String> naoEncontrados = new ArrayList<>();
+        for (int i = 0; i < semLinha.size(); i++) {
+            String nomeOriginal = semLinha.get(i).getNome();
+            int melhor = sugestoes.itemDaConsulta(i);
+            if (melhor >= 0) {
+                naoEncontrados.add(nomeOriginal + " (possível correspondência: " + nomesPlanilha.item(melhor) + ")");
+            } else {
+                naoEncontrados.add(nomeOriginal + " (nenhuma correspondência próxima encontrada)");
             }
         }
 
         Map<ProjectCollaborator, String> pcToIdMap = new LinkedHashMap<>();
+        Set<String> adicionados = new HashSet<>();
+        Set<ProjectCollaborator> novos = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<ProjectCollaborator> gravar = Collections.newSetFromMap(new IdentityHashMap<>());
 
         for (SheetRow sr : sheetRows) {
-            String rawNome = Optional.ofNullable(sr.getData().get("MEDICO.REGULADOR"))
-                    .orElse("MEDICO.LIDER");
-            String nomeNorm = normalizeName(rawNome);
+            String nomeNorm = normalizeName(sr.getNome());
 
             List<MedicoEntity> possiveis = medicosPorNome.getOrDefault(nomeNorm, List.of());
 
             for (MedicoEntity med : possiveis) {
                 String collabId = med.getId();
 
-                ProjectCollaborator pc = projeto.getCollaborators().stream()
-                        .filter(c -> c.getCollaboratorId().equals(collabId))
-                        .findFirst()
-                        .orElseGet(() -> {
-                            var novo = ProjectCollaborator.builder()
-                                    .collaboratorId(collabId)
-                                    .nome(med.getNome())
-                                    .role(med.getRole())
-                                    .medicoRole(med.getMedicoRole())
-                                    .build();
-                            projeto.getCollaborators().add(novo);
-                            return novo;
-                        });
+                ProjectCollaborator pc = colaboradorDoProjeto(porColaborador, projectId, med, novos);
 
                 if (pc.getWasEdited() == null) {
                     pc.setWasEdited(false);
                 }
-                if (!pc.getWasEdited()) {
+                boolean preencher = diff.inserida(sr) || novos.contains(pc) || desatualizado(pc, sr);
+                if (preencher) {
+                    atualizarDadosMedico(pc, sr);
+                    gravar.add(pc);
+                }
+                if (!pc.getWasEdited() && (alterados == null || preencher || alterados.contains(collabId))) {
                     CollaboratorEntity c = collaboratorMap.get(pc.getCollaboratorId());
                     String idCallRote = (c != null && c.getIdCallRote() != null) ? c.getIdCallRote() : "";
                     pcToIdMap.put(pc, idCallRote);
+                    adicionados.add(collabId);
                 }
             }
         }
 
-        List<MedicoEntity> todosMedicos = medicoRepo.findAll();
-        for (MedicoEntity med : todosMedicos) {
-            boolean jaAdicionado = pcToIdMap.keySet().stream()
-                    .anyMatch(pc -> pc.getCollaboratorId().equals(med.getId()));
-
-            if (!jaAdicionado) {
-                ProjectCollaborator pc = projeto.getCollaborators().stream()
-                        .filter(c -> c.getCollaboratorId().equals(med.getId()))
-                        .findFirst()
-                        .orElseGet(() -> {
-                            var novo = ProjectCollaborator.builder()
-                                    .collaboratorId(med.getId())
-                                    .nome(med.getNome())
-                                    .role(med.getRole())
-                                    .medicoRole(med.getMedicoRole())
-                                    .build();
-                            projeto.getCollaborators().add(novo);
-                            return novo;
-                        });
+        for (MedicoEntity med : medicos) {
+            if (!adicionados.contains(med.getId())) {
+                ProjectCollaborator pc = colaboradorDoProjeto(porColaborador, projectId, med, novos);
+                if (alterados != null && !alterados.contains(med.getId()) && !novos.contains(pc)) continue;
                 CollaboratorEntity c = collaboratorMap.get(pc.getCollaboratorId());
                 String idCallRote = (c != null && c.getIdCallRote() != null) ? c.getIdCallRote() : "";
                 pcToIdMap.put(pc, idCallRote);
-            }
-        }
-
-        for (SheetRow sr : sheetRows) {
-            String rawNome = Optional.ofNullable(sr.getData().get("MEDICO.REGULADOR"))
-                    .orElse("MEDICO.LIDER");
-            String nomeNorm = normalizeName(rawNome);
-
-            List<MedicoEntity> possiveis = medicosPorNome.getOrDefault(nomeNorm, List.of());
-
-            for (MedicoEntity med : possiveis) {
-                String collabId = med.getId();
-
-                projeto.getCollaborators().stream()
-                        .filter(c -> c.getCollaboratorId().equals(collabId))
-                        .findFirst()
-                        .ifPresent(pc -> atualizarDadosMedico(pc, sr.getData()));
+                adicionados.add(med.getId());
             }
         }
 
         if (!pcToIdMap.isEmpty()) {
+            progresso.colaboradores(pcToIdMap.size());
+            progresso.fase(FaseProcessamento.FETCH);
             collabParams.setDataFromApi(pcToIdMap, projeto);
 
+            progresso.fase(FaseProcessamento.SCORE);
+            List<ProjectCollaborator> aPontuar = new ArrayList<>(pcToIdMap.size());
             for (ProjectCollaborator pc : pcToIdMap.keySet()) {
-                if ((pc.getPausaMensalSeconds() != null && pc.getPausaMensalSeconds() > 0)
-                        || (pc.getDurationSeconds() != null && pc.getDurationSeconds() > 0)) {
-                    int pontos = collabParams.setParams(
-                            pc,
-                            projeto,
-                            pc.getRemovidos(),
-                            pc.getRemovidosLider() != null ? pc.getRemovidosLider() : 0,
-                            pc.getDurationSeconds(),
-                            pc.getCriticos(),
-                            pc.getPausaMensalSeconds() != null ? pc.getPausaMensalSeconds() : 0L,
-                            0L);
-                    pc.setPontuacao(pontos);
+                if (((pc.getPausaMensalSeconds() != null && pc.getPausaMensalSeconds() > 0)
+                        || (pc.getDurationSeconds() != null && pc.getDurationSeconds() > 0))
+                        && collabParams.registrarEntradas(
+                                pc,
+                                pc.getRemovidos(),
+                                pc.getRemovidosLider() != null ? pc.getRemovidosLider() : 0,
+                                pc.getDurationSeconds(),
+                                pc.getCriticos(),
+                                pc.getPausaMensalSeconds() != null ? pc.getPausaMensalSeconds() : 0L,
+                                0L)) {
+                    aPontuar.add(pc);
                 } else {
                     pc.setPontuacao(0);
                 }
             }
+            collabParams.pontuarLote(aPontuar, projeto);
         }
 
-        projetoRepo.save(projeto);
+        gravar.addAll(pcToIdMap.keySet());
+        gravar.addAll(novos);
+        if (gravar.isEmpty()) return naoEncontrados;
+
+        progresso.fase(FaseProcessamento.SAVE);
+        projectCollaboratorRepo.saveAll(gravar);
         return naoEncontrados;
     }
 
-    private void atualizarDadosMedico(ProjectCollaborator pc, Map<String, String> data) {
-
-        long duration = 0L;
-        long criticos = 0L;
-
-        MedicoRole medicoRole = pc.getMedicoRole();
-
-        var plantaoStr = data.get("PLANTAO");
-
-        if (plantaoStr != null && !plantaoStr.isBlank()) {
-            try {
-                int plantaoQtd = plantaoStr.contains(":")
-                        ? 0
-                        : (int) Math.round(Double.parseDouble(plantaoStr));
+    private ProjectCollaborator colaboradorDoProjeto(Map<String, ProjectCollaborator> porColaborador, String projectId, MedicoEntity med, Set<ProjectCollaborator> novos) {
+        return porColaborador.computeIfAbsent(med.getId(), id -> {
+            var novo = ProjectCollaborator.builder()
+                    .projectId(projectId)
+                    .collaboratorId(id)
+                    .nome(med.getNome())
+                    .role(med.getRole())
+                    .medicoRole(med.getMedicoRole())
+                    .build();
+            novos.add(novo);
+            return novo;
+        });
+    }
 
-                if (pc.getPlantao() == null || pc.getPlantao() == 0) {
-                    pc.setPlantao(plantaoQtd);
-                }
+    /**
+     * IDs dos medicos ligados as linhas inseridas ou removidas, pelo colaborador gravado na
+     * linha e pelo nome.
+     */
+    private Set<String> idsAlterados(DiffLinhas diff, Map<String, List<MedicoEntity>> medicosPorNome) {
+        List<SheetRow> alteradas = new ArrayList<>(diff.removidas);
+        for (SheetRow sr : diff.linhas) {
+            if (diff.inserida(sr)) alteradas.add(sr);
+        }
 
-            } catch (NumberFormatException e) {
-                throw new IllegalArgumentException("Erro ao converter PLANTAO: " + plantaoStr, e);
+        Set<String> ids = new HashSet<>();
+        for (SheetRow sr : alteradas) {
+            if (sr.getCollaboratorId() != null) ids.add(sr.getCollaboratorId());
+            for (MedicoEntity med : medicosPorNome.getOrDefault(normalizeName(sr.getNome()), List.of())) {
+                ids.add(med.getId());
             }
         }
+        return ids;
+    }
+
+    /**
+     * Verdadeiro quando um medico nao editado ainda nao tem o plantao ou tem duracao ou criticos
+     * diferentes da linha casada, como os incluidos no projeto depois do ultimo envio e casados
+     * com linhas mantidas.
+     */
+    private boolean desatualizado(ProjectCollaborator pc, SheetRow sr) {
+        if (Boolean.TRUE.equals(pc.getWasEdited())) return false;
+        return sr.getPlantao() != null && pc.getPlantao() == null
+                || !Objects.equals(pc.getDurationSeconds(), duracaoDaLinha(pc, sr))
+                || !Objects.equals(pc.getCriticos(), criticosDaLinha(pc, sr));
+    }
 
-        switch (medicoRole) {
-            case REGULADOR:
-                duration = data.containsKey("TEMPO.REGULACAO")
-                        ? parseTimeToSeconds(data.get("TEMPO.REGULACAO")) : 0L;
-                break;
-
-            case LIDER:
-                criticos = data.containsKey("CRITICOS")
-                        ? parseTimeToSeconds(data.get("CRITICOS")) : 0L;
-                break;
-            default:
-                break;
+    private void atualizarDadosMedico(ProjectCollaborator pc, SheetRow sr) {
+        if (sr.getPlantao() != null && (pc.getPlantao() == null || pc.getPlantao() == 0)) {
+            pc.setPlantao((int) Math.round(sr.getPlantao()));
         }
 
         if (pc.getShiftHours() == null) {
             pc.setShiftHours(ShiftHours.H12);
         }
 
-        pc.setDurationSeconds(duration);
-        pc.setCriticos(criticos);
+        pc.setDurationSeconds(duracaoDaLinha(pc, sr));
+        pc.setCriticos(criticosDaLinha(pc, sr));
+    }
+
+    private Long duracaoDaLinha(ProjectCollaborator pc, SheetRow sr) {
+        return pc.getMedicoRole() == MedicoRole.REGULADOR
+                ? Optional.ofNullable(sr.getRegulacaoSegundos()).orElse(0L) : 0L;
+    }
+
+    private Long criticosDaLinha(ProjectCollaborator pc, SheetRow sr) {
+        return pc.getMedicoRole() == MedicoRole.LIDER
+                ? Optional.ofNullable(sr.getCriticosSegundos()).orElse(0L) : 0L;
     }
 }
@@ -0,0 +1,93 @@
+package com.avaliadados.service.avaliacao;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Totais por colaborador da planilha TARM/FROTA, somados linha a linha em campos primitivos.
+ *
+ * A chave e o nome canonico (sem espacos nas pontas, espacos internos colapsados e em
+ * maiusculas), entao variacoes de digitacao do mesmo nome caem no mesmo total. O nome exibido
+ * e o da primeira linha encontrada.
+ */
+class ConsolidacaoTarmFrota {
+
+    private static final char NBSP = '\u00A0';
+
+    private final Map<String, Totais> porNome = new LinkedHashMap<>();
+
+    void adicionar(String nome, double plantao, long tarmSegundos, long frotaSegundos) {
+        String chave = canonico(nome);
+        Totais totais = porNome.get(chave);
+        if (totais == null) {
+            totais = new Totais(nome.trim());
+            porNome.put(chave, totais);
+        }
+        totais.somar(plantao, tarmSegundos, frotaSegundos);
+    }
+
+    Collection<Totais> totais() {
+        return porNome.values();
+    }
+
+    /**
+     * Nome sem espacos nas pontas, espacos internos colapsados e letras em maiusculas. Nomes
+     * que ja estao nesse formato (o caso comum) sao devolvidos sem copia.
+     */
+    static String canonico(String nome) {
+        if (isCanonico(nome)) return nome;
+
+        StringBuilder sb = new StringBuilder(nome.length());
+        boolean espacoPendente = false;
+        for (int i = 0; i < nome.length(); i++) {
+            char c = nome.charAt(i);
+            if (isEspaco(c)) {
+                espacoPendente = true;
+                continue;
+            }
+            if (espacoPendente && !sb.isEmpty()) sb.append(' ');
+            espacoPendente = false;
+            sb.append(Character.toUpperCase(c));
+        }
+        return sb.toString();
+    }
+
+    private static boolean isCanonico(String nome) {
+        int ultimo = nome.length() - 1;
+        for (int i = 0; i <= ultimo; i++) {
+            char c = nome.charAt(i);
+            if (isEspaco(c)) {
+                if (c != ' ' || i == 0 || i == ultimo || nome.charAt(i - 1) == ' ') return false;
+            } else if (Character.toUpperCase(c) != c) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isEspaco(char c) {
+        return Character.isWhitespace(c) || c == NBSP;
+    }
+
+    @Getter
+    static final class Totais {
+
+        private final String nome;
+        private double plantao;
+        private long tarmSegundos;
+        private long frotaSegundos;
+
+        private Totais(String nome) {
+            this.nome = nome;
+        }
+
+        private void somar(double plantao, long tarmSegundos, long frotaSegundos) {
+            this.plantao += plantao;
+            this.tarmSegundos += tarmSegundos;
+            this.frotaSegundos += frotaSegundos;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.avaliadados.service.avaliacao;
+
+import com.avaliadados.model.SheetRow;
+import com.avaliadados.model.enums.TypeAv;
+import com.avaliadados.repository.SheetRowRepository;
+import com.avaliadados.service.utils.Fingerprint;
+
+import java.util.*;
+
+/**
+ * Gravacao incremental das linhas de um tipo de planilha em um projeto.
+ *
+ * Cada linha leva o SHA-256 do seu conteudo. Linhas da nova leitura com o mesmo hash de uma
+ * linha ja gravada reaproveitam a gravada (com id e associacoes); so as inseridas e as que
+ * sumiram vao ao Mongo, e apenas elas precisam de nova pontuacao. Uma alteracao de conteudo
+ * aparece como uma remocao mais uma insercao.
+ *
+ * O diff e calculado sem gravar nada; {@link #gravar(SheetRowRepository)} so deve ser chamado
+ * depois que os colaboradores afetados forem salvos. Se a pontuacao falhar, as linhas antigas
+ * continuam no Mongo e o proximo envio do mesmo arquivo encontra as mesmas diferencas.
+ */
+final class DiffLinhas {
+
+    /**
+     * Linhas atuais, na ordem da planilha.
+     */
+    final List<SheetRow> linhas;
+    final List<SheetRow> removidas;
+    /**
+     * Sem linhas anteriores com hash (primeiro envio ou dados antigos): tudo e novo e o
+     * projeto deve ser recalculado por inteiro.
+     */
+    final boolean completo;
+    private final Set<SheetRow> inseridas;
+
+    private DiffLinhas(List<SheetRow> linhas, Set<SheetRow> inseridas, List<SheetRow> removidas, boolean completo) {
+        this.linhas = linhas;
+        this.inseridas = inseridas;
+        this.removidas = removidas;
+        this.completo = completo;
+    }
+
+    static DiffLinhas calcular(SheetRowRepository repository, String projectId, TypeAv type, List<SheetRow> novas) {
+        List<SheetRow> existentes = repository.findByProjectIdAndType(projectId, type);
+
+        boolean completo = true;
+        Map<String, Deque<SheetRow>> porHash = new HashMap<>();
+        for (SheetRow existente : existentes) {
+            if (existente.getHash() == null) continue;
+            completo = false;
+            porHash.computeIfAbsent(existente.getHash(), h -> new ArrayDeque<>()).add(existente);
+        }
+
+        List<SheetRow> linhas = new ArrayList<>(novas.size());
+        Set<SheetRow> mantidas = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<SheetRow> inseridas = new ArrayList<>();
+        for (SheetRow nova : novas) {
+            nova.setHash(hash(nova));
+            Deque<SheetRow> iguais = porHash.get(nova.getHash());
+            SheetRow existente = iguais != null ? iguais.pollFirst() : null;
+            if (existente != null) {
+                mantidas.add(existente);
+                linhas.add(existente);
+            } else {
+                inseridas.add(nova);
+                linhas.add(nova);
+            }
+        }
+
+        List<SheetRow> removidas = new ArrayList<>();
+        for (SheetRow existente : existentes) {
+            if (!mantidas.contains(existente)) removidas.add(existente);
+        }
+
+        Set<SheetRow> novasInseridas = Collections.newSetFromMap(new IdentityHashMap<>());
+        novasInseridas.addAll(inseridas);
+        return new DiffLinhas(linhas, novasInseridas, removidas, completo);
+    }
+
+    /**
+     * Remove as linhas que sairam da planilha e insere as novas.
+     */
+    void gravar(SheetRowRepository repository) {
+        if (!removidas.isEmpty()) {
+            repository.deleteAllById(removidas.stream().map(SheetRow::getId).toList());
+        }
+        if (!inseridas.isEmpty()) {
+            repository.saveAll(inseridas);
+        }
+    }
+
+    boolean inserida(SheetRow row) {
+        return inseridas.contains(row);
+    }
+
+    boolean semAlteracoes() {
+        return inseridas.isEmpty() && removidas.isEmpty();
+    }
+
+    /**
+     * Hash do tipo e dos valores da linha. Nas linhas de medico entra tambem o colaborador
+     * casado na leitura; nas de TARM/FROTA a associacao e feita depois e fica de fora.
+     */
+    static String hash(SheetRow row) {
+        StringBuilder sb = new StringBuilder(96);
+        sb.append(row.getType())
+                .append('\u0001').append(row.getType() == TypeAv.MEDICO ? row.getCollaboratorId() : null)
+                .append('\u0001').append(row.getNome())
+                .append('\u0001').append(row.getPlantao())
+                .append('\u0001').append(row.getTarmSegundos())
+                .append('\u0001').append(row.getFrotaSegundos())
+                .append('\u0001').append(row.getRegulacaoSegundos())
+                .append('\u0001').append(row.getCriticosSegundos())
+                .append('\u0001').append(row.getAnaliticoSegundos());
+        return Fingerprint.sha256(sb.toString());
+    }
+}
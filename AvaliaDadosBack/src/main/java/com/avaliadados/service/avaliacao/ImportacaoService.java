@@ -0,0 +1,61 @@
+package com.avaliadados.service.avaliacao;
+
+import com.avaliadados.model.ImportacaoPlanilha;
+import com.avaliadados.model.ProjectCollaborator;
+import com.avaliadados.model.enums.TypeAv;
+import com.avaliadados.repository.ImportacaoPlanilhaRepository;
+import com.avaliadados.repository.ProjectCollaboratorRepository;
+import com.avaliadados.service.utils.Fingerprint;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Impressao digital dos arquivos processados por projeto. Um arquivo identico ao ultimo do seu
+ * tipo, com o mesmo quadro de colaboradores no projeto, devolve o resultado gravado sem ser lido.
+ */
+@Service
+@RequiredArgsConstructor
+public class ImportacaoService {
+
+    private final ImportacaoPlanilhaRepository importacaoRepository;
+    private final ProjectCollaboratorRepository projectCollaboratorRepository;
+
+    public Optional<List<String>> resultadoAnterior(String projectId, String sha256) {
+        List<ImportacaoPlanilha> anteriores = importacaoRepository.findByProjectIdAndSha256(projectId, sha256);
+        if (anteriores.isEmpty()) return Optional.empty();
+
+        String assinatura = assinatura(projectCollaboratorRepository.findQuadroByProjectId(projectId));
+        return anteriores.stream()
+                .filter(i -> i.getNaoEncontrados() != null && Objects.equals(i.getAssinaturaProjeto(), assinatura))
+                .findFirst()
+                .map(ImportacaoPlanilha::getNaoEncontrados);
+    }
+
+    public void registrar(String projectId, TypeAv type, String sha256, List<String> naoEncontrados) {
+        ImportacaoPlanilha importacao = importacaoRepository.findByProjectIdAndType(projectId, type)
+                .orElseGet(() -> ImportacaoPlanilha.builder().projectId(projectId).type(type).build());
+        importacao.setSha256(sha256);
+        importacao.setAssinaturaProjeto(assinatura(projectCollaboratorRepository.findQuadroByProjectId(projectId)));
+        importacao.setNaoEncontrados(naoEncontrados);
+        importacao.setProcessadoEm(Instant.now());
+        importacaoRepository.save(importacao);
+    }
+
+    /**
+     * Hash dos colaboradores do projeto (id, nome e cargo), independente da ordem.
+     */
+    static String assinatura(List<ProjectCollaborator> colaboradores) {
+        StringBuilder sb = new StringBuilder();
+        colaboradores.stream()
+                .map(pc -> pc.getCollaboratorId() + '\u0001' + pc.getNome() + '\u0001' + pc.getRole())
+                .sorted(Comparator.naturalOrder())
+                .forEach(linha -> sb.append(linha).append('\n'));
+        return Fingerprint.sha256(sb.toString());
+    }
+}
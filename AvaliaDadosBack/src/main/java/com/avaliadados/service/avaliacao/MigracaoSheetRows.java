@@ -0,0 +1,85 @@
+package com.avaliadados.service.avaliacao;
+
+import com.avaliadados.model.SheetRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Migracao das linhas de planilha do formato antigo ({@code data}, tudo em texto e com as
+ * duracoes TARM/FROTA repetidas em duas chaves) para os campos tipados.
+ *
+ * Roda em segundo plano depois da subida, em lotes: cada documento recebe os campos tipados e o
+ * hash novo e perde {@code data} em um update restrito a esses campos, entao associacoes feitas
+ * em paralelo nao se perdem. Enquanto isso, as leituras convertem as linhas antigas em memoria
+ * (ver {@code SheetRowListener}).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MigracaoSheetRows {
+
+    private static final int LOTE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        Thread.ofVirtual().name("migracao-sheet-rows").start(this::migrar);
+    }
+
+    void migrar() {
+        long total = 0;
+        try {
+            while (true) {
+                Query pendentes = Query.query(Criteria.where("data").exists(true)).limit(LOTE);
+                List<SheetRow> lote = mongoTemplate.find(pendentes, SheetRow.class);
+                if (lote.isEmpty()) break;
+
+                BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SheetRow.class);
+                for (SheetRow row : lote) {
+                    bulk.updateOne(Query.query(Criteria.where("_id").is(row.getId()).and("data").exists(true)), camposTipados(row));
+                }
+                int migrados = bulk.execute().getModifiedCount();
+                total += migrados;
+                if (migrados == 0) {
+                    log.warn("Migracao de linhas interrompida: {} documentos antigos nao puderam ser atualizados", lote.size());
+                    break;
+                }
+            }
+            if (total > 0) log.info("Migracao de linhas concluida: {} documentos", total);
+        } catch (RuntimeException e) {
+            log.error("Falha na migracao de linhas de planilha apos {} documentos", total, e);
+        }
+    }
+
+    /**
+     * A linha chega aqui ja convertida pela leitura.
+     */
+    private static Update camposTipados(SheetRow row) {
+        Update update = new Update()
+                .unset("data")
+                .set("hash", DiffLinhas.hash(row));
+        definir(update, "nome", row.getNome());
+        definir(update, "plantao", row.getPlantao());
+        definir(update, "tarmSegundos", row.getTarmSegundos());
+        definir(update, "frotaSegundos", row.getFrotaSegundos());
+        definir(update, "regulacaoSegundos", row.getRegulacaoSegundos());
+        definir(update, "criticosSegundos", row.getCriticosSegundos());
+        definir(update, "analiticoSegundos", row.getAnaliticoSegundos());
+        return update;
+    }
+
+    private static void definir(Update update, String campo, Object valor) {
+        if (valor != null) update.set(campo, valor);
+    }
+}
@@ -0,0 +1,181 @@
+package com.avaliadados.service.avaliacao;
+
+import com.avaliadados.model.NomeAlias;
+import com.avaliadados.model.dto.NomeAliasRequest;
+import com.avaliadados.model.enums.OrigemAlias;
+import com.avaliadados.model.enums.TypeAv;
+import com.avaliadados.repository.CollaboratorRepository;
+import com.avaliadados.repository.NomeAliasRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dicionario de grafias das planilhas ja associadas a colaboradores. A leitura consulta o
+ * dicionario antes do casamento aproximado, entao nomes que se repetem todo mes viram uma busca
+ * direta. Ele e alimentado pelos casamentos aceitos na leitura ({@link OrigemAlias#CONFIRMADO}) e
+ * por correcoes manuais ({@link OrigemAlias#MANUAL}), que nunca sao sobrescritas automaticamente.
+ *
+ * Um alias vale para todos os projetos seguintes, entao a leitura so confirma casamentos
+ * inequivocos: nenhum outro colaborador com similaridade acima de {@link #LIMITE_AMBIGUIDADE}.
+ * Os demais ficam como {@link OrigemAlias#SUGERIDO}, para revisao, e nao sao usados na leitura.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NomeAliasService {
+
+    /**
+     * Um casamento so e confirmado quando ele e o unico candidato acima deste valor, abaixo do
+     * minimo de 0.85 para casar: dois homonimos proximos (SOUZA/SOUSA) ficam so como sugestao.
+     */
+    public static final double LIMITE_AMBIGUIDADE = 0.80;
+
+    private final NomeAliasRepository aliasRepository;
+    private final CollaboratorRepository collaboratorRepository;
+
+    /**
+     * Nome da planilha sem espacos nas pontas, espacos internos colapsados e em maiusculas; nulo
+     * para nomes vazios.
+     */
+    public static String chave(String nomePlanilha) {
+        if (nomePlanilha == null) return null;
+        String chave = ConsolidacaoTarmFrota.canonico(nomePlanilha);
+        return chave.isEmpty() ? null : chave;
+    }
+
+    public Dicionario dicionario(TypeAv type) {
+        Map<String, NomeAlias> porChave = new HashMap<>();
+        for (NomeAlias alias : aliasRepository.findByType(type)) {
+            porChave.put(alias.getChave(), alias);
+        }
+        return new Dicionario(type, porChave);
+    }
+
+    /**
+     * Grava os aliases novos ou alterados do dicionario, um a um. Uma leitura concorrente pode ter
+     * gravado a mesma chave antes; nesse caso o alias dela prevalece e apenas essa chave e
+     * descartada.
+     */
+    public void salvar(Dicionario dicionario) {
+        if (dicionario.alterados.isEmpty()) return;
+        for (NomeAlias alias : dicionario.alterados.values()) {
+            try {
+                aliasRepository.save(alias);
+            } catch (DuplicateKeyException e) {
+                log.warn("Alias '{}' de {} gravado em paralelo, mantendo o existente", alias.getChave(), dicionario.type);
+            }
+        }
+        dicionario.alterados.clear();
+    }
+
+    /**
+     * Registra um unico casamento aceito fora da leitura da planilha (ver
+     * {@link Dicionario#registrar}).
+     */
+    public void registrar(TypeAv type, String nomePlanilha, String collaboratorId, boolean inequivoco) {
+        String chave = chave(nomePlanilha);
+        if (chave == null || type == null) return;
+
+        Map<String, NomeAlias> porChave = new HashMap<>();
+        aliasRepository.findByTypeAndChave(type, chave).ifPresent(alias -> porChave.put(chave, alias));
+        Dicionario dicionario = new Dicionario(type, porChave);
+        dicionario.registrar(nomePlanilha, collaboratorId, inequivoco);
+        salvar(dicionario);
+    }
+
+    public List<NomeAlias> doColaborador(String collaboratorId) {
+        return aliasRepository.findByCollaboratorId(collaboratorId);
+    }
+
+    public List<NomeAlias> listar(TypeAv type) {
+        return type != null ? aliasRepository.findByType(type) : aliasRepository.findAll();
+    }
+
+    public NomeAlias salvarManual(NomeAliasRequest request) {
+        if (request.getType() == null) {
+            throw new IllegalArgumentException("O tipo da planilha é obrigatório");
+        }
+        String chave = chave(request.getNomePlanilha());
+        if (chave == null) {
+            throw new IllegalArgumentException("O nome da planilha é obrigatório");
+        }
+        collaboratorRepository.findById(request.getCollaboratorId())
+                .orElseThrow(() -> new RuntimeException("Colaborador não encontrado: " + request.getCollaboratorId()));
+
+        NomeAlias alias = aliasRepository.findByTypeAndChave(request.getType(), chave)
+                .orElseGet(() -> NomeAlias.builder().type(request.getType()).chave(chave).build());
+        alias.setNomePlanilha(request.getNomePlanilha().trim());
+        alias.setCollaboratorId(request.getCollaboratorId());
+        alias.setOrigem(OrigemAlias.MANUAL);
+        alias.setAtualizadoEm(Instant.now());
+        return aliasRepository.save(alias);
+    }
+
+    public void remover(String id) {
+        if (!aliasRepository.existsById(id)) {
+            throw new RuntimeException("Alias não encontrado: " + id);
+        }
+        aliasRepository.deleteById(id);
+    }
+
+    /**
+     * Aliases de um tipo de planilha carregados em memoria para uma leitura; as confirmacoes
+     * ficam pendentes ate {@link #salvar(Dicionario)}. Nao e thread-safe.
+     */
+    public static final class Dicionario {
+
+        private final TypeAv type;
+        private final Map<String, NomeAlias> porChave;
+        private final Map<String, NomeAlias> alterados = new LinkedHashMap<>();
+
+        private Dicionario(TypeAv type, Map<String, NomeAlias> porChave) {
+            this.type = type;
+            this.porChave = porChave;
+        }
+
+        /**
+         * @return o ID do colaborador associado ao nome, ou nulo quando nao ha alias ou ele e so
+         * uma sugestao
+         */
+        public String buscar(String nomePlanilha) {
+            String chave = chave(nomePlanilha);
+            if (chave == null) return null;
+            NomeAlias alias = porChave.get(chave);
+            return alias != null && alias.getOrigem() != OrigemAlias.SUGERIDO ? alias.getCollaboratorId() : null;
+        }
+
+        /**
+         * Registra um casamento aceito: confirmado quando inequivoco, senao como sugestao.
+         * Aliases manuais ficam como estao, e uma sugestao nunca substitui um alias confirmado.
+         */
+        public void registrar(String nomePlanilha, String collaboratorId, boolean inequivoco) {
+            String chave = chave(nomePlanilha);
+            if (chave == null || collaboratorId == null) return;
+
+            OrigemAlias origem = inequivoco ? OrigemAlias.CONFIRMADO : OrigemAlias.SUGERIDO;
+            NomeAlias alias = porChave.get(chave);
+            if (alias != null && (alias.getOrigem() == OrigemAlias.MANUAL
+                    || (!inequivoco && alias.getOrigem() == OrigemAlias.CONFIRMADO)
+                    || (alias.getOrigem() == origem && collaboratorId.equals(alias.getCollaboratorId())))) {
+                return;
+            }
+            if (alias == null) {
+                alias = NomeAlias.builder().type(type).chave(chave).build();
+                porChave.put(chave, alias);
+            }
+            alias.setNomePlanilha(nomePlanilha.trim());
+            alias.setCollaboratorId(collaboratorId);
+            alias.setOrigem(origem);
+            alias.setAtualizadoEm(Instant.now());
+            alterados.put(chave, alias);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.avaliadados.service.avaliacao;
+
+import com.avaliadados.model.dto.ProcessamentoJobResponse;
+import com.avaliadados.model.enums.FaseProcessamento;
+import com.avaliadados.model.enums.StatusProcessamento;
+import com.avaliadados.service.factory.ProgressoProcessamento;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estado de um processamento assincrono de planilha. Escrito pela thread do executor e lido
+ * pelas requisicoes de consulta, por isso os campos sao volateis.
+ */
+@Getter
+class ProcessamentoJob implements ProgressoProcessamento {
+
+    private final String id;
+    private final String projectId;
+    private final Instant criadoEm = Instant.now();
+    private final AtomicLong linhasLidas = new AtomicLong();
+
+    private volatile StatusProcessamento status = StatusProcessamento.PENDENTE;
+    private volatile FaseProcessamento fase;
+    private volatile int colaboradores;
+    private volatile List<String> naoEncontrados;
+    private volatile String erro;
+    private volatile Instant finalizadoEm;
+
+    ProcessamentoJob(String id, String projectId) {
+        this.id = id;
+        this.projectId = projectId;
+    }
+
+    @Override
+    public void fase(FaseProcessamento fase) {
+        this.fase = fase;
+    }
+
+    @Override
+    public void linhaLida() {
+        linhasLidas.incrementAndGet();
+    }
+
+    @Override
+    public void colaboradores(int total) {
+        this.colaboradores = total;
+    }
+
+    void iniciar() {
+        status = StatusProcessamento.EXECUTANDO;
+    }
+
+    void concluir(List<String> naoEncontrados) {
+        this.naoEncontrados = List.copyOf(naoEncontrados);
+        this.finalizadoEm = Instant.now();
+        this.status = StatusProcessamento.CONCLUIDO;
+    }
+
+    void falhar(String erro) {
+        this.erro = erro;
+        this.finalizadoEm = Instant.now();
+        this.status = StatusProcessamento.ERRO;
+    }
+
+    boolean isFinalizado() {
+        return finalizadoEm != null;
+    }
+
+    ProcessamentoJobResponse toResponse() {
+        return new ProcessamentoJobResponse(id, projectId, status, fase, linhasLidas.get(), colaboradores,
+                naoEncontrados, erro, criadoEm, finalizadoEm);
+    }
+}
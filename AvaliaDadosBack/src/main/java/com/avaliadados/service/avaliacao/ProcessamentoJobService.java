@@ -0,0 +1,145 @@
+package com.avaliadados.service.avaliacao;
+
+import com.avaliadados.model.dto.ProcessamentoJobResponse;
+import com.avaliadados.service.factory.AvaliacaoProcessor;
+import com.avaliadados.service.factory.AvaliacaoServiceFactory;
+import com.avaliadados.service.factory.ProgressoProcessamento;
+import com.avaliadados.service.utils.Fingerprint;
+import com.avaliadados.service.utils.WorkbookReader;
+import com.avaliadados.service.utils.WorkbookSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Processamento de planilhas em segundo plano.
+ *
+ * A abertura do arquivo e a deteccao do layout continuam na requisicao, para que arquivos
+ * invalidos sejam recusados na hora; o restante (leitura, match, API externa, pontuacao e
+ * gravacao) roda no executor limitado {@code processamentoExecutor}. Um arquivo identico ao ultimo
+ * processado no projeto (ver {@link ImportacaoService}) gera um job ja concluido. Os jobs ficam em memoria
+ * e sao descartados depois de {@code avaliacao.jobs.ttl-minutos} da conclusao.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProcessamentoJobService {
+
+    private final AvaliacaoServiceFactory factory;
+    private final ImportacaoService importacaoService;
+    private final ThreadPoolTaskExecutor processamentoExecutor;
+    private final Map<String, ProcessamentoJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${avaliacao.jobs.ttl-minutos:60}")
+    private long ttlMinutos;
+
+    public ProcessamentoJobResponse iniciar(MultipartFile arquivo, String projectId) throws IOException {
+        removerExpirados();
+
+        String sha256 = Fingerprint.sha256(arquivo);
+        Optional<List<String>> anterior = importacaoService.resultadoAnterior(projectId, sha256);
+        if (anterior.isPresent()) {
+            ProcessamentoJob job = registrar(projectId);
+            job.concluir(anterior.get());
+            return job.toResponse();
+        }
+
+        WorkbookSource planilha = WorkbookReader.open(arquivo);
+        try {
+            AvaliacaoProcessor processor = factory.getProcessor(planilha);
+            ProcessamentoJob job = registrar(projectId);
+            try {
+                processamentoExecutor.execute(() -> executar(job, processor, planilha, sha256));
+            } catch (TaskRejectedException ex) {
+                jobs.remove(job.getId());
+                throw ex;
+            }
+            return job.toResponse();
+        } catch (IOException | RuntimeException ex) {
+            fechar(planilha);
+            throw ex;
+        }
+    }
+
+    /**
+     * Processa a planilha na propria requisicao, sob a mesma trava por projeto dos jobs: um envio
+     * sincrono e um job do mesmo projeto nunca rodam ao mesmo tempo. O registro do envio sincrono
+     * sai da lista assim que ele termina.
+     *
+     * @throws IllegalStateException quando ja ha um processamento em andamento no projeto
+     */
+    public List<String> processar(MultipartFile arquivo, String projectId) throws IOException {
+        removerExpirados();
+
+        String sha256 = Fingerprint.sha256(arquivo);
+        Optional<List<String>> anterior = importacaoService.resultadoAnterior(projectId, sha256);
+        if (anterior.isPresent()) return anterior.get();
+
+        ProcessamentoJob job = registrar(projectId);
+        try (WorkbookSource planilha = WorkbookReader.open(arquivo)) {
+            AvaliacaoProcessor processor = factory.getProcessor(planilha);
+            List<String> naoEncontrados = processor.processarPlanilha(planilha, projectId, ProgressoProcessamento.NENHUM);
+            importacaoService.registrar(projectId, processor.tipo(), sha256, naoEncontrados);
+            return naoEncontrados;
+        } finally {
+            jobs.remove(job.getId());
+        }
+    }
+
+    public Optional<ProcessamentoJobResponse> buscar(String jobId) {
+        removerExpirados();
+        return Optional.ofNullable(jobs.get(jobId)).map(ProcessamentoJob::toResponse);
+    }
+
+    private synchronized ProcessamentoJob registrar(String projectId) {
+        boolean emAndamento = jobs.values().stream()
+                .anyMatch(j -> j.getProjectId().equals(projectId) && !j.isFinalizado());
+        if (emAndamento) {
+            throw new IllegalStateException("Já existe um processamento em andamento para este projeto.");
+        }
+        ProcessamentoJob job = new ProcessamentoJob(UUID.randomUUID().toString(), projectId);
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    private void executar(ProcessamentoJob job, AvaliacaoProcessor processor, WorkbookSource planilha, String sha256) {
+        job.iniciar();
+        try (planilha) {
+            List<String> naoEncontrados = processor.processarPlanilha(planilha, job.getProjectId(), job);
+            importacaoService.registrar(job.getProjectId(), processor.tipo(), sha256, naoEncontrados);
+            job.concluir(naoEncontrados);
+        } catch (IOException ex) {
+            log.error("Erro ao ler a planilha do job {} (projeto {})", job.getId(), job.getProjectId(), ex);
+            job.falhar("Não foi possível ler o arquivo enviado.");
+        } catch (Exception ex) {
+            log.error("Erro no job {} (projeto {})", job.getId(), job.getProjectId(), ex);
+            job.falhar(ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName());
+        }
+    }
+
+    private void removerExpirados() {
+        Instant limite = Instant.now().minus(Duration.ofMinutes(ttlMinutos));
+        jobs.values().removeIf(j -> j.isFinalizado() && j.getFinalizadoEm().isBefore(limite));
+    }
+
+    private void fechar(WorkbookSource planilha) {
+        try {
+            planilha.close();
+        } catch (IOException ex) {
+            log.warn("Falha ao liberar a planilha enviada", ex);
+        }
+    }
+}
@@ -1,12 +1,15 @@
 package com.avaliadados.service.factory;
 
-import org.springframework.web.multipart.MultipartFile;
+import com.avaliadados.model.enums.TypeAv;
+import com.avaliadados.service.utils.WorkbookSource;
 
 import java.io.IOException;
 import java.util.List;
 
 public interface AvaliacaoProcessor {
-     List<String> processarPlanilha(MultipartFile arquivo, String projectId) throws IOException;
+     List<String> processarPlanilha(WorkbookSource planilha, String projectId, ProgressoProcessamento progresso) throws IOException;
+
+     TypeAv tipo();
 }
 
 
@@ -0,0 +1,28 @@
+package com.avaliadados.service.factory;
+
+import com.avaliadados.model.enums.FaseProcessamento;
+
+/**
+ * Recebe o andamento de um {@link AvaliacaoProcessor}. As chamadas vem da thread que processa
+ * a planilha; implementacoes devem ser baratas e thread-safe.
+ */
+public interface ProgressoProcessamento {
+
+    ProgressoProcessamento NENHUM = new ProgressoProcessamento() {
+    };
+
+    default void fase(FaseProcessamento fase) {
+    }
+
+    /**
+     * Uma linha de dados da planilha foi lida (cabecalhos nao contam).
+     */
+    default void linhaLida() {
+    }
+
+    /**
+     * Quantidade de colaboradores do projeto que serao pontuados.
+     */
+    default void colaboradores(int total) {
+    }
+}
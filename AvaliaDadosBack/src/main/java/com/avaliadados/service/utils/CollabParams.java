@@ -2,6 +2,7 @@ package com.avaliadados.service.utils;
 
 import com.avaliadados.model.ProjectCollaborator;
 import com.avaliadados.model.ProjetoEntity;
+import com.avaliadados.model.ScoreBreakdown;
 import com.avaliadados.model.api.ApiOptions;
 import com.avaliadados.model.api.ApiRequest;
 import com.avaliadados.model.api.DateRange;
@@ -21,8 +22,6 @@ import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
-import static com.avaliadados.service.utils.SheetsUtils.parseTimeToSeconds;
-
 @Slf4j
 @RequiredArgsConstructor
 @Service
@@ -31,7 +30,49 @@ public class CollabParams {
     private final ApiColabData apiColabData;
 
     public int setParams(ProjectCollaborator pc, ProjetoEntity project, int removeds, int removedsLider, long duration, long criticos, long pausaMensal, long saidaVtr) {
-        if (pc.getRole() == null) return 0;
+        if (!registrarEntradas(pc, removeds, removedsLider, duration, criticos, pausaMensal, saidaVtr)) return 0;
+
+        ScoreBreakdown pontos = scoringService.calculateCollaboratorScore(
+                pc.getRole(),
+                pc.getMedicoRole().name(),
+                duration,
+                criticos,
+                removeds,
+                removedsLider,
+                pausaMensal,
+                pc.getRole().equals("FROTA") ? saidaVtr : 0L,
+                project
+        );
+        pc.setPoints(pontos);
+
+
+        return pontos.getTotal();
+
+    }
+
+    /**
+     * Pontua de uma vez os colaboradores de um envio de planilha, com as regras do projeto
+     * buscadas uma unica vez (ver {@link ScoringService#pontuarLote}). As entradas de cada um ja
+     * devem ter sido gravadas por {@link #registrarEntradas}; grava {@code points} e
+     * {@code pontuacao}.
+     */
+    public void pontuarLote(List<ProjectCollaborator> pcs, ProjetoEntity project) {
+        if (pcs.isEmpty()) return;
+        ScoreBreakdown[] pontos = scoringService.pontuarLote(pcs, scoringService.regras(project));
+        for (int i = 0; i < pontos.length; i++) {
+            pcs.get(i).setPoints(pontos[i]);
+            pcs.get(i).setPontuacao(pontos[i].getTotal());
+        }
+    }
+
+    /**
+     * Grava as entradas da pontuacao nos parametros da secao do colaborador, como
+     * {@link #setParams} faz, sem pontuar.
+     *
+     * @return falso quando o colaborador nao tem role e nao pode ser pontuado
+     */
+    public boolean registrarEntradas(ProjectCollaborator pc, int removeds, int removedsLider, long duration, long criticos, long pausaMensal, long saidaVtr) {
+        if (pc.getRole() == null) return false;
 
         NestedScoringParameters params = Optional.ofNullable(pc.getParametros())
                 .orElseGet(() -> {
@@ -57,43 +98,14 @@ public class CollabParams {
         pc.setRemovidos(removeds);
 
 
-        var pausas = section.getPausas().getLast().getDuration();
-        var regulacao = section.getRegulacao().getLast().getDuration();
-        var removidos = section.getRemovidos().getLast().getQuantity();
-        var removidosLider = section.getRemovidosLider().getLast().getQuantity();
-        Long saida = 0L;
-        var regulacaoLider = section.getRegulacaoLider().getLast().getDuration();
-
-        if (pc.getMedicoRole() != null) {
-            if (pc.getMedicoRole().equals(MedicoRole.LIDER)) {
-                section.setRegulacaoLider((List.of(ScoringRule.builder().duration(criticos).build())));
-                regulacaoLider = section.getRegulacaoLider().getLast().getDuration();
-            }
-        }
         if (pc.getRole().equals("FROTA")) {
             section.setSaidaVtr((List.of(ScoringRule.builder().duration(saidaVtr).build())));
-            saida = section.getSaidaVtr().getLast().getDuration();
         }
 
         if (pc.getMedicoRole() == null) {
             pc.setMedicoRole(MedicoRole.NENHUM);
         }
-        Map<String, Integer> pontos = scoringService.calculateCollaboratorScore(
-                pc.getRole(),
-                pc.getMedicoRole().name(),
-                regulacao,
-                regulacaoLider,
-                removidos,
-                removidosLider,
-                pausas,
-                saida,
-                project.getParameters()
-        );
-        pc.setPoints(pontos);
-
-
-        return pontos.get("Total");
-
+        return true;
     }
 
     public void setDataFromApi(Map<ProjectCollaborator, String> pcToIdMap, ProjetoEntity projeto) {
@@ -133,7 +145,7 @@ public class CollabParams {
                         .filter(h -> !"CONFERENCE".equals(h.getType()))
                         .filter(h -> h.getDuration() != null && !h.getDuration().isBlank())
                         .filter(h -> !h.getDuration().trim().startsWith("-"))
-                        .mapToLong(item -> parseTimeToSeconds(item.getDuration()))
+                        .mapToLong(item -> DurationParser.parseSeconds(item.getDuration()))
                         .filter(s -> s > 0)
                         .sum();
 
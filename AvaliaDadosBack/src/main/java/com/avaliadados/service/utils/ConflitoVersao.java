@@ -0,0 +1,39 @@
+package com.avaliadados.service.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.function.Supplier;
+
+/**
+ * Repete um passo de leitura, recalculo e gravacao de um projeto ou dos seus colaboradores
+ * quando a gravacao encontra uma versao mais nova (outro upload ou edicao gravou no meio). Cada
+ * tentativa precisa reler o que vai gravar; depois de {@link #TENTATIVAS} conflitos seguidos o
+ * erro sobe.
+ */
+@Slf4j
+public final class ConflitoVersao {
+
+    public static final int TENTATIVAS = 3;
+
+    private ConflitoVersao() {
+    }
+
+    public static <T> T repetir(String descricao, Supplier<T> passo) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return passo.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (tentativa >= TENTATIVAS) throw e;
+                log.info("Conflito de versao em {} (tentativa {} de {}), recalculando", descricao, tentativa, TENTATIVAS);
+            }
+        }
+    }
+
+    public static void repetir(String descricao, Runnable passo) {
+        repetir(descricao, () -> {
+            passo.run();
+            return null;
+        });
+    }
+}
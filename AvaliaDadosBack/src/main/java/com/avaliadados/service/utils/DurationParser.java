@@ -0,0 +1,179 @@
+package com.avaliadados.service.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Conversao de duracoes em texto para segundos, usada na leitura das planilhas e no
+ * historico de pausas da API.
+ *
+ * Formatos aceitos (sem diferenciar maiusculas e ignorando espacos nas pontas):
+ * <ul>
+ *     <li>{@code "N d HH:MM[:SS]"} e {@code "Nd.HH:MM[:SS]"} - dias seguidos de horario;</li>
+ *     <li>{@code "HH:MM[:SS]"}, opcionalmente com fracao de segundo e {@code AM/PM};</li>
+ *     <li>numeros: valores entre 0 e 1 sao fracao de dia (formato de hora do Excel), os
+ *     demais ja estao em segundos e sao apenas arredondados.</li>
+ * </ul>
+ * O texto e percorrido uma unica vez, sem regex nem objetos temporarios (exceto no numero
+ * com casas decimais). Valores vazios ou "-" valem 0; qualquer outro texto invalido vale 0
+ * e gera um aviso no log.
+ */
+@Slf4j
+public final class DurationParser {
+
+    private static final long SEGUNDOS_DIA = 86_400L;
+    private static final int MAX_DIGITOS = 18;
+    private static final long INVALIDO = Long.MIN_VALUE;
+
+    private DurationParser() {
+    }
+
+    public static long parseSeconds(String text) {
+        if (text == null) return 0L;
+
+        int start = 0;
+        int end = text.length();
+        while (start < end && isSpace(text.charAt(start))) start++;
+        while (end > start && isSpace(text.charAt(end - 1))) end--;
+        if (start == end) return 0L;
+        if (end - start == 1 && text.charAt(start) == '-') return 0L;
+
+        long seconds = scan(text, start, end);
+        if (seconds == INVALIDO) {
+            log.warn("Não foi possível converter '{}', retornando 0", text);
+            return 0L;
+        }
+        return seconds;
+    }
+
+    private static long scan(String s, int start, int end) {
+        int p = start;
+        boolean negativo = s.charAt(p) == '-';
+        if (negativo) p++;
+
+        int inicioDigitos = p;
+        long primeiro = 0;
+        while (p < end && isDigit(s.charAt(p))) {
+            if (p - inicioDigitos == MAX_DIGITOS) return INVALIDO;
+            primeiro = primeiro * 10 + (s.charAt(p) - '0');
+            p++;
+        }
+        if (p == inicioDigitos) return INVALIDO;
+        if (p == end) return negativo ? -primeiro : primeiro;
+
+        char c = s.charAt(p);
+        if (c == '.' || c == 'e' || c == 'E') return decimal(s, start, end);
+        if (negativo) return INVALIDO;
+
+        long dias = 0;
+        long horas;
+        int q = skipSpaces(s, p, end);
+        if (q < end && (s.charAt(q) == 'd' || s.charAt(q) == 'D')) {
+            dias = primeiro;
+            q = skipSpaces(s, q + 1, end);
+            if (q < end && s.charAt(q) == '.') q = skipSpaces(s, q + 1, end);
+
+            int inicioHoras = q;
+            horas = 0;
+            while (q < end && isDigit(s.charAt(q))) {
+                if (q - inicioHoras == MAX_DIGITOS) return INVALIDO;
+                horas = horas * 10 + (s.charAt(q) - '0');
+                q++;
+            }
+            if (q == inicioHoras) return INVALIDO;
+        } else if (c == ':') {
+            horas = primeiro;
+            q = p;
+        } else {
+            return INVALIDO;
+        }
+
+        if (q >= end || s.charAt(q) != ':') return INVALIDO;
+        long minutos = 0;
+        int inicio = ++q;
+        while (q < end && isDigit(s.charAt(q)) && q - inicio < 2) {
+            minutos = minutos * 10 + (s.charAt(q) - '0');
+            q++;
+        }
+        if (q == inicio) return INVALIDO;
+
+        long segundos = 0;
+        if (q < end && s.charAt(q) == ':') {
+            inicio = ++q;
+            while (q < end && isDigit(s.charAt(q)) && q - inicio < 2) {
+                segundos = segundos * 10 + (s.charAt(q) - '0');
+                q++;
+            }
+            if (q == inicio) return INVALIDO;
+
+            if (q < end && (s.charAt(q) == '.' || s.charAt(q) == ',')) {
+                inicio = ++q;
+                while (q < end && isDigit(s.charAt(q))) q++;
+                if (q == inicio) return INVALIDO;
+            }
+        }
+
+        q = skipSpaces(s, q, end);
+        if (q < end && dias == 0 && end - q == 2 && (s.charAt(q + 1) == 'm' || s.charAt(q + 1) == 'M')) {
+            char marcador = s.charAt(q);
+            if (marcador == 'a' || marcador == 'A') {
+                horas = horas % 12;
+            } else if (marcador == 'p' || marcador == 'P') {
+                horas = horas % 12 + 12;
+            } else {
+                return INVALIDO;
+            }
+            q = end;
+        }
+        if (q != end) return INVALIDO;
+
+        return dias * SEGUNDOS_DIA + horas * 3600 + minutos * 60 + segundos;
+    }
+
+    /**
+     * Numero com casas decimais e/ou expoente ({@code -?\d+(\.\d+)?([eE][-+]?\d+)?}).
+     */
+    private static long decimal(String s, int start, int end) {
+        int p = start;
+        if (s.charAt(p) == '-') p++;
+        while (p < end && isDigit(s.charAt(p))) p++;
+        if (p < end && s.charAt(p) == '.') {
+            int inicio = ++p;
+            while (p < end && isDigit(s.charAt(p))) p++;
+            if (p == inicio) return INVALIDO;
+        }
+        if (p < end && (s.charAt(p) == 'e' || s.charAt(p) == 'E')) {
+            p++;
+            if (p < end && (s.charAt(p) == '-' || s.charAt(p) == '+')) p++;
+            int inicio = p;
+            while (p < end && isDigit(s.charAt(p))) p++;
+            if (p == inicio) return INVALIDO;
+        }
+        if (p != end) return INVALIDO;
+
+        double value = Double.parseDouble(s.substring(start, end));
+        return fromNumber(value);
+    }
+
+    /**
+     * Regra dos valores numericos: entre 0 e 1 e fracao de dia; caso contrario ja sao segundos.
+     */
+    public static long fromNumber(double value) {
+        if (value > 0 && value < 1) {
+            return Math.round(value * SEGUNDOS_DIA);
+        }
+        return Math.round(value);
+    }
+
+    private static int skipSpaces(String s, int p, int end) {
+        while (p < end && isSpace(s.charAt(p))) p++;
+        return p;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isSpace(char c) {
+        return c <= ' ' || Character.isWhitespace(c);
+    }
+}
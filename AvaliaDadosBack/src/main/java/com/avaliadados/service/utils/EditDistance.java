@@ -0,0 +1,137 @@
+package com.avaliadados.service.utils;
+
+/**
+ * Distancia de Levenshtein para nomes, pelo algoritmo bit-paralelo de Myers (formulacao de
+ * Hyyro): com o padrao de ate 64 caracteres, cada caractere do outro texto e processado com
+ * algumas operacoes sobre um {@code long}, sem alocar nada.
+ *
+ * Os nomes normalizados sao ASCII e bem menores que 64 caracteres; padroes fora disso caem na
+ * programacao dinamica classica, com o mesmo resultado.
+ */
+public final class EditDistance {
+
+    private static final int MAX_BITS = 64;
+    private static final int ALFABETO = 128;
+
+    private static final ThreadLocal<long[]> TABELA = ThreadLocal.withInitial(() -> new long[ALFABETO]);
+
+    private EditDistance() {
+    }
+
+    public static int distance(String a, String b) {
+        String padrao = a.length() <= b.length() ? a : b;
+        String texto = padrao == a ? b : a;
+        if (padrao.isEmpty()) return texto.length();
+        if (padrao.length() > MAX_BITS || !isAscii(padrao)) return dinamica(padrao, texto, Integer.MAX_VALUE);
+
+        long[] peq = TABELA.get();
+        preencher(peq, padrao);
+        try {
+            return myers(peq, padrao.length(), texto, Integer.MAX_VALUE);
+        } finally {
+            for (int i = 0; i < padrao.length(); i++) peq[padrao.charAt(i)] = 0;
+        }
+    }
+
+    /**
+     * Padrao pre-processado de um nome, para comparar o mesmo nome com muitos outros.
+     */
+    public static final class Pattern {
+
+        private final String texto;
+        private final long[] peq;
+
+        private Pattern(String texto, long[] peq) {
+            this.texto = texto;
+            this.peq = peq;
+        }
+
+        public static Pattern of(String texto) {
+            if (texto.isEmpty() || texto.length() > MAX_BITS || !isAscii(texto)) return new Pattern(texto, null);
+            long[] peq = new long[ALFABETO];
+            preencher(peq, texto);
+            return new Pattern(texto, peq);
+        }
+
+        public int length() {
+            return texto.length();
+        }
+
+        public int distance(String outro) {
+            return distance(outro, Integer.MAX_VALUE);
+        }
+
+        /**
+         * @return a distancia, ou -1 quando ela passa de {@code max} (a comparacao para assim que
+         * isso fica garantido)
+         */
+        public int distance(String outro, int max) {
+            if (Math.abs(texto.length() - outro.length()) > max) return -1;
+            if (texto.isEmpty()) return outro.length();
+            if (peq == null) return dinamica(texto, outro, max);
+            return myers(peq, texto.length(), outro, max);
+        }
+    }
+
+    private static void preencher(long[] peq, String padrao) {
+        for (int i = 0; i < padrao.length(); i++) {
+            peq[padrao.charAt(i)] |= 1L << i;
+        }
+    }
+
+    private static int myers(long[] peq, int m, String texto, int max) {
+        long pv = -1L;
+        long mv = 0L;
+        long ultimo = 1L << (m - 1);
+        int score = m;
+        int n = texto.length();
+
+        for (int j = 0; j < n; j++) {
+            char c = texto.charAt(j);
+            long eq = c < ALFABETO ? peq[c] : 0L;
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+            if ((ph & ultimo) != 0) score++;
+            else if ((mh & ultimo) != 0) score--;
+            ph = (ph << 1) | 1L;
+            mh <<= 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+
+            if (score - (n - j - 1) > max) return -1;
+        }
+        return score > max ? -1 : score;
+    }
+
+    private static int dinamica(String a, String b, int max) {
+        int[] anterior = new int[a.length() + 1];
+        int[] atual = new int[a.length() + 1];
+        for (int i = 0; i <= a.length(); i++) anterior[i] = i;
+
+        for (int j = 1; j <= b.length(); j++) {
+            atual[0] = j;
+            int menor = atual[0];
+            char c = b.charAt(j - 1);
+            for (int i = 1; i <= a.length(); i++) {
+                int custo = a.charAt(i - 1) == c ? 0 : 1;
+                atual[i] = Math.min(Math.min(atual[i - 1] + 1, anterior[i] + 1), anterior[i - 1] + custo);
+                menor = Math.min(menor, atual[i]);
+            }
+            if (menor > max) return -1;
+            int[] troca = anterior;
+            anterior = atual;
+            atual = troca;
+        }
+        int distancia = anterior[a.length()];
+        return distancia > max ? -1 : distancia;
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= ALFABETO) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,45 @@
+package com.avaliadados.service.utils;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 em hexadecimal, usado para reconhecer arquivos reenviados e linhas que nao mudaram.
+ */
+public final class Fingerprint {
+
+    private static final int BUFFER = 64 * 1024;
+
+    private Fingerprint() {
+    }
+
+    public static String sha256(MultipartFile arquivo) throws IOException {
+        MessageDigest digest = novoDigest();
+        byte[] buffer = new byte[BUFFER];
+        try (InputStream in = arquivo.getInputStream()) {
+            int lidos;
+            while ((lidos = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, lidos);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public static String sha256(String texto) {
+        return HexFormat.of().formatHex(novoDigest().digest(texto.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest novoDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponivel", e);
+        }
+    }
+}
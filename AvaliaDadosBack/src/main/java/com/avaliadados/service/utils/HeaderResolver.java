@@ -0,0 +1,208 @@
+package com.avaliadados.service.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolve as colunas logicas de uma planilha a partir das linhas de cabecalho.
+ *
+ * Cada celula de cabecalho e normalizada uma unica vez e comparada, em uma so passada, com os
+ * aliases ja normalizados de todas as colunas do perfil. Os perfis {@link #TARM_FROTA} e
+ * {@link #MEDICO} reproduzem as regras que antes ficavam espalhadas pelos processadores.
+ */
+public final class HeaderResolver {
+
+    public enum Coluna {
+        COLABORADOR,
+        TARM,
+        FROTA,
+        PLANTAO,
+        CRITICOS,
+        TEMPO_ANALITICO
+    }
+
+    /**
+     * Como escolher entre varias colunas que casam com a mesma coluna logica.
+     */
+    private enum Escolha {
+        /** O alias de maior prioridade vence; no mesmo alias, igualdade exata vence "contem". */
+        MELHOR_ALIAS,
+        PRIMEIRA,
+        ULTIMA
+    }
+
+    /**
+     * Planilha TARM/FROTA: cabecalho em uma unica linha, aliases em ordem de prioridade.
+     */
+    public static final HeaderResolver TARM_FROTA = new HeaderResolver()
+            .coluna(Coluna.COLABORADOR, Escolha.MELHOR_ALIAS, List.of(), "COLABORADOR", "MEDICO REGULADOR")
+            .coluna(Coluna.TARM, Escolha.MELHOR_ALIAS, List.of(),
+                    "TEMPO REGULAÇÃO TARM", "TEMPO REGULACAO", "TEMPO MEDIO REGULACAO MEDICA", "TEMPO MEDIO REGULACAO")
+            .coluna(Coluna.FROTA, Escolha.MELHOR_ALIAS, List.of(),
+                    "OP. FROTA REGULAÇÃO MÉDICA", "TIH", "TEMPO MEDIO TIH", "TEMPO MEDIO CRITICOS", "CRITICOS")
+            .coluna(Coluna.PLANTAO, Escolha.MELHOR_ALIAS, List.of(),
+                    "TOTAL DE PLANTÃO DE 12 HORAS", "TOTAL DE PLANTAO", "PLANTAO 12 HORAS", "PLANTAO");
+
+    /**
+     * Planilha de medicos: cabecalho nas linhas 0 e 1, combinadas por coluna. Aliases com
+     * varias palavras exigem todas elas (em qualquer ordem).
+     */
+    public static final HeaderResolver MEDICO = new HeaderResolver()
+            .coluna(Coluna.COLABORADOR, Escolha.PRIMEIRA, List.of(), "MEDICO+REGULADOR")
+            .coluna(Coluna.PLANTAO, Escolha.PRIMEIRA, List.of(), "PLANTAO+12", "PLANTAO+HORA")
+            .coluna(Coluna.TARM, Escolha.PRIMEIRA, List.of("ANALITICO", "TIH"), "REGULACAO")
+            .coluna(Coluna.CRITICOS, Escolha.ULTIMA, List.of(), "CRITICO")
+            .coluna(Coluna.TEMPO_ANALITICO, Escolha.ULTIMA, List.of("MEDICO"), "ANALITICO", "TIH");
+
+    private final List<Regra> regras = new ArrayList<>();
+
+    private HeaderResolver() {
+    }
+
+    private HeaderResolver coluna(Coluna coluna, Escolha escolha, List<String> proibidos, String... aliases) {
+        List<String[]> termos = new ArrayList<>();
+        List<String> frases = new ArrayList<>();
+        for (String alias : aliases) {
+            String[] partes = Arrays.stream(alias.split("\\+")).map(HeaderResolver::normalize).toArray(String[]::new);
+            String frase = String.join(" ", partes);
+            if (!frases.contains(frase)) {
+                frases.add(frase);
+                termos.add(partes);
+            }
+        }
+        regras.add(new Regra(coluna, escolha,
+                termos.toArray(String[][]::new),
+                frases.toArray(String[]::new),
+                proibidos.stream().map(HeaderResolver::normalize).toArray(String[]::new)));
+        return this;
+    }
+
+    /**
+     * Resolve as colunas usando as linhas de cabecalho informadas (linhas nulas sao ignoradas).
+     * Quando ha mais de uma linha, os textos de cada coluna sao combinados com espaco.
+     */
+    public Colunas resolver(WorkbookRow... linhas) {
+        int maxCols = 0;
+        for (WorkbookRow linha : linhas) {
+            if (linha != null) maxCols = Math.max(maxCols, linha.getLastCellNum());
+        }
+
+        int[] melhorRank = new int[regras.size()];
+        Arrays.fill(melhorRank, Integer.MAX_VALUE);
+        Colunas colunas = new Colunas();
+
+        StringBuilder combinado = new StringBuilder();
+        for (int col = 0; col < maxCols; col++) {
+            combinado.setLength(0);
+            for (WorkbookRow linha : linhas) {
+                String texto = normalize(linha != null ? linha.getText(col) : null);
+                if (texto.isEmpty()) continue;
+                if (!combinado.isEmpty()) combinado.append(' ');
+                combinado.append(texto);
+            }
+            if (combinado.isEmpty()) continue;
+
+            String cabecalho = combinado.toString();
+            for (int r = 0; r < regras.size(); r++) {
+                Regra regra = regras.get(r);
+                int rank = regra.rank(cabecalho);
+                if (rank < 0) continue;
+
+                boolean substitui = switch (regra.escolha) {
+                    case MELHOR_ALIAS -> rank <= melhorRank[r];
+                    case PRIMEIRA -> melhorRank[r] == Integer.MAX_VALUE;
+                    case ULTIMA -> true;
+                };
+                if (substitui) {
+                    melhorRank[r] = rank;
+                    colunas.indices.put(regra.coluna, col);
+                }
+            }
+        }
+        return colunas;
+    }
+
+    /**
+     * Normalizacao de cabecalho: remove acentos, passa para maiusculas, troca tudo que nao e
+     * letra/digito por espaco e colapsa os espacos. Ex.: "Op. Frota  Regulação" -> "OP FROTA REGULACAO".
+     */
+    public static String normalize(String s) {
+        if (s == null || s.isEmpty()) return "";
+
+        String decomposto = s;
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 127) {
+                decomposto = Normalizer.normalize(s, Normalizer.Form.NFD);
+                break;
+            }
+        }
+
+        StringBuilder sb = new StringBuilder(decomposto.length());
+        boolean espacoPendente = false;
+        for (int i = 0; i < decomposto.length(); i++) {
+            char c = decomposto.charAt(i);
+            if (c > 127) continue;
+            if (c >= 'a' && c <= 'z') c = (char) (c - ('a' - 'A'));
+            if ((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+                if (espacoPendente && !sb.isEmpty()) sb.append(' ');
+                espacoPendente = false;
+                sb.append(c);
+            } else {
+                espacoPendente = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Resultado da resolucao: indice de cada coluna logica encontrada.
+     */
+    public static final class Colunas {
+
+        private final Map<Coluna, Integer> indices = new EnumMap<>(Coluna.class);
+
+        private Colunas() {
+        }
+
+        public Integer get(Coluna coluna) {
+            return indices.get(coluna);
+        }
+
+        public boolean has(Coluna coluna) {
+            return indices.containsKey(coluna);
+        }
+
+        @Override
+        public String toString() {
+            return indices.toString();
+        }
+    }
+
+    private record Regra(Coluna coluna, Escolha escolha, String[][] termos, String[] frases, String[] proibidos) {
+
+        /**
+         * @return prioridade do casamento (menor e melhor) ou -1 quando o cabecalho nao casa
+         */
+        int rank(String cabecalho) {
+            for (String proibido : proibidos) {
+                if (cabecalho.contains(proibido)) return -1;
+            }
+            for (int a = 0; a < termos.length; a++) {
+                if (cabecalho.equals(frases[a])) return a * 2;
+                if (contemTodos(cabecalho, termos[a])) return a * 2 + 1;
+            }
+            return -1;
+        }
+
+        private static boolean contemTodos(String cabecalho, String[] partes) {
+            for (String parte : partes) {
+                if (!cabecalho.contains(parte)) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.avaliadados.service.utils;
+
+import org.apache.commons.text.StringEscapeUtils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Leitura em passagem unica do "falso Excel" (HTML/MHTML com extensao .xls).
+ *
+ * O arquivo e tokenizado direto do stream: cada {@code <tr>} vira uma linha entregue ao
+ * {@link WorkbookRowHandler}, sem montar String do documento inteiro nem Workbook intermediario.
+ * Corpos MHTML em quoted-printable sao decodificados no mesmo passo.
+ */
+final class HtmlTableReader {
+
+    static final String SHEET_NAME = "Planilha";
+
+    private static final int HEAD_SIZE = 64 * 1024;
+    private static final int MAX_ENTITY_LENGTH = 32;
+    private static final char NBSP = '\u00A0';
+    private static final char ZERO_WIDTH_SPACE = '\u200B';
+
+    private final Reader in;
+    private final WorkbookRowHandler handler;
+    private final WorkbookRow.Builder row = new WorkbookRow.Builder();
+    private final StringBuilder cell = new StringBuilder();
+    private final StringBuilder token = new StringBuilder();
+
+    private int pushedBack = -1;
+    private boolean markupFound;
+    private boolean sheetStarted;
+    private boolean sheetSkipped;
+    private boolean inRow;
+    private boolean inCell;
+    private boolean pendingSpace;
+    private int cellCount;
+    private int rowNum;
+
+    private HtmlTableReader(Reader in, WorkbookRowHandler handler) {
+        this.in = in;
+        this.handler = handler;
+    }
+
+    /**
+     * @return {@code false} quando o conteudo nao tem nenhuma marcacao HTML de tabela
+     */
+    static boolean read(InputStream input, WorkbookRowHandler handler) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(input, HEAD_SIZE);
+        InputStream body = isQuotedPrintable(buffered) ? new QuotedPrintableInputStream(buffered) : buffered;
+        Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8);
+
+        HtmlTableReader tokenizer = new HtmlTableReader(reader, handler);
+        try {
+            tokenizer.tokenize();
+            tokenizer.closeRow();
+            tokenizer.endSheet();
+        } catch (StopReading ignored) {
+            // o consumidor pediu para parar a leitura da aba
+        }
+        return tokenizer.markupFound;
+    }
+
+    private static boolean isQuotedPrintable(BufferedInputStream in) throws IOException {
+        in.mark(HEAD_SIZE);
+        byte[] head = in.readNBytes(HEAD_SIZE);
+        in.reset();
+        String text = new String(head, StandardCharsets.ISO_8859_1).toLowerCase(Locale.ROOT);
+        return text.contains("content-transfer-encoding: quoted-printable");
+    }
+
+    private void tokenize() throws IOException {
+        int c;
+        while ((c = next()) != -1) {
+            if (c == '<') {
+                tag();
+            } else if (inCell) {
+                if (c == '&') entity();
+                else append((char) c);
+            }
+        }
+    }
+
+    private void endSheet() {
+        if (!markupFound || sheetSkipped) return;
+        if (startSheet()) handler.endSheet(0);
+    }
+
+    private void tag() throws IOException {
+        int c = next();
+        if (c == '!') {
+            declaration();
+            return;
+        }
+        boolean closing = c == '/';
+        if (closing) c = next();
+        if (!isLetter(c)) {
+            if (inCell) {
+                append('<');
+                if (closing) append('/');
+            }
+            if (c != -1) pushedBack = c;
+            return;
+        }
+
+        token.setLength(0);
+        while (c != -1 && (isLetter(c) || Character.isDigit(c))) {
+            token.append(Character.toLowerCase((char) c));
+            c = next();
+        }
+        while (c != -1 && c != '>') {
+            c = next();
+        }
+        String name = token.toString();
+
+        switch (name) {
+            case "html", "table" -> markupFound = true;
+            case "tr" -> {
+                markupFound = true;
+                if (closing) closeRow();
+                else openRow();
+            }
+            case "td", "th" -> {
+                markupFound = true;
+                if (closing) closeCell();
+                else openCell();
+            }
+            case "script", "style" -> {
+                if (!closing) skipRawText(name);
+            }
+            default -> {
+                if (inCell) space();
+            }
+        }
+    }
+
+    private void declaration() throws IOException {
+        int c = next();
+        if (c == '-') {
+            c = next();
+            if (c == '-') {
+                skipComment();
+                return;
+            }
+        }
+        token.setLength(0);
+        while (c != -1 && c != '>') {
+            if (token.length() < 16) token.append(Character.toLowerCase((char) c));
+            c = next();
+        }
+        if (token.toString().startsWith("doctype html")) markupFound = true;
+    }
+
+    private void skipComment() throws IOException {
+        int dashes = 0;
+        int c;
+        while ((c = next()) != -1) {
+            if (c == '>' && dashes >= 2) break;
+            dashes = c == '-' ? dashes + 1 : 0;
+        }
+        if (inCell) space();
+    }
+
+    private void skipRawText(String name) throws IOException {
+        String end = "</" + name;
+        int matched = 0;
+        int c;
+        while ((c = next()) != -1) {
+            char lower = Character.toLowerCase((char) c);
+            if (lower == end.charAt(matched)) {
+                if (++matched == end.length()) break;
+            } else {
+                matched = lower == '<' ? 1 : 0;
+            }
+        }
+        while (c != -1 && c != '>') {
+            c = next();
+        }
+    }
+
+    private void entity() throws IOException {
+        token.setLength(0);
+        token.append('&');
+        int c = next();
+        while (c != -1 && c != ';' && token.length() < MAX_ENTITY_LENGTH && (isLetter(c) || Character.isDigit(c) || c == '#')) {
+            token.append((char) c);
+            c = next();
+        }
+        if (c == ';') {
+            token.append(';');
+            String decoded = StringEscapeUtils.unescapeHtml4(token.toString());
+            for (int i = 0; i < decoded.length(); i++) append(decoded.charAt(i));
+            return;
+        }
+        for (int i = 0; i < token.length(); i++) append(token.charAt(i));
+        if (c != -1) pushedBack = c;
+    }
+
+    private void openRow() {
+        closeRow();
+        inRow = true;
+        cellCount = 0;
+        row.reset();
+    }
+
+    private void closeRow() {
+        closeCell();
+        if (!inRow) return;
+        inRow = false;
+        if (cellCount == 0) return;
+        if (!startSheet()) return;
+        if (!handler.row(row.build(0, rowNum++))) {
+            handler.endSheet(0);
+            sheetSkipped = true;
+            throw new StopReading();
+        }
+    }
+
+    private void openCell() {
+        closeCell();
+        if (!inRow) openRow();
+        inCell = true;
+        pendingSpace = false;
+        cell.setLength(0);
+    }
+
+    private void closeCell() {
+        if (!inCell) return;
+        inCell = false;
+        row.text(cellCount++, cell.toString());
+    }
+
+    private boolean startSheet() {
+        if (sheetSkipped) return false;
+        if (!sheetStarted) {
+            sheetStarted = true;
+            if (!handler.startSheet(0, SHEET_NAME)) {
+                sheetSkipped = true;
+                throw new StopReading();
+            }
+        }
+        return true;
+    }
+
+    private void append(char c) {
+        if (isSpace(c)) {
+            space();
+            return;
+        }
+        if (pendingSpace && cell.length() > 0) cell.append(' ');
+        pendingSpace = false;
+        cell.append(c);
+    }
+
+    private void space() {
+        pendingSpace = true;
+    }
+
+    private int next() throws IOException {
+        if (pushedBack != -1) {
+            int c = pushedBack;
+            pushedBack = -1;
+            return c;
+        }
+        return in.read();
+    }
+
+    private static boolean isLetter(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B'
+                || c == NBSP || c == ZERO_WIDTH_SPACE;
+    }
+
+    private static final class StopReading extends RuntimeException {
+        private StopReading() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Decodifica quoted-printable (RFC 2045) enquanto le: "=XX" vira o byte XX e "=" no fim da
+     * linha e quebra suave. Sequencias invalidas passam sem alteracao.
+     */
+    private static final class QuotedPrintableInputStream extends FilterInputStream {
+
+        private final PushbackInputStream source;
+
+        private QuotedPrintableInputStream(InputStream in) {
+            this(new PushbackInputStream(in, 2));
+        }
+
+        private QuotedPrintableInputStream(PushbackInputStream source) {
+            super(source);
+            this.source = source;
+        }
+
+        @Override
+        public int read() throws IOException {
+            while (true) {
+                int b = source.read();
+                if (b != '=') return b;
+
+                int first = source.read();
+                if (first == '\n') continue;
+                if (first == '\r') {
+                    int second = source.read();
+                    if (second != '\n' && second != -1) source.unread(second);
+                    continue;
+                }
+                int second = first == -1 ? -1 : source.read();
+                int hi = Character.digit(first, 16);
+                int lo = Character.digit(second, 16);
+                if (hi >= 0 && lo >= 0) return (hi << 4) | lo;
+
+                if (second != -1) source.unread(second);
+                if (first != -1) source.unread(first);
+                return b;
+            }
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            int count = 0;
+            while (count < len) {
+                int b = read();
+                if (b == -1) break;
+                buffer[off + count++] = (byte) b;
+                if (source.available() == 0) break;
+            }
+            return count == 0 ? -1 : count;
+        }
+    }
+}
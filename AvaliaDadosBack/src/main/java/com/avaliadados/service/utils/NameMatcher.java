@@ -0,0 +1,333 @@
+package com.avaliadados.service.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Casamento aproximado de nomes contra um cadastro, sem comparar cada consulta com todos os
+ * nomes.
+ *
+ * Na construcao cada nome (ja normalizado, ver {@link SheetsUtils#normalizeName(String)}) e
+ * quebrado em trigramas, com um espaco nas pontas, e indexado. Uma consulta so considera os
+ * nomes que compartilham trigramas com ela, descarta pelo tamanho e pela quantidade de
+ * trigramas em comum os que nao podem atingir a similaridade pedida e so entao calcula o
+ * Levenshtein ({@link EditDistance}, com o padrao de cada nome do cadastro pre-calculado),
+ * limitado a distancia maxima ainda util. A similaridade e a mesma de
+ * {@link SheetsUtils#similarity(String, String)}.
+ *
+ * Cada edicao altera no maximo 3 trigramas, entao nomes com similaridade acima de ~0.67 sempre
+ * compartilham trigramas e nunca sao perdidos; abaixo disso (faixa das sugestoes) pares sem
+ * nenhum trigrama em comum nao sao avaliados. Nao e thread-safe: o indice e montado e usado
+ * dentro de um processamento.
+ */
+public final class NameMatcher<T> {
+
+    private static final int Q = 3;
+    private static final int MAX_SUGESTOES = 8;
+    private static final double EPSILON = 1e-9;
+
+    private final List<T> itens;
+    private final String[] nomes;
+    private final EditDistance.Pattern[] padroes;
+    private final Map<String, int[]> postings;
+
+    private final int[] comuns;
+    private final int[] tocados;
+    private int totalTocados;
+
+    private NameMatcher(List<T> itens, String[] nomes, EditDistance.Pattern[] padroes, Map<String, int[]> postings) {
+        this.itens = itens;
+        this.nomes = nomes;
+        this.padroes = padroes;
+        this.postings = postings;
+        this.comuns = new int[nomes.length];
+        this.tocados = new int[nomes.length];
+    }
+
+    /**
+     * @param nome nome ja normalizado de cada item; itens com nome {@code null} ficam no indice
+     *             (mantendo as posicoes) mas nunca casam
+     */
+    public static <T> NameMatcher<T> of(Collection<T> itens, Function<T, String> nome) {
+        List<T> lista = new ArrayList<>(itens);
+        String[] nomes = new String[lista.size()];
+        EditDistance.Pattern[] padroes = new EditDistance.Pattern[lista.size()];
+        Map<String, IntList> listas = new HashMap<>();
+        for (int i = 0; i < nomes.length; i++) {
+            String normalizado = nome.apply(lista.get(i));
+            if (normalizado == null || normalizado.isEmpty()) continue;
+            nomes[i] = normalizado;
+            padroes[i] = EditDistance.Pattern.of(normalizado);
+            for (Map.Entry<String, Integer> gram : trigramas(normalizado).entrySet()) {
+                IntList ids = listas.computeIfAbsent(gram.getKey(), k -> new IntList());
+                for (int c = 0; c < gram.getValue(); c++) ids.add(i);
+            }
+        }
+        Map<String, int[]> postings = new HashMap<>(listas.size() * 2);
+        listas.forEach((gram, ids) -> postings.put(gram, ids.toArray()));
+        return new NameMatcher<>(lista, nomes, padroes, postings);
+    }
+
+    public int size() {
+        return itens.size();
+    }
+
+    public T item(int i) {
+        return itens.get(i);
+    }
+
+    /**
+     * Nome normalizado do item, ou {@code null} quando o item nao tem nome.
+     */
+    public String nome(int i) {
+        return nomes[i];
+    }
+
+    /**
+     * Todos os itens com nome igual ao consultado ou similaridade maior que o minimo, na ordem
+     * do cadastro.
+     */
+    public List<T> buscar(String nomeNormalizado, double similaridadeMinima) {
+        if (nomeNormalizado == null || nomeNormalizado.isEmpty()) return List.of();
+
+        List<T> encontrados = new ArrayList<>();
+        int candidatos = candidatos(nomeNormalizado);
+        for (int k = 0; k < candidatos; k++) {
+            int i = tocados[k];
+            String nome = nomes[i];
+            if (nome.equals(nomeNormalizado)) {
+                encontrados.add(itens.get(i));
+                continue;
+            }
+            double score = similaridade(nomeNormalizado, padroes[i], comuns[i], similaridadeMinima);
+            if (score > similaridadeMinima) encontrados.add(itens.get(i));
+        }
+        limpar(candidatos);
+        return encontrados;
+    }
+
+    /**
+     * Casa uma lista de consultas com o cadastro em uma unica passada, guardando nos dois
+     * sentidos o melhor par: o melhor item de cada consulta e a melhor consulta de cada item.
+     * Empates ficam com o primeiro da lista (consulta ou item).
+     *
+     * Todo par que pode chegar a {@code minimoCasamento} e avaliado, entao o casamento e exato.
+     * Abaixo disso (sugestoes, a partir de {@code minimoSugestao}) so sao avaliados, para cada
+     * consulta e para cada item, os {@value #MAX_SUGESTOES} candidatos com mais trigramas em comum.
+     */
+    public Pareamento parear(List<String> consultasNormalizadas, double minimoCasamento, double minimoSugestao) {
+        Pareamento pareamento = new Pareamento(consultasNormalizadas, padroes, minimoSugestao);
+        Sugestoes[] sugestoesDoItem = new Sugestoes[nomes.length];
+        Sugestoes sugestoesDaConsulta = new Sugestoes();
+
+        for (int q = 0; q < consultasNormalizadas.size(); q++) {
+            String consulta = consultasNormalizadas.get(q);
+            if (consulta == null || consulta.isEmpty()) continue;
+
+            sugestoesDaConsulta.limpar();
+            int candidatos = candidatos(consulta);
+            for (int k = 0; k < candidatos; k++) {
+                int i = tocados[k];
+                if (similaridadeMaxima(consulta.length(), nomes[i].length(), comuns[i]) >= minimoCasamento) {
+                    pareamento.avaliar(q, i, comuns[i]);
+                } else {
+                    sugestoesDaConsulta.oferecer(comuns[i], i);
+                    if (sugestoesDoItem[i] == null) sugestoesDoItem[i] = new Sugestoes();
+                    sugestoesDoItem[i].oferecer(comuns[i], q);
+                }
+            }
+            for (int k = 0; k < sugestoesDaConsulta.tamanho; k++) {
+                int i = sugestoesDaConsulta.ids[k];
+                pareamento.avaliar(q, i, comuns[i]);
+            }
+            limpar(candidatos);
+        }
+
+        for (int i = 0; i < sugestoesDoItem.length; i++) {
+            Sugestoes sugestoes = sugestoesDoItem[i];
+            if (sugestoes == null) continue;
+            for (int k = 0; k < sugestoes.tamanho; k++) {
+                pareamento.avaliar(sugestoes.ids[k], i, sugestoes.comuns[k]);
+            }
+        }
+        return pareamento;
+    }
+
+    /**
+     * Conta os trigramas em comum (com multiplicidade) de cada item com a consulta.
+     *
+     * @return quantidade de candidatos, em {@code tocados[0..n)} e em ordem crescente
+     */
+    private int candidatos(String consulta) {
+        totalTocados = 0;
+        for (Map.Entry<String, Integer> gram : trigramas(consulta).entrySet()) {
+            int[] ids = postings.get(gram.getKey());
+            if (ids == null) continue;
+            int naConsulta = gram.getValue();
+            int p = 0;
+            while (p < ids.length) {
+                int id = ids[p];
+                int noItem = 0;
+                while (p < ids.length && ids[p] == id) {
+                    noItem++;
+                    p++;
+                }
+                if (comuns[id] == 0) tocados[totalTocados++] = id;
+                comuns[id] += Math.min(naConsulta, noItem);
+            }
+        }
+        Arrays.sort(tocados, 0, totalTocados);
+        return totalTocados;
+    }
+
+    private void limpar(int candidatos) {
+        for (int k = 0; k < candidatos; k++) comuns[tocados[k]] = 0;
+    }
+
+    /**
+     * Limite superior da similaridade dado pelo tamanho dos nomes e pelos trigramas em comum
+     * (cada edicao altera no maximo {@value #Q} trigramas).
+     */
+    private static double similaridadeMaxima(int tamanhoA, int tamanhoB, int trigramasComuns) {
+        int maior = Math.max(tamanhoA, tamanhoB);
+        return 1.0 - (double) distanciaMinima(tamanhoA, tamanhoB, trigramasComuns) / maior;
+    }
+
+    private static int distanciaMinima(int tamanhoA, int tamanhoB, int trigramasComuns) {
+        int maior = Math.max(tamanhoA, tamanhoB);
+        return Math.max(Math.abs(tamanhoA - tamanhoB), (maior - trigramasComuns + Q - 1) / Q);
+    }
+
+    /**
+     * Similaridade entre os nomes, ou -1 quando ela nao pode chegar a {@code limite}. Os filtros
+     * de tamanho e de trigramas evitam o Levenshtein; quando ele roda, para assim que a distancia
+     * passa do maximo util.
+     */
+    private static double similaridade(String consulta, EditDistance.Pattern nome, int trigramasComuns, double limite) {
+        int maior = Math.max(consulta.length(), nome.length());
+        int maxDistancia = (int) Math.floor((1.0 - limite) * maior + EPSILON);
+        if (distanciaMinima(consulta.length(), nome.length(), trigramasComuns) > maxDistancia) return -1;
+
+        int distancia = nome.distance(consulta, maxDistancia);
+        if (distancia < 0) return -1;
+        return 1.0 - (double) distancia / maior;
+    }
+
+    private static Map<String, Integer> trigramas(String nome) {
+        String s = " " + nome + " ";
+        Map<String, Integer> grams = new HashMap<>(s.length() * 2);
+        for (int i = 0; i + Q <= s.length(); i++) {
+            grams.merge(s.substring(i, i + Q), 1, Integer::sum);
+        }
+        return grams;
+    }
+
+    /**
+     * Resultado de {@link #parear(List, double, double)}; posicoes referem-se a lista de
+     * consultas e ao cadastro. Sem par, a posicao e -1 e a similaridade e 0.
+     */
+    public static final class Pareamento {
+
+        private final List<String> consultas;
+        private final EditDistance.Pattern[] padroes;
+        private final double minimo;
+        private final int[] itemDaConsulta;
+        private final double[] scoreDaConsulta;
+        private final int[] consultaDoItem;
+        private final double[] scoreDoItem;
+
+        private Pareamento(List<String> consultas, EditDistance.Pattern[] padroes, double minimo) {
+            this.consultas = consultas;
+            this.padroes = padroes;
+            this.minimo = minimo;
+            itemDaConsulta = new int[consultas.size()];
+            scoreDaConsulta = new double[consultas.size()];
+            consultaDoItem = new int[padroes.length];
+            scoreDoItem = new double[padroes.length];
+            Arrays.fill(itemDaConsulta, -1);
+            Arrays.fill(consultaDoItem, -1);
+        }
+
+        private void avaliar(int q, int i, int trigramasComuns) {
+            double limite = Math.max(minimo, Math.min(scoreDaConsulta[q], scoreDoItem[i]));
+            double score = similaridade(consultas.get(q), padroes[i], trigramasComuns, limite);
+            if (score < minimo) return;
+
+            if (melhora(score, i, scoreDaConsulta[q], itemDaConsulta[q])) {
+                scoreDaConsulta[q] = score;
+                itemDaConsulta[q] = i;
+            }
+            if (melhora(score, q, scoreDoItem[i], consultaDoItem[i])) {
+                scoreDoItem[i] = score;
+                consultaDoItem[i] = q;
+            }
+        }
+
+        private boolean melhora(double score, int posicao, double melhorScore, int melhorPosicao) {
+            return melhorPosicao < 0 || score > melhorScore || (score == melhorScore && posicao < melhorPosicao);
+        }
+
+        public int itemDaConsulta(int consulta) {
+            return itemDaConsulta[consulta];
+        }
+
+        public double scoreDaConsulta(int consulta) {
+            return scoreDaConsulta[consulta];
+        }
+
+        public int consultaDoItem(int item) {
+            return consultaDoItem[item];
+        }
+
+        public double scoreDoItem(int item) {
+            return scoreDoItem[item];
+        }
+    }
+
+    /**
+     * Os {@value #MAX_SUGESTOES} candidatos com mais trigramas em comum (empate fica com o
+     * primeiro oferecido).
+     */
+    private static final class Sugestoes {
+
+        private final int[] ids = new int[MAX_SUGESTOES];
+        private final int[] comuns = new int[MAX_SUGESTOES];
+        private int tamanho;
+
+        void limpar() {
+            tamanho = 0;
+        }
+
+        void oferecer(int trigramasComuns, int id) {
+            int pos = tamanho;
+            while (pos > 0 && comuns[pos - 1] < trigramasComuns) pos--;
+            if (pos == MAX_SUGESTOES) return;
+            int fim = Math.min(tamanho, MAX_SUGESTOES - 1);
+            System.arraycopy(ids, pos, ids, pos + 1, fim - pos);
+            System.arraycopy(comuns, pos, comuns, pos + 1, fim - pos);
+            ids[pos] = id;
+            comuns[pos] = trigramasComuns;
+            if (tamanho < MAX_SUGESTOES) tamanho++;
+        }
+    }
+
+    private static final class IntList {
+
+        private int[] valores = new int[4];
+        private int tamanho;
+
+        void add(int valor) {
+            if (tamanho == valores.length) valores = Arrays.copyOf(valores, tamanho * 2);
+            valores[tamanho++] = valor;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(valores, tamanho);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.avaliadados.service.utils;
+
+import com.avaliadados.model.enums.MedicoRole;
+import com.avaliadados.model.params.NestedScoringParameters;
+import com.avaliadados.model.params.ScoringRule;
+import com.avaliadados.model.params.ScoringSectionParams;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * {@link NestedScoringParameters} prontos para pontuar: cada lista de regras vira um vetor de
+ * limites em ordem crescente, com a maior pontuacao alcancavel a partir de cada posicao. Uma
+ * consulta e uma busca binaria, sem montar chave nem alocar nada.
+ */
+public final class RegrasCompiladas {
+
+    private final Secao colab;
+    private final Secao tarm;
+    private final Secao frota;
+    private final Secao medico;
+
+    private RegrasCompiladas(NestedScoringParameters params) {
+        this.colab = Secao.de(params.getColab());
+        this.tarm = Secao.de(params.getTarm());
+        this.frota = Secao.de(params.getFrota());
+        this.medico = Secao.de(params.getMedico());
+    }
+
+    public static RegrasCompiladas compilar(NestedScoringParameters params) {
+        return new RegrasCompiladas(params);
+    }
+
+    public Secao colab() {
+        return colab;
+    }
+
+    public Secao tarm() {
+        return tarm;
+    }
+
+    public Secao frota() {
+        return frota;
+    }
+
+    public Secao medico() {
+        return medico;
+    }
+
+    /**
+     * Quem pode mudar de pontuacao ao trocar {@code anteriores} por estas regras. Compara as
+     * listas ja compiladas, entao reordenar regras ou mexer em listas que o role nao usa nao
+     * conta; {@code anteriores} nulo afeta todos.
+     */
+    public Diferenca diferenca(RegrasCompiladas anteriores) {
+        if (anteriores == null) return new Diferenca(true, true, true, true, true);
+        return new Diferenca(
+                mudou(anteriores.colab, colab, Secao::pausas),
+                mudou(anteriores.tarm, tarm, Secao::removidos) || mudou(anteriores.tarm, tarm, Secao::regulacao),
+                mudou(anteriores.frota, frota, Secao::regulacao) || mudou(anteriores.frota, frota, Secao::saidaVtr)
+                        || mudou(anteriores.frota, frota, Secao::pausas),
+                mudou(anteriores.medico, medico, Secao::regulacaoLider) || mudou(anteriores.medico, medico, Secao::removidosLider),
+                mudou(anteriores.medico, medico, Secao::regulacao) || mudou(anteriores.medico, medico, Secao::removidos));
+    }
+
+    private static boolean mudou(Secao antes, Secao depois, Function<Secao, Faixas> lista) {
+        Faixas a = antes != null ? lista.apply(antes) : Faixas.AUSENTE;
+        Faixas b = depois != null ? lista.apply(depois) : Faixas.AUSENTE;
+        return !a.equals(b);
+    }
+
+    /**
+     * Resultado de {@link #diferenca}: {@code todos} quando a pausa geral (colab) mudou, senao
+     * por role e, nos medicos, por {@code medicoRole}.
+     */
+    public record Diferenca(boolean todos, boolean tarm, boolean frota, boolean lider, boolean regulador) {
+
+        public boolean nenhuma() {
+            return !todos && !tarm && !frota && !lider && !regulador;
+        }
+
+        /**
+         * Roles que precisam ser relidos; vazio com {@code todos}, que pede o projeto inteiro.
+         */
+        public Set<String> roles() {
+            Set<String> roles = new HashSet<>();
+            if (tarm) roles.add("TARM");
+            if (frota) roles.add("FROTA");
+            if (lider || regulador) roles.add("MEDICO");
+            return roles;
+        }
+
+        public boolean afeta(String role, MedicoRole medicoRole) {
+            if (todos) return true;
+            if (role == null) return false;
+            return switch (role) {
+                case "TARM" -> tarm;
+                case "FROTA" -> frota;
+                case "MEDICO" -> medicoRole == MedicoRole.LIDER ? lider
+                        : medicoRole == MedicoRole.REGULADOR && regulador;
+                default -> false;
+            };
+        }
+    }
+
+    /**
+     * Uma {@link ScoringSectionParams} compilada; {@code null} quando a secao nao existe.
+     */
+    public record Secao(Faixas removidos, Faixas removidosLider, Faixas regulacao,
+                        Faixas pausas, Faixas saidaVtr, Faixas regulacaoLider) {
+
+        static Secao de(ScoringSectionParams params) {
+            if (params == null) return null;
+            return new Secao(
+                    Faixas.de(params.getRemovidos(), ScoringRule::getQuantity),
+                    Faixas.de(params.getRemovidosLider(), ScoringRule::getQuantity),
+                    Faixas.de(params.getRegulacao(), ScoringRule::getDuration),
+                    Faixas.de(params.getPausas(), ScoringRule::getDuration),
+                    Faixas.de(params.getSaidaVtr(), ScoringRule::getDuration),
+                    Faixas.de(params.getRegulacaoLider(), ScoringRule::getDuration));
+        }
+    }
+
+    /**
+     * Uma lista de regras "ate {@code limite}, vale {@code points}". Vale a maior pontuacao entre
+     * as regras cujo limite alcanca o valor, ou 0 se nenhuma alcanca. Regras sem limite ou sem
+     * pontos sao ignoradas, mas contam para {@link #presente()}, como na lista original.
+     */
+    public static final class Faixas {
+
+        private static final Faixas AUSENTE = new Faixas(false, new long[0], new int[0]);
+
+        private final boolean presente;
+        private final long[] limites;
+        private final int[] melhorAPartir;
+
+        private Faixas(boolean presente, long[] limites, int[] melhorAPartir) {
+            this.presente = presente;
+            this.limites = limites;
+            this.melhorAPartir = melhorAPartir;
+        }
+
+        static Faixas de(List<ScoringRule> regras, Function<ScoringRule, ? extends Number> limite) {
+            if (regras == null || regras.isEmpty()) return AUSENTE;
+
+            ScoringRule[] validas = regras.stream()
+                    .filter(r -> r != null && limite.apply(r) != null && r.getPoints() != null)
+                    .sorted(Comparator.comparingLong(r -> limite.apply(r).longValue()))
+                    .toArray(ScoringRule[]::new);
+
+            long[] limites = new long[validas.length];
+            int[] melhor = new int[validas.length];
+            for (int i = validas.length - 1; i >= 0; i--) {
+                limites[i] = limite.apply(validas[i]).longValue();
+                int pontos = validas[i].getPoints();
+                melhor[i] = i == validas.length - 1 ? pontos : Math.max(pontos, melhor[i + 1]);
+            }
+            return new Faixas(true, limites, melhor);
+        }
+
+        /**
+         * Se a lista original tinha alguma regra; e o que decide se o item aparece no detalhamento.
+         */
+        public boolean presente() {
+            return presente;
+        }
+
+        public int pontos(long valor) {
+            int inicio = 0;
+            int fim = limites.length;
+            while (inicio < fim) {
+                int meio = (inicio + fim) >>> 1;
+                if (limites[meio] < valor) inicio = meio + 1;
+                else fim = meio;
+            }
+            return inicio < limites.length ? melhorAPartir[inicio] : 0;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Faixas outra && presente == outra.presente
+                    && Arrays.equals(limites, outra.limites) && Arrays.equals(melhorAPartir, outra.melhorAPartir);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(limites) + Arrays.hashCode(melhorAPartir) + (presente ? 1 : 0);
+        }
+
+        @Override
+        public String toString() {
+            return "Faixas" + Arrays.toString(limites) + "->" + Arrays.toString(melhorAPartir);
+        }
+    }
+}
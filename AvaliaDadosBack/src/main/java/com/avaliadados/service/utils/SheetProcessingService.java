@@ -1,15 +1,19 @@
 package com.avaliadados.service.utils;
 
+import com.avaliadados.model.NomeAlias;
 import com.avaliadados.model.ProjectCollaborator;
 import com.avaliadados.model.SheetRow;
 import com.avaliadados.model.enums.MedicoRole;
+import com.avaliadados.model.enums.OrigemAlias;
 import com.avaliadados.model.params.NestedScoringParameters;
 import com.avaliadados.model.params.ScoringRule;
 import com.avaliadados.model.params.ScoringSectionParams;
 import com.avaliadados.repository.SheetRowRepository;
+import com.avaliadados.service.avaliacao.NomeAliasService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -23,6 +27,7 @@ import static com.avaliadados.service.utils.SheetsUtils.*;
 public class SheetProcessingService {
 
     private final SheetRowRepository rowRepository;
+    private final NomeAliasService nomeAliasService;
 
     public Optional<SheetRow> findAndAssociateSheetRow(String collaboratorId, String projectId, String collaboratorName) {
         SheetRow sheetColab = rowRepository.findByCollaboratorIdAndProjectId(collaboratorId, projectId);
@@ -30,43 +35,52 @@ public class SheetProcessingService {
             return Optional.of(sheetColab);
         }
 
-        String nomeNormalizado = normalizeName(collaboratorName);
         List<SheetRow> todasLinhas = rowRepository.findByProjectId(projectId);
 
-        return todasLinhas.stream().filter(row -> {
-            String nomeMedico = Stream.of(
-                            row.getData().get("MEDICO.REGULADOR"),
-                            row.getData().get("MEDICO.LIDER"),
-                            row.getData().get("COLABORADOR")
-
-                    )
-                    .filter(Objects::nonNull)
-                    .findFirst()
-                    .orElse(null);
-
-            return nomeMedico != null &&
-                    similarity(normalizeName(nomeMedico), nomeNormalizado) >= 0.85;
-        }).findFirst().map(row -> {
-            row.setCollaboratorId(collaboratorId);
-            rowRepository.save(row);
-            return row;
-        });
+        List<NomeAlias> aliases = nomeAliasService.doColaborador(collaboratorId);
+        Optional<SheetRow> porAlias = todasLinhas.stream()
+                .filter(row -> aliases.stream().anyMatch(alias -> alias.getOrigem() != OrigemAlias.SUGERIDO
+                        && alias.getType() == row.getType()
+                        && alias.getChave().equals(NomeAliasService.chave(row.getNome()))))
+                .findFirst();
+        if (porAlias.isPresent()) {
+            return porAlias.map(row -> associar(row, collaboratorId));
+        }
+
+        String nomeNormalizado = normalizeName(collaboratorName);
+        List<SheetRow> proximas = new ArrayList<>();
+        SheetRow casada = null;
+        for (SheetRow row : todasLinhas) {
+            if (row.getNome() == null) continue;
+            double score = similarity(normalizeName(row.getNome()), nomeNormalizado);
+            if (score > NomeAliasService.LIMITE_AMBIGUIDADE) proximas.add(row);
+            if (casada == null && score >= 0.85) casada = row;
+        }
+        if (casada == null) return Optional.empty();
+
+        boolean inequivoco = proximas.stream().map(row -> normalizeName(row.getNome())).distinct().count() == 1;
+        nomeAliasService.registrar(casada.getType(), casada.getNome(), collaboratorId, inequivoco);
+        return Optional.of(associar(casada, collaboratorId));
     }
 
-    public void populateFromSheet(ProjectCollaborator pc, SheetRow sheetRow) {
-        Map<String, String> data = sheetRow.getData();
+    private SheetRow associar(SheetRow row, String collaboratorId) {
+        row.setCollaboratorId(collaboratorId);
+        rowRepository.save(row);
+        return row;
+    }
 
+    public void populateFromSheet(ProjectCollaborator pc, SheetRow sheetRow) {
         switch (pc.getRole()) {
             case "TARM":
-                processTarm(pc, data);
+                processTarm(pc, sheetRow);
                 break;
 
             case "FROTA":
-                processFrota(pc, data);
+                processFrota(pc, sheetRow);
                 break;
 
             case "MEDICO":
-                processMedico(pc, data);
+                processMedico(pc, sheetRow);
                 break;
 
             default:
@@ -74,55 +88,45 @@ public class SheetProcessingService {
         }
     }
 
-    private void processTarm(ProjectCollaborator pc, Map<String, String> data) {
-        String tempo = data.get("TEMPO.REGULACAO.TARM");
-        String plantao = data.get("PLANTAO");
-        int plantaotemp = (int) Math.round(Double.parseDouble(Objects.equals(plantao, "00:00:00") ? "0" : plantao));
+    private void processTarm(ProjectCollaborator pc, SheetRow row) {
+        Long segundos = row.getTarmSegundos();
 
-        if (tempo != null) {
-            Long segundos = parseTimeToSeconds(tempo);
+        if (segundos != null) {
             pc.setDurationSeconds(segundos);
             pc.setParametros(NestedScoringParameters.builder().tarm(ScoringSectionParams.builder().regulacao(List.of(ScoringRule.builder().duration(segundos).build())).build()).build());
-            pc.setPlantao(plantaotemp);
+            pc.setPlantao(plantao(row));
         }
     }
 
-    private void processFrota(ProjectCollaborator pc, Map<String, String> data) {
-        String tempo = data.get("TEMPO.REGULACAO.FROTA");
-        String plantao = data.get("PLANTAO");
-        int plantaotemp = (int) Math.round(Double.parseDouble(Objects.equals(plantao, "00:00:00") ? "0" : plantao));
+    private void processFrota(ProjectCollaborator pc, SheetRow row) {
+        Long segundos = row.getFrotaSegundos();
 
-        if (tempo != null) {
-            Long segundos = parseTimeToSeconds(tempo);
+        if (segundos != null) {
             pc.setDurationSeconds(segundos);
             pc.setParametros(NestedScoringParameters.builder().frota(ScoringSectionParams.builder().regulacao(List.of(ScoringRule.builder().duration(segundos).build())).build()).build());
-            pc.setPlantao(plantaotemp);
+            pc.setPlantao(plantao(row));
         }
     }
 
-    private void processMedico(ProjectCollaborator pc, Map<String, String> data) {
+    private void processMedico(ProjectCollaborator pc, SheetRow row) {
         MedicoRole role = Optional.ofNullable(pc.getMedicoRole()).orElse(MedicoRole.NENHUM);
-        String plantao = data.get("PLANTAO");
-        int plantaotemp = (int) Math.round(Double.parseDouble(Objects.equals(plantao, "00:00:00") ? "0" : plantao));
 
         switch (role) {
             case REGULADOR:
-                String tempoReg = data.get("TEMPO.REGULACAO");
+                Long tempoReg = row.getRegulacaoSegundos();
                 if (tempoReg != null) {
-                    Long segundos = parseTimeToSeconds(tempoReg);
-                    pc.setDurationSeconds(segundos);
-                    pc.setParametros(NestedScoringParameters.builder().medico(ScoringSectionParams.builder().regulacao(List.of(ScoringRule.builder().duration(segundos).build())).build()).build());
-                    pc.setPlantao(plantaotemp);
+                    pc.setDurationSeconds(tempoReg);
+                    pc.setParametros(NestedScoringParameters.builder().medico(ScoringSectionParams.builder().regulacao(List.of(ScoringRule.builder().duration(tempoReg).build())).build()).build());
+                    pc.setPlantao(plantao(row));
                 }
                 break;
 
             case LIDER:
-                String criticos = data.get("CRITICOS");
+                Long criticos = row.getCriticosSegundos();
                 if (criticos != null) {
-                    Long segundos = parseTimeToSeconds(criticos);
-                    pc.setDurationSeconds(segundos);
-                    pc.setParametros(NestedScoringParameters.builder().medico(ScoringSectionParams.builder().regulacaoLider(List.of(ScoringRule.builder().duration(segundos).build())).build()).build());
-                    pc.setPlantao(plantaotemp);
+                    pc.setDurationSeconds(criticos);
+                    pc.setParametros(NestedScoringParameters.builder().medico(ScoringSectionParams.builder().regulacaoLider(List.of(ScoringRule.builder().duration(criticos).build())).build()).build());
+                    pc.setPlantao(plantao(row));
                 }
                 break;
 
@@ -130,4 +134,8 @@ public class SheetProcessingService {
                 break;
         }
     }
+
+    private static int plantao(SheetRow row) {
+        return (int) Math.round(row.getPlantao() != null ? row.getPlantao() : 0);
+    }
 }
@@ -0,0 +1,81 @@
+package com.avaliadados.service.utils;
+
+import com.avaliadados.model.SheetRow;
+
+import java.util.Map;
+
+/**
+ * Conversao das linhas gravadas no formato antigo ({@code data}, tudo em texto) para os campos
+ * tipados. Na leitura o conversor do Mongo troca "_" por "." nas chaves, entao as duas grafias
+ * sao aceitas.
+ */
+public final class SheetRowLegado {
+
+    private SheetRowLegado() {
+    }
+
+    /**
+     * Preenche os campos tipados ainda vazios a partir de {@code data} e descarta o mapa.
+     *
+     * @return se a linha estava no formato antigo
+     */
+    public static boolean converter(SheetRow row) {
+        Map<String, String> data = row.getData();
+        if (data == null) return false;
+        row.setData(null);
+        if (data.isEmpty()) return true;
+
+        if (row.getNome() == null) {
+            row.setNome(primeiro(data, "MEDICO.REGULADOR", "MEDICO.LIDER", "COLABORADOR"));
+        }
+        if (row.getPlantao() == null) {
+            row.setPlantao(plantao(valor(data, "PLANTAO")));
+        }
+        if (row.getTarmSegundos() == null) {
+            row.setTarmSegundos(segundos(valor(data, "TEMPO.REGULACAO.TARM")));
+        }
+        if (row.getFrotaSegundos() == null) {
+            row.setFrotaSegundos(segundos(primeiro(data, "TEMPO.REGULACAO.FROTA", "OP FROTA REGULAO MDICA")));
+        }
+        if (row.getRegulacaoSegundos() == null) {
+            row.setRegulacaoSegundos(segundos(valor(data, "TEMPO.REGULACAO")));
+        }
+        if (row.getCriticosSegundos() == null) {
+            row.setCriticosSegundos(segundos(valor(data, "CRITICOS")));
+        }
+        if (row.getAnaliticoSegundos() == null) {
+            row.setAnaliticoSegundos(segundos(valor(data, "TEMPO.ANALITICO")));
+        }
+        return true;
+    }
+
+    private static String primeiro(Map<String, String> data, String... chaves) {
+        for (String chave : chaves) {
+            String valor = valor(data, chave);
+            if (valor != null) return valor;
+        }
+        return null;
+    }
+
+    private static String valor(Map<String, String> data, String chave) {
+        String valor = data.get(chave);
+        return valor != null ? valor : data.get(chave.replace('.', '_'));
+    }
+
+    private static Long segundos(String texto) {
+        return texto == null ? null : SheetsUtils.parseTimeToSeconds(texto);
+    }
+
+    /**
+     * Mesmas regras da leitura antiga: vazio nao tem valor e horarios ("00:00:00") valem zero.
+     */
+    private static Double plantao(String texto) {
+        if (texto == null || texto.isBlank()) return null;
+        if (texto.contains(":")) return 0d;
+        try {
+            return Double.parseDouble(texto.trim().replace(',', '.'));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
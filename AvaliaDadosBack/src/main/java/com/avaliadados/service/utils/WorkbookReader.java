@@ -1,115 +1,230 @@
 package com.avaliadados.service.utils;
 
-import org.apache.commons.text.StringEscapeUtils;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
 import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.SAXException;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Locale;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 /**
- * Ponto unico para abrir um MultipartFile como Workbook.
+ * Ponto unico para ler um MultipartFile de planilha.
  * Trata tanto arquivos Excel binarios/OOXML reais quanto o "falso Excel"
  * (HTML/MHTML exportado por sistemas web, comum em relatorios de despacho, WPS Office etc.)
  * que vem com extensao .xls mas cujo conteudo e HTML.
  *
  * Qualquer servico que precise abrir a planilha enviada pelo usuario deve
  * usar esta classe, para nao duplicar (e desalinhar) a logica de leitura.
+ *
+ * O arquivo e aberto uma vez por {@link #open(MultipartFile)} e percorrido quantas vezes for
+ * preciso pelo {@link WorkbookSource}: arquivos .xlsx e HTML sao lidos em modo streaming,
+ * sem montar o Workbook inteiro em memoria.
  */
 public final class WorkbookReader {
 
-    private static final String NBSP = " ";
-    private static final String ZERO_WIDTH_SPACE = "​";
-
     private WorkbookReader() {
     }
 
-    public static Workbook read(MultipartFile arquivo) throws IOException {
-        byte[] bytes = arquivo.getBytes();
-        String textContent = tryReadTextContent(bytes);
+    /**
+     * Abre o arquivo enviado, escolhendo o leitor pelo conteudo (e nao pela extensao).
+     *
+     * Arquivos OOXML (.xlsx) sao lidos pelo modelo de eventos do POI, usando somente os
+     * resultados de formula em cache; o heap fica estavel independente do numero de linhas.
+     * O .xls binario passa pelo Workbook completo. Qualquer outro conteudo e tratado como
+     * "falso Excel" HTML/MHTML e tokenizado direto do stream pelo {@link HtmlTableReader}.
+     */
+    public static WorkbookSource open(MultipartFile arquivo) throws IOException {
+        FileMagic magic;
+        try (InputStream in = FileMagic.prepareToCheckMagic(arquivo.getInputStream())) {
+            magic = FileMagic.valueOf(in);
+        }
 
-        if (looksLikeHtmlSpreadsheet(textContent)) {
-            return createWorkbookFromHtml(textContent);
+        if (magic == FileMagic.OOXML) {
+            return XlsxSource.open(arquivo);
         }
+        if (magic == FileMagic.OLE2) {
+            return new UsermodelSource(openWorkbook(arquivo));
+        }
+        return HtmlSource.open(arquivo);
+    }
 
-        try (ByteArrayInputStream inputStream = new ByteArrayInputStream(bytes)) {
-            return WorkbookFactory.create(inputStream);
-        } catch (Exception ex) {
-            try (ByteArrayInputStream fallbackStream = new ByteArrayInputStream(bytes)) {
-                return new HSSFWorkbook(fallbackStream);
-            } catch (Exception fallbackEx) {
-                throw new IllegalArgumentException("Nao foi possivel ler o arquivo enviado.", fallbackEx);
+    private static final class XlsxSource implements WorkbookSource {
+
+        private final Path tempFile;
+        private final OPCPackage pkg;
+        private final XSSFReader reader;
+        private final ReadOnlySharedStringsTable strings;
+        private final StylesTable styles;
+
+        private XlsxSource(Path tempFile, OPCPackage pkg) throws IOException, OpenXML4JException, SAXException {
+            this.tempFile = tempFile;
+            this.pkg = pkg;
+            this.reader = new XSSFReader(pkg);
+            this.strings = new ReadOnlySharedStringsTable(pkg, false);
+            this.styles = reader.getStylesTable();
+        }
+
+        static XlsxSource open(MultipartFile arquivo) throws IOException {
+            Path tempFile = Files.createTempFile("planilha-", ".xlsx");
+            OPCPackage pkg = null;
+            try {
+                try (InputStream in = arquivo.getInputStream()) {
+                    Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+                pkg = OPCPackage.open(tempFile.toFile(), PackageAccess.READ);
+                return new XlsxSource(tempFile, pkg);
+            } catch (OpenXML4JException | SAXException ex) {
+                discard(pkg, tempFile);
+                throw new IllegalArgumentException("Nao foi possivel ler o arquivo enviado.", ex);
+            } catch (IOException | RuntimeException ex) {
+                discard(pkg, tempFile);
+                throw ex;
             }
         }
-    }
 
-    private static String tryReadTextContent(byte[] bytes) {
-        try {
-            return new String(bytes, StandardCharsets.UTF_8);
-        } catch (Exception ex) {
-            return new String(bytes, StandardCharsets.ISO_8859_1);
+        @Override
+        public void read(WorkbookRowHandler handler) throws IOException {
+            try {
+                XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+                int sheetIndex = 0;
+                while (sheets.hasNext()) {
+                    try (InputStream sheetData = sheets.next()) {
+                        if (handler.startSheet(sheetIndex, sheets.getSheetName())) {
+                            XlsxSheetParser.parse(sheetData, sheetIndex, strings, styles, handler);
+                            handler.endSheet(sheetIndex);
+                        }
+                    }
+                    sheetIndex++;
+                }
+            } catch (OpenXML4JException | SAXException ex) {
+                throw new IllegalArgumentException("Nao foi possivel ler o arquivo enviado.", ex);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            discard(pkg, tempFile);
+        }
+
+        private static void discard(OPCPackage pkg, Path tempFile) throws IOException {
+            if (pkg != null) pkg.revert();
+            Files.deleteIfExists(tempFile);
         }
     }
 
-    private static boolean looksLikeHtmlSpreadsheet(String textContent) {
-        if (textContent == null || textContent.isBlank()) {
-            return false;
+    private static final class UsermodelSource implements WorkbookSource {
+
+        private final Workbook workbook;
+
+        private UsermodelSource(Workbook workbook) {
+            this.workbook = workbook;
+        }
+
+        @Override
+        public void read(WorkbookRowHandler handler) {
+            readWorkbook(workbook, handler);
+        }
+
+        @Override
+        public void close() throws IOException {
+            workbook.close();
         }
-        String lower = textContent.toLowerCase(Locale.ROOT);
-        return lower.contains("<html") || lower.contains("<table") || lower.contains("<tr") || lower.contains("<td") || lower.contains("<!doctype html");
     }
 
-    private static Workbook createWorkbookFromHtml(String htmlContent) {
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Planilha");
+    /**
+     * O upload e copiado para um arquivo temporario proprio, que continua valido depois que a
+     * requisicao termina (processamento assincrono).
+     */
+    private static final class HtmlSource implements WorkbookSource {
+
+        private final Path tempFile;
 
-        String cleaned = htmlContent.replaceAll("(?s)<!--.*?-->", " ");
-        Pattern rowPattern = Pattern.compile("<tr[^>]*>(.*?)</tr>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
-        Matcher rowMatcher = rowPattern.matcher(cleaned);
+        private HtmlSource(Path tempFile) {
+            this.tempFile = tempFile;
+        }
 
-        int rowIndex = 0;
-        while (rowMatcher.find()) {
-            String rowHtml = rowMatcher.group(1);
-            List<String> values = extractCellValues(rowHtml);
-            if (values.isEmpty()) {
-                continue;
+        static HtmlSource open(MultipartFile arquivo) throws IOException {
+            Path tempFile = Files.createTempFile("planilha-", ".html");
+            try (InputStream in = arquivo.getInputStream()) {
+                Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException | RuntimeException ex) {
+                Files.deleteIfExists(tempFile);
+                throw ex;
             }
+            return new HtmlSource(tempFile);
+        }
 
-            Row row = sheet.createRow(rowIndex++);
-            for (int i = 0; i < values.size(); i++) {
-                row.createCell(i).setCellValue(values.get(i));
+        @Override
+        public void read(WorkbookRowHandler handler) throws IOException {
+            try (InputStream in = Files.newInputStream(tempFile)) {
+                if (!HtmlTableReader.read(in, handler)) {
+                    throw new IllegalArgumentException("Nao foi possivel ler o arquivo enviado.");
+                }
             }
         }
 
-        return workbook;
+        @Override
+        public void close() throws IOException {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static void readWorkbook(Workbook wb, WorkbookRowHandler handler) {
+        DataFormatter formatter = new DataFormatter();
+        WorkbookRow.Builder builder = new WorkbookRow.Builder();
+
+        for (int sheetIndex = 0; sheetIndex < wb.getNumberOfSheets(); sheetIndex++) {
+            Sheet sheet = wb.getSheetAt(sheetIndex);
+            if (!handler.startSheet(sheetIndex, sheet.getSheetName())) continue;
+
+            for (Row row : sheet) {
+                builder.reset();
+                for (Cell cell : row) {
+                    addCell(builder, cell, formatter);
+                }
+                if (!handler.row(builder.build(sheetIndex, row.getRowNum()))) break;
+            }
+            handler.endSheet(sheetIndex);
+        }
     }
 
-    private static List<String> extractCellValues(String rowHtml) {
-        List<String> values = new ArrayList<>();
-        Pattern cellPattern = Pattern.compile("<(?:td|th)[^>]*>(.*?)</(?:td|th)>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
-        Matcher matcher = cellPattern.matcher(rowHtml);
-        while (matcher.find()) {
-            String rawValue = matcher.group(1);
-            String value = StringEscapeUtils.unescapeHtml4(rawValue)
-                    .replaceAll("<[^>]+>", " ")
-                    .replace(NBSP, " ")
-                    .replace(ZERO_WIDTH_SPACE, " ")
-                    .replace('\r', ' ')
-                    .replace('\n', ' ')
-                    .replace('\t', ' ');
-            values.add(value.replaceAll("\\s+", " ").trim());
-        }
-        return values;
+    private static void addCell(WorkbookRow.Builder builder, Cell cell, DataFormatter formatter) {
+        int col = cell.getColumnIndex();
+        CellType type = cell.getCellType() == CellType.FORMULA ? cell.getCachedFormulaResultType() : cell.getCellType();
+        switch (type) {
+            case NUMERIC -> {
+                double value = cell.getNumericCellValue();
+                CellStyle style = cell.getCellStyle();
+                String text = formatter.formatRawCellContents(value, style.getDataFormat(), style.getDataFormatString());
+                builder.number(col, text, value, DateUtil.isCellDateFormatted(cell));
+            }
+            case STRING -> builder.text(col, cell.getStringCellValue());
+            case BOOLEAN -> builder.text(col, cell.getBooleanCellValue() ? "TRUE" : "FALSE");
+            default -> {
+            }
+        }
+    }
+
+    private static Workbook openWorkbook(MultipartFile arquivo) throws IOException {
+        try (InputStream in = arquivo.getInputStream()) {
+            return WorkbookFactory.create(in);
+        } catch (Exception ex) {
+            try (InputStream fallbackStream = arquivo.getInputStream()) {
+                return new HSSFWorkbook(fallbackStream);
+            } catch (Exception fallbackEx) {
+                throw new IllegalArgumentException("Nao foi possivel ler o arquivo enviado.", fallbackEx);
+            }
+        }
     }
 }
@@ -0,0 +1,162 @@
+package com.avaliadados.service.utils;
+
+import java.util.Arrays;
+
+/**
+ * Linha de planilha ja lida, independente do modelo de objetos do POI.
+ *
+ * Cada celula guarda o texto formatado (como o DataFormatter exibiria) e, quando
+ * a celula e numerica (ou uma formula com resultado numerico em cache), o valor
+ * bruto. A linha e imutavel e pode ser guardada pelos consumidores sem copia.
+ */
+public final class WorkbookRow {
+
+    private static final double SEGUNDOS_DIA = 86_400d;
+
+    private final int sheetIndex;
+    private final int rowNum;
+    private final String[] texts;
+    private final double[] numbers;
+    private final boolean[] dates;
+
+    WorkbookRow(int sheetIndex, int rowNum, String[] texts, double[] numbers, boolean[] dates) {
+        this.sheetIndex = sheetIndex;
+        this.rowNum = rowNum;
+        this.texts = texts;
+        this.numbers = numbers;
+        this.dates = dates;
+    }
+
+    public int getSheetIndex() {
+        return sheetIndex;
+    }
+
+    public int getRowNum() {
+        return rowNum;
+    }
+
+    /**
+     * Quantidade de colunas ocupadas (indice da ultima celula + 1), como {@code Row.getLastCellNum()}.
+     */
+    public int getLastCellNum() {
+        return texts.length;
+    }
+
+    /**
+     * Texto formatado da celula, ou {@code null} quando a celula nao existe.
+     */
+    public String getText(int idx) {
+        return idx >= 0 && idx < texts.length ? texts[idx] : null;
+    }
+
+    public boolean isNumeric(int idx) {
+        return idx >= 0 && idx < numbers.length && !Double.isNaN(numbers[idx]);
+    }
+
+    /**
+     * Valor numerico bruto da celula, ou {@code NaN} quando a celula nao e numerica.
+     */
+    public double getNumber(int idx) {
+        return idx >= 0 && idx < numbers.length ? numbers[idx] : Double.NaN;
+    }
+
+    public boolean isDateFormatted(int idx) {
+        return idx >= 0 && idx < dates.length && dates[idx];
+    }
+
+    /**
+     * Duracao da celula em segundos, lida direto do tipo da celula: hora/data do Excel e
+     * fracao de dia (os dias inteiros sao mantidos), outros numeros seguem
+     * {@link DurationParser#fromNumber(double)} e texto passa por
+     * {@link DurationParser#parseSeconds(String)}. Celula inexistente vale 0.
+     */
+    public long seconds(int idx) {
+        if (isNumeric(idx)) {
+            double value = numbers[idx];
+            return dates[idx] ? Math.round(value * SEGUNDOS_DIA) : DurationParser.fromNumber(value);
+        }
+        return DurationParser.parseSeconds(getText(idx));
+    }
+
+    /**
+     * Duracao da celula em segundos tratando todo valor numerico como fracao de dia do Excel
+     * ({@code 1.5} vale 36 horas), regra historica das colunas de TARM e FROTA. Texto passa
+     * por {@link DurationParser#parseSeconds(String)}. Celula inexistente vale 0.
+     */
+    public long daySeconds(int idx) {
+        if (isNumeric(idx)) {
+            return Math.round(numbers[idx] * SEGUNDOS_DIA);
+        }
+        return DurationParser.parseSeconds(getText(idx));
+    }
+
+    /**
+     * Quantidade (ex.: plantoes) da celula: valor numerico bruto ou texto com virgula ou ponto
+     * decimal. Celula inexistente ou texto invalido vale 0.
+     */
+    public double count(int idx) {
+        if (isNumeric(idx)) return numbers[idx];
+        String text = getText(idx);
+        if (text == null || text.isBlank()) return 0;
+        try {
+            return Double.parseDouble(text.trim().replace(',', '.'));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Acumula as celulas de uma linha durante a leitura. Reutilizavel entre linhas.
+     */
+    static final class Builder {
+
+        private String[] texts = new String[16];
+        private double[] numbers = new double[16];
+        private boolean[] dates = new boolean[16];
+        private int size;
+
+        void reset() {
+            for (int i = 0; i < size; i++) {
+                texts[i] = null;
+            }
+            size = 0;
+        }
+
+        void text(int col, String text) {
+            set(col, text, Double.NaN, false);
+        }
+
+        void number(int col, String text, double value, boolean date) {
+            set(col, text, value, date);
+        }
+
+        WorkbookRow build(int sheetIndex, int rowNum) {
+            String[] t = new String[size];
+            double[] n = new double[size];
+            boolean[] d = new boolean[size];
+            System.arraycopy(texts, 0, t, 0, size);
+            System.arraycopy(numbers, 0, n, 0, size);
+            System.arraycopy(dates, 0, d, 0, size);
+            return new WorkbookRow(sheetIndex, rowNum, t, n, d);
+        }
+
+        private void set(int col, String text, double value, boolean date) {
+            if (col < 0) return;
+            if (col >= texts.length) {
+                int capacity = Math.max(col + 1, texts.length * 2);
+                texts = Arrays.copyOf(texts, capacity);
+                numbers = Arrays.copyOf(numbers, capacity);
+                dates = Arrays.copyOf(dates, capacity);
+            }
+            for (int i = size; i < col; i++) {
+                texts[i] = null;
+                numbers[i] = Double.NaN;
+                dates[i] = false;
+            }
+            texts[col] = text;
+            numbers[col] = value;
+            dates[col] = date;
+            if (col >= size) size = col + 1;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.avaliadados.service.utils;
+
+/**
+ * Consumidor das linhas entregues pelo {@link WorkbookReader}, uma de cada vez e na ordem do arquivo.
+ */
+public interface WorkbookRowHandler {
+
+    /**
+     * Chamado no inicio de cada aba. Retornar {@code false} pula a aba inteira.
+     */
+    default boolean startSheet(int sheetIndex, String sheetName) {
+        return true;
+    }
+
+    /**
+     * Recebe a proxima linha da aba atual. Retornar {@code false} interrompe a leitura da aba.
+     */
+    boolean row(WorkbookRow row);
+
+    /**
+     * Chamado ao fim de cada aba que foi iniciada, mesmo quando a leitura foi interrompida.
+     */
+    default void endSheet(int sheetIndex) {
+    }
+}
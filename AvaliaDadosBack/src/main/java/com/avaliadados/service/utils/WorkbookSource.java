@@ -0,0 +1,22 @@
+package com.avaliadados.service.utils;
+
+import java.io.IOException;
+
+/**
+ * Planilha enviada ja aberta pelo {@link WorkbookReader}, pronta para ser percorrida.
+ *
+ * O trabalho caro de abertura (copia para disco, shared strings e estilos do .xlsx, Workbook
+ * do .xls) e feito uma unica vez; cada chamada a {@link #read(WorkbookRowHandler)} apenas
+ * percorre as linhas de novo. Assim a deteccao do layout e o processamento compartilham a
+ * mesma leitura do arquivo.
+ */
+public interface WorkbookSource extends AutoCloseable {
+
+    /**
+     * Entrega as linhas ao handler, uma de cada vez e na ordem do arquivo.
+     */
+    void read(WorkbookRowHandler handler) throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
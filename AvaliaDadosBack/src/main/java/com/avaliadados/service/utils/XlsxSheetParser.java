@@ -0,0 +1,184 @@
+package com.avaliadados.service.utils;
+
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Leitura SAX de uma aba XLSX (sheetN.xml), linha a linha.
+ *
+ * Usa apenas os valores em cache das formulas (nada e recalculado) e mantem em memoria
+ * so a linha corrente, de modo que o consumo de heap nao depende do tamanho da aba.
+ */
+final class XlsxSheetParser extends DefaultHandler {
+
+    private final int sheetIndex;
+    private final ReadOnlySharedStringsTable strings;
+    private final StylesTable styles;
+    private final WorkbookRowHandler handler;
+    private final DataFormatter formatter = new DataFormatter();
+    private final Map<Integer, CellFormat> formats = new HashMap<>();
+
+    private final WorkbookRow.Builder row = new WorkbookRow.Builder();
+    private final StringBuilder value = new StringBuilder();
+    private int rowNum = -1;
+    private int nextCol;
+    private int cellCol;
+    private String cellType;
+    private int cellStyle;
+    private boolean inValue;
+    private boolean hasValue;
+
+    private XlsxSheetParser(int sheetIndex, ReadOnlySharedStringsTable strings, StylesTable styles, WorkbookRowHandler handler) {
+        this.sheetIndex = sheetIndex;
+        this.strings = strings;
+        this.styles = styles;
+        this.handler = handler;
+    }
+
+    static void parse(InputStream sheetData, int sheetIndex, ReadOnlySharedStringsTable strings,
+                      StylesTable styles, WorkbookRowHandler handler) throws IOException, SAXException {
+        XMLReader reader;
+        try {
+            reader = SAXHelper.newXMLReader();
+        } catch (ParserConfigurationException e) {
+            throw new SAXException(e);
+        }
+        reader.setContentHandler(new XlsxSheetParser(sheetIndex, strings, styles, handler));
+        try {
+            reader.parse(new InputSource(sheetData));
+        } catch (StopSheet ignored) {
+            // o consumidor pediu para parar a leitura desta aba
+        }
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        switch (localName) {
+            case "row" -> {
+                String r = attributes.getValue("r");
+                rowNum = r != null ? Integer.parseInt(r) - 1 : rowNum + 1;
+                nextCol = 0;
+                row.reset();
+            }
+            case "c" -> {
+                String ref = attributes.getValue("r");
+                cellCol = ref != null ? columnIndex(ref) : nextCol;
+                nextCol = cellCol + 1;
+                cellType = attributes.getValue("t");
+                String s = attributes.getValue("s");
+                cellStyle = s != null ? Integer.parseInt(s) : 0;
+                value.setLength(0);
+                hasValue = false;
+            }
+            case "v" -> {
+                inValue = true;
+                hasValue = true;
+            }
+            case "t" -> {
+                if ("inlineStr".equals(cellType)) {
+                    inValue = true;
+                    hasValue = true;
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        if (inValue) {
+            value.append(ch, start, length);
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        switch (localName) {
+            case "v", "t" -> inValue = false;
+            case "c" -> {
+                if (hasValue) endCell();
+            }
+            case "row" -> {
+                if (!handler.row(row.build(sheetIndex, rowNum))) {
+                    throw new StopSheet();
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void endCell() {
+        String raw = value.toString();
+        if (cellType == null || cellType.equals("n")) {
+            double number;
+            try {
+                number = Double.parseDouble(raw);
+            } catch (NumberFormatException e) {
+                row.text(cellCol, raw);
+                return;
+            }
+            CellFormat format = formatFor(cellStyle);
+            String text = formatter.formatRawCellContents(number, format.index, format.pattern);
+            row.number(cellCol, text, number, format.date);
+            return;
+        }
+        switch (cellType) {
+            case "s" -> row.text(cellCol, strings.getItemAt(Integer.parseInt(raw.trim())).getString());
+            case "b" -> row.text(cellCol, "1".equals(raw) ? "TRUE" : "FALSE");
+            default -> row.text(cellCol, raw);
+        }
+    }
+
+    private CellFormat formatFor(int styleIndex) {
+        return formats.computeIfAbsent(styleIndex, idx -> {
+            XSSFCellStyle style = styles != null && idx < styles.getNumCellStyles() ? styles.getStyleAt(idx) : null;
+            if (style == null) {
+                return new CellFormat(0, "General", false);
+            }
+            short formatIndex = style.getDataFormat();
+            String pattern = style.getDataFormatString();
+            if (pattern == null) {
+                pattern = BuiltinFormats.getBuiltinFormat(formatIndex);
+            }
+            return new CellFormat(formatIndex, pattern, pattern != null && DateUtil.isADateFormat(formatIndex, pattern));
+        });
+    }
+
+    private static int columnIndex(String ref) {
+        int col = 0;
+        for (int i = 0; i < ref.length(); i++) {
+            char c = ref.charAt(i);
+            if (c < 'A' || c > 'Z') break;
+            col = col * 26 + (c - 'A' + 1);
+        }
+        return col - 1;
+    }
+
+    private record CellFormat(int index, String pattern, boolean date) {
+    }
+
+    private static final class StopSheet extends SAXException {
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.avaliadados.model;
+
+import com.avaliadados.config.MongoConverter;
+import com.avaliadados.model.ScoreBreakdown.Componente;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreBreakdownTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MappingMongoConverter mongoConverter = mongoConverter();
+
+    private static ScoreBreakdown pontos() {
+        ScoreBreakdown pontos = new ScoreBreakdown();
+        pontos.registrar(Componente.REGULACAO, 5);
+        pontos.registrar(Componente.PAUSAS, 0);
+        pontos.registrar(Componente.REMOVIDOS_LIDER, -2);
+        pontos.setTotal(8);
+        return pontos;
+    }
+
+    @Test
+    void formatoDoMongo() {
+        ScoreBreakdown pontos = pontos();
+        int presentes = 1 << Componente.REGULACAO.ordinal() | 1 << Componente.PAUSAS.ordinal()
+                | 1 << Componente.REMOVIDOS_LIDER.ordinal();
+
+        assertEquals(List.of(presentes, 8, 5, 0, -2), pontos.paraMongo());
+        assertEquals(pontos, ScoreBreakdown.doMongo(pontos.paraMongo()));
+        assertEquals(new ScoreBreakdown(), ScoreBreakdown.doMongo(List.of()));
+    }
+
+    @Test
+    void itemPresenteComZeroNaoEIgualAItemAusente() {
+        ScoreBreakdown semPausas = new ScoreBreakdown();
+        semPausas.registrar(Componente.REGULACAO, 5);
+        semPausas.registrar(Componente.REMOVIDOS_LIDER, -2);
+        semPausas.setTotal(8);
+
+        assertFalse(semPausas.equals(pontos()));
+        assertTrue(pontos().presente(Componente.PAUSAS));
+        assertFalse(semPausas.presente(Componente.PAUSAS));
+        assertEquals(0, semPausas.get(Componente.PAUSAS));
+    }
+
+    @Test
+    void idaEVoltaPeloConversorDoMongo() {
+        ProjectCollaborator pc = new ProjectCollaborator();
+        pc.setNome("Maria");
+        pc.setPoints(pontos());
+
+        Document documento = new Document();
+        mongoConverter.write(pc, documento);
+        assertEquals(pontos().paraMongo(), documento.get("points"));
+
+        ProjectCollaborator lido = mongoConverter.read(ProjectCollaborator.class, documento);
+        assertEquals(pontos(), lido.getPoints());
+    }
+
+    @Test
+    void documentoAntigoComMapa() {
+        Document documento = new Document("nome", "Maria")
+                .append("points", new Document("Regulacao", 5)
+                        .append("Pausas", 0)
+                        .append("RemovidosLider", -2)
+                        .append("Desconhecido", 7)
+                        .append("Total", 8));
+
+        ProjectCollaborator lido = mongoConverter.read(ProjectCollaborator.class, documento);
+        assertEquals(pontos(), lido.getPoints());
+    }
+
+    @Test
+    void semPontos() {
+        Document documento = new Document();
+        mongoConverter.write(new ProjectCollaborator(), documento);
+        assertFalse(documento.containsKey("points"));
+        assertNull(mongoConverter.read(ProjectCollaborator.class, documento).getPoints());
+    }
+
+    @Test
+    void jsonContinuaComoMapa() throws Exception {
+        String json = objectMapper.writeValueAsString(pontos());
+
+        assertEquals("{\"Regulacao\":5,\"Pausas\":0,\"RemovidosLider\":-2,\"Total\":8}", json);
+        assertEquals(pontos(), objectMapper.readValue(json, ScoreBreakdown.class));
+    }
+
+    @Test
+    void jsonIgnoraChavesDesconhecidasEValoresNaoNumericos() throws Exception {
+        String json = "{\"Regulacao\":5,\"Pausas\":0,\"Criticos\":\"x\",\"Outro\":{\"a\":1},"
+                + "\"Lista\":[1,2],\"RemovidosLider\":-2,\"Total\":8}";
+
+        assertEquals(pontos(), objectMapper.readValue(json, ScoreBreakdown.class));
+    }
+
+    private static MappingMongoConverter mongoConverter() {
+        MongoCustomConversions conversions = new MongoConverter().mongoCustomConversions();
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        context.afterPropertiesSet();
+
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
@@ -0,0 +1,141 @@
+package com.avaliadados.service;
+
+import com.avaliadados.model.ProjectCollaborator;
+import com.avaliadados.model.ProjetoEntity;
+import com.avaliadados.model.ScoreBreakdown;
+import com.avaliadados.model.ScoreBreakdown.Componente;
+import com.avaliadados.model.enums.MedicoRole;
+import com.avaliadados.model.params.NestedScoringParameters;
+import com.avaliadados.model.params.ScoringRule;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ScoringServiceTest {
+
+    private static final String[] ROLES = {"TARM", "FROTA", "MEDICO", "OUTRO"};
+
+    private final ScoringService scoringService = new ScoringService();
+
+    @Test
+    void pontuacaoDoTarm() {
+        ScoreBreakdown pontos = scoringService.calculateCollaboratorScore(
+                "TARM", "NENHUM", 61L, 0L, 0, 0, 0L, 0L, projeto());
+
+        assertEquals(5, pontos.get(Componente.REGULACAO));
+        assertEquals(5, pontos.get(Componente.REMOVIDOS));
+        assertFalse(pontos.presente(Componente.PAUSAS));
+        assertEquals(10, pontos.getTotal());
+    }
+
+    @Test
+    void removidosDoReguladorSomamNoTotalSemDetalhe() {
+        ScoreBreakdown pontos = scoringService.calculateCollaboratorScore(
+                "MEDICO", "REGULADOR", 200L, 0L, 1, 0, 100L, 0L, projeto());
+
+        assertEquals(6, pontos.get(Componente.REGULACAO));
+        assertFalse(pontos.presente(Componente.REMOVIDOS));
+        assertEquals(2, pontos.get(Componente.PAUSAS));
+        assertEquals(6 + 3 + 2, pontos.getTotal());
+    }
+
+    @Test
+    void duracoesNulasOuNegativasNaoPontuam() {
+        ScoreBreakdown pontos = scoringService.calculateCollaboratorScore(
+                "FROTA", null, -5L, null, null, null, null, 0L, projeto());
+
+        assertFalse(pontos.presente(Componente.REGULACAO));
+        assertEquals(0, pontos.getTotal());
+    }
+
+    @Test
+    void loteIgualAoCalculoUmAUm() {
+        Random random = new Random(23);
+        ProjetoEntity projeto = projeto();
+        List<ProjectCollaborator> colaboradores = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) colaboradores.add(colaborador(random));
+
+        ScoreBreakdown[] lote = scoringService.pontuarLote(colaboradores, scoringService.regras(projeto));
+
+        for (int i = 0; i < lote.length; i++) {
+            ProjectCollaborator pc = colaboradores.get(i);
+            ScoreBreakdown esperado = scoringService.calculateCollaboratorScore(
+                    pc.getRole(),
+                    pc.getMedicoRole() != null ? pc.getMedicoRole().name() : null,
+                    pc.getDurationSeconds(),
+                    pc.getCriticos(),
+                    pc.getRemovidos(),
+                    pc.getRemovidosLider(),
+                    pc.getPausaMensalSeconds(),
+                    pc.getSaidaVtrSeconds(),
+                    projeto);
+            assertEquals(esperado, lote[i], pc.toString());
+        }
+    }
+
+    @Test
+    void regrasFicamEmCachePorVersaoDeParametros() {
+        ProjetoEntity projeto = projeto();
+        assertSame(scoringService.regras(projeto), scoringService.regras(projeto));
+
+        projeto.setParametersVersion(1L);
+        assertNotSame(scoringService.regras(projeto), scoringService.regras(projeto()));
+    }
+
+    @Test
+    void loteRecusaColaboradorSemRole() {
+        ProjectCollaborator semRole = new ProjectCollaborator();
+        assertThrows(IllegalArgumentException.class,
+                () -> scoringService.pontuarLote(List.of(semRole), scoringService.regras(projeto())));
+    }
+
+    private static ProjectCollaborator colaborador(Random random) {
+        ProjectCollaborator pc = new ProjectCollaborator();
+        pc.setRole(ROLES[random.nextInt(ROLES.length)]);
+        MedicoRole[] medicoRoles = MedicoRole.values();
+        pc.setMedicoRole(random.nextInt(4) == 0 ? null : medicoRoles[random.nextInt(medicoRoles.length)]);
+        pc.setDurationSeconds(random.nextInt(5) == 0 ? null : (long) random.nextInt(400) - 20);
+        pc.setCriticos(random.nextInt(5) == 0 ? null : (long) random.nextInt(120));
+        pc.setRemovidos(random.nextInt(5) == 0 ? null : random.nextInt(4) - 1);
+        pc.setRemovidosLider(random.nextInt(5) == 0 ? null : random.nextInt(4));
+        pc.setPausaMensalSeconds(random.nextInt(5) == 0 ? null : (long) random.nextInt(1200));
+        pc.setSaidaVtrSeconds(random.nextInt(5) == 0 ? null : (long) random.nextInt(200));
+        return pc;
+    }
+
+    private static ScoringRule ate(long duracao, int pontos) {
+        return ScoringRule.builder().duration(duracao).points(pontos).build();
+    }
+
+    private static ScoringRule quantidade(int quantidade, int pontos) {
+        return ScoringRule.builder().quantity(quantidade).points(pontos).build();
+    }
+
+    private static ProjetoEntity projeto() {
+        NestedScoringParameters params = new NestedScoringParameters();
+        params.getColab().setPausas(List.of(ate(900L, 2)));
+        params.getTarm().setRegulacao(List.of(ate(60L, 10), ate(120L, 5)));
+        params.getTarm().setRemovidos(List.of(quantidade(0, 5), quantidade(2, 1)));
+        params.getFrota().setRegulacao(List.of(ate(90L, 8)));
+        params.getFrota().setSaidaVtr(List.of(ate(60L, 3), ate(120L, 1)));
+        params.getFrota().setPausas(List.of(ate(600L, 4)));
+        params.getMedico().setRegulacao(List.of(ate(300L, 6)));
+        params.getMedico().setRemovidos(List.of(quantidade(1, 3)));
+        params.getMedico().setRegulacaoLider(List.of(ate(60L, 4)));
+        params.getMedico().setRemovidosLider(List.of(quantidade(2, 2)));
+
+        ProjetoEntity projeto = new ProjetoEntity();
+        projeto.setId("p1");
+        projeto.setParameters(params);
+        projeto.setParametersVersion(0L);
+        return projeto;
+    }
+}
@@ -0,0 +1,78 @@
+package com.avaliadados.service.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DurationParserTest {
+
+    @Test
+    void vazioETracoValemZero() {
+        assertEquals(0L, DurationParser.parseSeconds(null));
+        assertEquals(0L, DurationParser.parseSeconds(""));
+        assertEquals(0L, DurationParser.parseSeconds("   "));
+        assertEquals(0L, DurationParser.parseSeconds("-"));
+        assertEquals(0L, DurationParser.parseSeconds(" - "));
+    }
+
+    @Test
+    void horario() {
+        assertEquals(3723L, DurationParser.parseSeconds("01:02:03"));
+        assertEquals(3723L, DurationParser.parseSeconds("  1:02:03\t"));
+        assertEquals(3720L, DurationParser.parseSeconds("1:02"));
+        assertEquals(360_000L, DurationParser.parseSeconds("100:00:00"));
+        assertEquals(3723L, DurationParser.parseSeconds("01:02:03.500"));
+        assertEquals(3723L, DurationParser.parseSeconds("01:02:03,5"));
+    }
+
+    @Test
+    void horarioComDias() {
+        assertEquals(2 * 86_400L + 3600, DurationParser.parseSeconds("2 d 01:00:00"));
+        assertEquals(2 * 86_400L + 3600, DurationParser.parseSeconds("2d 01:00"));
+        assertEquals(2 * 86_400L + 3600, DurationParser.parseSeconds("2D.01:00"));
+        assertEquals(86_400L + 59, DurationParser.parseSeconds("1d 00:00:59"));
+    }
+
+    @Test
+    void amPm() {
+        assertEquals(13 * 3600L + 1800, DurationParser.parseSeconds("01:30 PM"));
+        assertEquals(900L, DurationParser.parseSeconds("12:15 am"));
+        assertEquals(12 * 3600L, DurationParser.parseSeconds("12:00 pm"));
+        assertEquals(11 * 3600L + 59 * 60 + 59, DurationParser.parseSeconds("11:59:59 AM"));
+    }
+
+    @Test
+    void numeros() {
+        assertEquals(43_200L, DurationParser.parseSeconds("0.5"));
+        assertEquals(90L, DurationParser.parseSeconds("90"));
+        assertEquals(2L, DurationParser.parseSeconds("1.5"));
+        assertEquals(100L, DurationParser.parseSeconds("1e2"));
+        assertEquals(-5L, DurationParser.parseSeconds("-5"));
+        assertEquals(0L, DurationParser.parseSeconds("0"));
+    }
+
+    @Test
+    void fromNumberSoTrataComoFracaoDeDiaEntreZeroEUm() {
+        assertEquals(0L, DurationParser.fromNumber(0));
+        assertEquals(1L, DurationParser.fromNumber(1));
+        assertEquals(3600L, DurationParser.fromNumber(1d / 24));
+        assertEquals(86_400L, DurationParser.fromNumber(0.9999999));
+        assertEquals(120L, DurationParser.fromNumber(119.6));
+    }
+
+    @Test
+    void textoInvalidoValeZero() {
+        assertEquals(0L, DurationParser.parseSeconds("abc"));
+        assertEquals(0L, DurationParser.parseSeconds("12:"));
+        assertEquals(0L, DurationParser.parseSeconds(":30"));
+        assertEquals(0L, DurationParser.parseSeconds("1:2:3:4"));
+        assertEquals(0L, DurationParser.parseSeconds("1:234"));
+        assertEquals(0L, DurationParser.parseSeconds("12:30 XM"));
+        assertEquals(0L, DurationParser.parseSeconds("1 d 01:00 PM"));
+        assertEquals(0L, DurationParser.parseSeconds("1d"));
+        assertEquals(0L, DurationParser.parseSeconds("-01:00"));
+        assertEquals(0L, DurationParser.parseSeconds("1."));
+        assertEquals(0L, DurationParser.parseSeconds("1e"));
+        assertEquals(0L, DurationParser.parseSeconds("1234567890123456789"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.avaliadados.service.utils;
+
+import org.apache.commons.text.similarity.LevenshteinDistance;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EditDistanceTest {
+
+    private static final LevenshteinDistance LEVENSHTEIN = LevenshteinDistance.getDefaultInstance();
+
+    @Test
+    void casosConhecidos() {
+        assertEquals(0, EditDistance.distance("", ""));
+        assertEquals(4, EditDistance.distance("", "JOSE"));
+        assertEquals(4, EditDistance.distance("JOSE", ""));
+        assertEquals(0, EditDistance.distance("MARIA SILVA", "MARIA SILVA"));
+        assertEquals(3, EditDistance.distance("KITTEN", "SITTING"));
+        assertEquals(1, EditDistance.distance("JOSE", "JOSÉ"));
+        assertEquals(2, EditDistance.distance("ANA SOUZA", "ANA SOUSA "));
+    }
+
+    @Test
+    void igualAoLevenshteinClassico() {
+        Random random = new Random(11);
+        for (int caso = 0; caso < 20_000; caso++) {
+            String a = aleatorio(random, random.nextInt(caso % 10 == 0 ? 90 : 30));
+            String b = random.nextBoolean() ? aleatorio(random, random.nextInt(30)) : editar(random, a);
+            int esperado = LEVENSHTEIN.apply(a, b);
+
+            assertEquals(esperado, EditDistance.distance(a, b), a + " / " + b);
+            assertEquals(esperado, EditDistance.distance(b, a), b + " / " + a);
+            assertEquals(esperado, EditDistance.Pattern.of(a).distance(b), a + " / " + b);
+        }
+    }
+
+    @Test
+    void padraoComLimiteParaSoQuandoPassaDoMaximo() {
+        Random random = new Random(7);
+        for (int caso = 0; caso < 20_000; caso++) {
+            String a = aleatorio(random, random.nextInt(caso % 10 == 0 ? 90 : 30));
+            String b = editar(random, a);
+            int esperado = LEVENSHTEIN.apply(a, b);
+            int max = random.nextInt(8);
+
+            assertEquals(esperado > max ? -1 : esperado, EditDistance.Pattern.of(a).distance(b, max), a + " / " + b + " max " + max);
+        }
+    }
+
+    @Test
+    void padraoForaDoAsciiOuMaiorQue64UsaAProgramacaoDinamica() {
+        String longo = "A".repeat(70);
+        assertEquals(1, EditDistance.Pattern.of(longo).distance(longo + "B"));
+        assertEquals(-1, EditDistance.Pattern.of(longo).distance("B" + longo + "B", 1));
+        assertEquals(1, EditDistance.Pattern.of("JOSÉ").distance("JOSE"));
+        assertEquals(-1, EditDistance.Pattern.of("JOSÉ").distance("JOAO", 1));
+    }
+
+    private static String aleatorio(Random random, int tamanho) {
+        String alfabeto = "ABCDE É";
+        StringBuilder sb = new StringBuilder(tamanho);
+        for (int i = 0; i < tamanho; i++) sb.append(alfabeto.charAt(random.nextInt(alfabeto.length())));
+        return sb.toString();
+    }
+
+    private static String editar(Random random, String s) {
+        StringBuilder sb = new StringBuilder(s);
+        int edicoes = random.nextInt(6);
+        for (int e = 0; e < edicoes; e++) {
+            int pos = random.nextInt(sb.length() + 1);
+            switch (random.nextInt(3)) {
+                case 0 -> sb.insert(pos, (char) ('A' + random.nextInt(5)));
+                case 1 -> {
+                    if (pos < sb.length()) sb.deleteCharAt(pos);
+                }
+                default -> {
+                    if (pos < sb.length()) sb.setCharAt(pos, (char) ('A' + random.nextInt(5)));
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,124 @@
+package com.avaliadados.service.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NameMatcherTest {
+
+    private static final String[] PARTES = {
+            "ANA", "MARIA", "JOSE", "JOAO", "PAULO", "SILVA", "SOUZA", "SOUSA", "OLIVEIRA", "SANTOS",
+            "PEREIRA", "LIMA", "COSTA", "FERREIRA", "RODRIGUES", "ALVES", "GOMES", "RIBEIRO"};
+
+    @Test
+    void buscarEncontraOsMesmosNomesQueAComparacaoComTodos() {
+        Random random = new Random(10);
+        List<String> cadastro = nomes(random, 300);
+        NameMatcher<String> matcher = NameMatcher.of(cadastro, Function.identity());
+
+        for (int q = 0; q < 300; q++) {
+            String consulta = consulta(random, cadastro);
+            for (double minimo : new double[]{0.7, 0.85, 0.95}) {
+                List<String> esperado = new ArrayList<>();
+                for (String nome : cadastro) {
+                    if (nome.equals(consulta) || SheetsUtils.similarity(consulta, nome) > minimo) esperado.add(nome);
+                }
+                assertEquals(esperado, matcher.buscar(consulta, minimo), consulta + " minimo " + minimo);
+            }
+        }
+    }
+
+    @Test
+    void parearAchaOMelhorParNosDoisSentidos() {
+        Random random = new Random(20);
+        List<String> cadastro = nomes(random, 200);
+        List<String> consultas = new ArrayList<>();
+        for (int q = 0; q < 250; q++) consultas.add(consulta(random, cadastro));
+
+        double minimo = 0.85;
+        NameMatcher.Pareamento pareamento = NameMatcher.of(cadastro, Function.identity()).parear(consultas, minimo, 0.4);
+
+        for (int q = 0; q < consultas.size(); q++) {
+            int melhor = -1;
+            double melhorScore = 0;
+            for (int i = 0; i < cadastro.size(); i++) {
+                double score = SheetsUtils.similarity(consultas.get(q), cadastro.get(i));
+                if (score > melhorScore) {
+                    melhorScore = score;
+                    melhor = i;
+                }
+            }
+            if (melhorScore < minimo) continue;
+            assertEquals(melhor, pareamento.itemDaConsulta(q), consultas.get(q));
+            assertEquals(melhorScore, pareamento.scoreDaConsulta(q), 1e-9);
+        }
+
+        for (int i = 0; i < cadastro.size(); i++) {
+            int melhor = -1;
+            double melhorScore = 0;
+            for (int q = 0; q < consultas.size(); q++) {
+                double score = SheetsUtils.similarity(consultas.get(q), cadastro.get(i));
+                if (score > melhorScore) {
+                    melhorScore = score;
+                    melhor = q;
+                }
+            }
+            if (melhorScore < minimo) continue;
+            assertEquals(melhor, pareamento.consultaDoItem(i), cadastro.get(i));
+            assertEquals(melhorScore, pareamento.scoreDoItem(i), 1e-9);
+        }
+    }
+
+    @Test
+    void itensSemNomeNuncaCasam() {
+        List<String> cadastro = new ArrayList<>();
+        cadastro.add(null);
+        cadastro.add("");
+        cadastro.add("MARIA SILVA");
+        NameMatcher<String> matcher = NameMatcher.of(cadastro, Function.identity());
+
+        assertEquals(List.of("MARIA SILVA"), matcher.buscar("MARIA SILVA", 0.5));
+        NameMatcher.Pareamento pareamento = matcher.parear(List.of("MARIA SILVA", ""), 0.85, 0.4);
+        assertEquals(2, pareamento.itemDaConsulta(0));
+        assertEquals(-1, pareamento.itemDaConsulta(1));
+        assertEquals(-1, pareamento.consultaDoItem(0));
+        assertEquals(-1, pareamento.consultaDoItem(1));
+    }
+
+    private static List<String> nomes(Random random, int quantidade) {
+        List<String> nomes = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            int partes = 2 + random.nextInt(3);
+            StringBuilder sb = new StringBuilder();
+            for (int p = 0; p < partes; p++) {
+                if (p > 0) sb.append(' ');
+                sb.append(PARTES[random.nextInt(PARTES.length)]);
+            }
+            nomes.add(sb.toString());
+        }
+        return nomes;
+    }
+
+    /**
+     * Um nome do cadastro com ate 3 erros de digitacao, ou um nome novo.
+     */
+    private static String consulta(Random random, List<String> cadastro) {
+        if (random.nextInt(4) == 0) return nomes(random, 1).getFirst();
+        StringBuilder sb = new StringBuilder(cadastro.get(random.nextInt(cadastro.size())));
+        int erros = random.nextInt(4);
+        for (int e = 0; e < erros && sb.length() > 1; e++) {
+            int pos = random.nextInt(sb.length());
+            switch (random.nextInt(3)) {
+                case 0 -> sb.insert(pos, (char) ('A' + random.nextInt(26)));
+                case 1 -> sb.deleteCharAt(pos);
+                default -> sb.setCharAt(pos, (char) ('A' + random.nextInt(26)));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,189 @@
+package com.avaliadados.service.utils;
+
+import com.avaliadados.model.enums.MedicoRole;
+import com.avaliadados.model.params.NestedScoringParameters;
+import com.avaliadados.model.params.ScoringRule;
+import com.avaliadados.model.params.ScoringSectionParams;
+import com.avaliadados.service.utils.RegrasCompiladas.Diferenca;
+import com.avaliadados.service.utils.RegrasCompiladas.Faixas;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RegrasCompiladasTest {
+
+    private static ScoringRule ate(Long duracao, Integer pontos) {
+        return ScoringRule.builder().duration(duracao).points(pontos).build();
+    }
+
+    private static Faixas faixas(ScoringRule... regras) {
+        return Faixas.de(Arrays.asList(regras), ScoringRule::getDuration);
+    }
+
+    @Test
+    void limiteInclusivo() {
+        Faixas faixas = faixas(ate(60L, 10), ate(120L, 5), ate(300L, 1));
+
+        assertEquals(10, faixas.pontos(0));
+        assertEquals(10, faixas.pontos(60));
+        assertEquals(5, faixas.pontos(61));
+        assertEquals(5, faixas.pontos(120));
+        assertEquals(1, faixas.pontos(121));
+        assertEquals(1, faixas.pontos(300));
+        assertEquals(0, faixas.pontos(301));
+        assertEquals(0, faixas.pontos(Long.MAX_VALUE));
+    }
+
+    @Test
+    void valeAMaiorPontuacaoEntreAsRegrasQueAlcancamOValor() {
+        Faixas faixas = faixas(ate(300L, 8), ate(60L, 1), ate(120L, 3));
+
+        assertEquals(8, faixas.pontos(10));
+        assertEquals(8, faixas.pontos(120));
+        assertEquals(8, faixas.pontos(300));
+        assertEquals(0, faixas.pontos(301));
+        assertEquals(faixas, faixas(ate(60L, 1), ate(120L, 3), ate(300L, 8)));
+    }
+
+    @Test
+    void limitesIguais() {
+        Faixas faixas = faixas(ate(60L, 3), ate(60L, 7), ate(60L, 5));
+
+        assertEquals(7, faixas.pontos(59));
+        assertEquals(7, faixas.pontos(60));
+        assertEquals(0, faixas.pontos(61));
+    }
+
+    @Test
+    void regrasInvalidasSaoIgnoradasMasContamComoPresentes() {
+        Faixas faixas = faixas(null, ate(null, 5), ate(60L, null), ate(120L, 2));
+        assertTrue(faixas.presente());
+        assertEquals(2, faixas.pontos(60));
+        assertEquals(0, faixas.pontos(121));
+
+        Faixas soInvalidas = faixas(ate(null, 5), ate(60L, null));
+        assertTrue(soInvalidas.presente());
+        assertEquals(0, soInvalidas.pontos(0));
+    }
+
+    @Test
+    void listaVaziaOuNulaNaoEstaPresente() {
+        assertFalse(faixas().presente());
+        assertEquals(0, faixas().pontos(0));
+        assertFalse(Faixas.de(null, ScoringRule::getDuration).presente());
+        assertNotEquals(faixas(), faixas(ate(null, 1)));
+    }
+
+    @Test
+    void quantidadeUsaOutroCampo() {
+        Faixas faixas = Faixas.de(List.of(
+                ScoringRule.builder().quantity(2).points(4).build(),
+                ScoringRule.builder().quantity(5).points(1).build()), ScoringRule::getQuantity);
+
+        assertEquals(4, faixas.pontos(2));
+        assertEquals(1, faixas.pontos(3));
+        assertEquals(0, faixas.pontos(6));
+    }
+
+    @Test
+    void semAnterioresAfetaTodos() {
+        Diferenca diferenca = RegrasCompiladas.compilar(parametros()).diferenca(null);
+
+        assertTrue(diferenca.todos());
+        assertTrue(diferenca.afeta(null, null));
+        assertTrue(diferenca.afeta("MEDICO", MedicoRole.NENHUM));
+        assertEquals(Set.of("TARM", "FROTA", "MEDICO"), diferenca.roles());
+    }
+
+    @Test
+    void reordenarOuMexerEmListaQueORoleNaoUsaNaoAfetaNinguem() {
+        NestedScoringParameters depois = parametros();
+        depois.getTarm().setRegulacao(new ArrayList<>(depois.getTarm().getRegulacao().reversed()));
+        depois.getTarm().setPausas(List.of(ate(10L, 99)));
+        depois.getMedico().setSaidaVtr(List.of(ate(10L, 99)));
+
+        Diferenca diferenca = diferenca(parametros(), depois);
+        assertTrue(diferenca.nenhuma());
+        assertFalse(diferenca.afeta("TARM", null));
+    }
+
+    @Test
+    void mudancaNoTarmSoAfetaTarm() {
+        NestedScoringParameters depois = parametros();
+        depois.getTarm().setRegulacao(List.of(ate(60L, 10), ate(180L, 5)));
+
+        Diferenca diferenca = diferenca(parametros(), depois);
+        assertFalse(diferenca.nenhuma());
+        assertEquals(Set.of("TARM"), diferenca.roles());
+        assertTrue(diferenca.afeta("TARM", null));
+        assertFalse(diferenca.afeta("FROTA", null));
+        assertFalse(diferenca.afeta("MEDICO", MedicoRole.LIDER));
+        assertFalse(diferenca.afeta(null, null));
+        assertFalse(diferenca.afeta("OUTRO", null));
+    }
+
+    @Test
+    void mudancaNoMedicoSeparaLiderERegulador() {
+        NestedScoringParameters depois = parametros();
+        depois.getMedico().setRegulacaoLider(List.of(ate(30L, 2)));
+
+        Diferenca lider = diferenca(parametros(), depois);
+        assertEquals(Set.of("MEDICO"), lider.roles());
+        assertTrue(lider.afeta("MEDICO", MedicoRole.LIDER));
+        assertFalse(lider.afeta("MEDICO", MedicoRole.REGULADOR));
+        assertFalse(lider.afeta("MEDICO", MedicoRole.NENHUM));
+        assertFalse(lider.afeta("MEDICO", null));
+
+        depois = parametros();
+        depois.getMedico().setRemovidos(List.of(ScoringRule.builder().quantity(1).points(3).build()));
+
+        Diferenca regulador = diferenca(parametros(), depois);
+        assertTrue(regulador.afeta("MEDICO", MedicoRole.REGULADOR));
+        assertFalse(regulador.afeta("MEDICO", MedicoRole.LIDER));
+    }
+
+    @Test
+    void mudancaNaPausaGeralAfetaTodos() {
+        NestedScoringParameters depois = parametros();
+        depois.getColab().setPausas(List.of(ate(600L, 1)));
+
+        Diferenca diferenca = diferenca(parametros(), depois);
+        assertTrue(diferenca.todos());
+        assertTrue(diferenca.roles().isEmpty());
+        assertTrue(diferenca.afeta("TARM", null));
+        assertTrue(diferenca.afeta(null, null));
+    }
+
+    @Test
+    void secaoAusenteEquivaleASecaoSemRegras() {
+        NestedScoringParameters depois = parametros();
+        depois.setFrota(null);
+        NestedScoringParameters antes = parametros();
+        antes.setFrota(new ScoringSectionParams());
+
+        assertTrue(diferenca(antes, depois).nenhuma());
+    }
+
+    private static Diferenca diferenca(NestedScoringParameters antes, NestedScoringParameters depois) {
+        return RegrasCompiladas.compilar(depois).diferenca(RegrasCompiladas.compilar(antes));
+    }
+
+    private static NestedScoringParameters parametros() {
+        NestedScoringParameters params = new NestedScoringParameters();
+        params.getColab().setPausas(new ArrayList<>(List.of(ate(900L, 2))));
+        params.getTarm().setRegulacao(new ArrayList<>(List.of(ate(60L, 10), ate(120L, 5))));
+        params.getTarm().setRemovidos(new ArrayList<>(List.of(ScoringRule.builder().quantity(0).points(5).build())));
+        params.getFrota().setRegulacao(new ArrayList<>(List.of(ate(90L, 8))));
+        params.getMedico().setRegulacao(new ArrayList<>(List.of(ate(300L, 6))));
+        params.getMedico().setRegulacaoLider(new ArrayList<>(List.of(ate(60L, 4))));
+        return params;
+    }
+}
@@ -0,0 +1,47 @@
+package com.avaliadados.service.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WorkbookRowTest {
+
+    private static WorkbookRow linha(double numero, boolean data) {
+        return new WorkbookRow(0, 1, new String[]{"x"}, new double[]{numero}, new boolean[]{data});
+    }
+
+    private static WorkbookRow linha(String texto) {
+        return new WorkbookRow(0, 1, new String[]{texto}, new double[]{Double.NaN}, new boolean[]{false});
+    }
+
+    @Test
+    void daySecondsTrataTodoNumeroComoFracaoDeDia() {
+        assertEquals(129_600L, linha(1.5, false).daySeconds(0));
+        assertEquals(129_600L, linha(1.5, true).daySeconds(0));
+        assertEquals(3600L, linha(1d / 24, false).daySeconds(0));
+        assertEquals(0L, linha(0, false).daySeconds(0));
+    }
+
+    @Test
+    void secondsSoTrataComoFracaoDeDiaAbaixoDeUmOuComFormatoDeData() {
+        assertEquals(2L, linha(1.5, false).seconds(0));
+        assertEquals(129_600L, linha(1.5, true).seconds(0));
+        assertEquals(3600L, linha(1d / 24, false).seconds(0));
+    }
+
+    @Test
+    void textoPassaPeloParser() {
+        assertEquals(3723L, linha("01:02:03").daySeconds(0));
+        assertEquals(3723L, linha("01:02:03").seconds(0));
+        assertEquals(0L, linha("01:02:03").daySeconds(5));
+    }
+
+    @Test
+    void count() {
+        assertEquals(2.5, linha(2.5, false).count(0));
+        assertEquals(2.5, linha("2,5").count(0));
+        assertEquals(0.0, linha("n/a").count(0));
+        assertEquals(0.0, linha(" ").count(0));
+        assertEquals(0.0, linha("1").count(3));
+    }
+}
@@ -41,7 +41,12 @@ export async function GET(request: NextRequest) {
             method: request.method,
         });
 
-        return NextResponse.json(axiosResponse.data);
+        // Listas paginadas informam o total por cabecalho.
+        const total = axiosResponse.headers["x-total-count"];
+        return NextResponse.json(
+            axiosResponse.data,
+            total !== undefined ? { headers: { "X-Total-Count": String(total) } } : undefined
+        );
     } catch (error: any) {
         if (error.response) {
             return NextResponse.json(
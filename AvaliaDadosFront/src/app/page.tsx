@@ -21,7 +21,6 @@ import ProjectModal from '../components/modal/ProjectModal';
 import * as XLSX from 'xlsx';
 import { saveAs } from 'file-saver';
 import { GlobalCollaborator, ProjectCollaborator } from '@/types/project';
-import { DEFAULT_PARAMS } from '@/components/utils/scoring-params';
 import ConfirmationDialog from '@/components/modal/ConfirmationModal';
 
 export default function HomePage() {
@@ -31,7 +30,7 @@ export default function HomePage() {
     projects,
     projectCollaborators,
     globalCollaborators,
-    actions: { deleteProject, fetchProjectCollaborators, updateProjectParameters }
+    actions: { deleteProject, fetchProjectCollaborators }
   } = useProjects();
 
   const [selectedProjectIds, setSelectedProjectIds] = useState<string[]>([]);
@@ -51,9 +50,6 @@ export default function HomePage() {
             console.error(`Erro ao buscar colaboradores do projeto ${project.id}:`, error);
           });
         }
-        if (project.parameters.colab.pausas?.length == 0) {
-          updateProjectParameters(project.id!, DEFAULT_PARAMS!)
-        }
       });
     }
   }, [mounted, projects, fetchProjectCollaborators, projectCollaborators]);
@@ -18,6 +18,8 @@ import * as XLSX from 'xlsx';
 import { saveAs } from 'file-saver';
 import UploadWarningsModal from './modal/UploadWarningsModal';
 import { formatSecondsToTime } from './utils';
+import { DEFAULT_PARAMS } from './utils/scoring-params';
+import { fetchProjectApi, updateProjectApi } from '@/lib/api';
 
 
 export type CombinedCollaboratorData = Omit<GlobalCollaborator, 'isGlobal'> & {
@@ -58,11 +60,30 @@ export default function CollaboratorsPanel() {
   const updateState = (newState: Partial<typeof state>) => setState(prev => ({ ...prev, ...newState }));
   const currentProject = projects.find(p => p.id === selectedProject);
 
+  // A listagem so traz o resumo; os parametros vem do projeto completo.
+  const [projectParameters, setProjectParameters] = useState<NestedScoringParameters | undefined>();
+
   const [uploadWarnings, setUploadWarnings] = useState<string[]>([]);
   const [isWarningModalOpen, setIsWarningModalOpen] = useState(false);
 
 
   // Efeitos
+  useEffect(() => {
+    setProjectParameters(undefined);
+    if (!selectedProject) return;
+    fetchProjectApi(selectedProject)
+      .then(async ({ data }) => {
+        if (data.parameters.colab.pausas?.length == 0) {
+          await updateProjectApi(selectedProject, { parameters: DEFAULT_PARAMS });
+          setProjectParameters(DEFAULT_PARAMS);
+          await fetchProjectCollaborators(selectedProject);
+        } else {
+          setProjectParameters(data.parameters);
+        }
+      })
+      .catch(() => updateState({ error: 'Falha ao carregar o projeto' }));
+  }, [selectedProject, fetchProjectCollaborators]);
+
   useEffect(() => {
     if (selectedProject) {
       fetchProjectCollaborators(selectedProject)
@@ -278,6 +299,7 @@ export default function CollaboratorsPanel() {
 
     try {
       await updateProjectParameters(selectedProject, params);
+      setProjectParameters(params);
       await fetchProjectCollaborators(selectedProject);
       updateState({ scoringParamsModalOpen: false });
     } catch (err: any) {
@@ -513,7 +535,7 @@ export default function CollaboratorsPanel() {
             open={state.scoringParamsModalOpen}
             onClose={() => updateState({ scoringParamsModalOpen: false })}
             onSave={handleSaveParameters}
-            initialParams={currentProject?.parameters}
+            initialParams={projectParameters}
           />
 
           <DataForPointsModal
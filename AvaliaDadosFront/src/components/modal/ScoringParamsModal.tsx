@@ -1,6 +1,6 @@
 'use client';
 
-import { useState, type ReactNode } from 'react';
+import { useEffect, useState, type ReactNode } from 'react';
 import {
   Dialog,
   DialogTitle,
@@ -52,6 +52,11 @@ export default function ScoringParamsModal({ open, onClose, onSave, initialParam
       : JSON.parse(JSON.stringify(DEFAULT_PARAMS))
   );
 
+  // Os parametros do projeto chegam depois da montagem; recarrega a cada abertura.
+  useEffect(() => {
+    if (open) setParams(JSON.parse(JSON.stringify(initialParams ?? DEFAULT_PARAMS)));
+  }, [open, initialParams]);
+
   const handleParamChange = (
     section: keyof NestedScoringParameters,
     field: keyof ScoringSectionParams,
@@ -1,9 +1,9 @@
 import { addCollaboratorToProjectApi, createProjectApi, deleteProjectApi, fetchGlobalCollaboratorsApi, fetchProjectsApi, updateProjectApi } from "@/lib/api";
-import { NestedScoringParameters, Project } from "@/types/project";
+import { NestedScoringParameters, ProjectResumo } from "@/types/project";
 import { useCallback, useEffect, useState } from "react";
 
 export function useProjectActions() {
-    const [projects, setProjects] = useState<Project[]>([]);
+    const [projects, setProjects] = useState<ProjectResumo[]>([]);
     const [selectedProject, setSelectedProject] = useState<string | null>(null);
 
     const fetchProjects = useCallback(async () => {
@@ -70,10 +70,7 @@ export function useProjectActions() {
     const updateProjectParameters = useCallback(
         async (projectId: string, parameters: NestedScoringParameters) => {
             try {
-                const resp = await updateProjectApi(projectId, { parameters });
-                setProjects(prev =>
-                    prev.map(p => (p.id === projectId ? resp.data : p))
-                );
+                await updateProjectApi(projectId, { parameters });
             } finally {
                 await fetchProjects();
             }
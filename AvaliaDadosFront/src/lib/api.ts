@@ -1,5 +1,5 @@
 import axios from 'axios';
-import { GlobalCollaborator, Project, ProjectCollaborator, NestedScoringParameters, UpdateProjectCollabDto, MedicoRole, ShiftHours } from '@/types/project';
+import { GlobalCollaborator, Project, ProjectResumo, ProjectCollaborator, ProjectCollaboratorsQuery, NestedScoringParameters, UpdateProjectCollabDto, MedicoRole, ShiftHours } from '@/types/project';
 
 const uri = '/api/proxy';
 
@@ -8,7 +8,8 @@ export const api = axios.create({
   headers: { 'Content-Type': 'application/json' },
 });
 
-export const fetchProjectsApi = () => api.get<Project[]>('/projetos');
+export const fetchProjectsApi = () => api.get<ProjectResumo[]>('/projetos/resumo');
+export const fetchProjectApi = (id: string) => api.get<Project>(`/projetos/${id}`);
 export const createProjectApi = (data: { name: string; month: string; parameters: NestedScoringParameters }) =>
   api.post<Project>('/projetos', data);
 
@@ -31,8 +32,8 @@ export const updateGlobalCollaboratorApi = (id: string, data: Partial<GlobalColl
 export const deleteGlobalCollaboratorApi = (id: string) =>
   api.delete<void>(`/collaborator/${id}`);
 
-export const fetchProjectCollaboratorsApi = (projectId: string) =>
-  api.get<ProjectCollaborator[]>(`/projetos/${projectId}/collaborator`);
+export const fetchProjectCollaboratorsApi = (projectId: string, query?: ProjectCollaboratorsQuery) =>
+  api.get<ProjectCollaborator[]>(`/projetos/${projectId}/collaborator`, { params: query });
 
 export const addCollaboratorToProjectApi = (
   projectId: string,
@@ -1,7 +1,7 @@
-import { Project, GlobalCollaborator, Collaborator, ProjectCollaborator, NestedScoringParameters, MedicoRole, ShiftHours, UpdateProjectCollabDto } from '@/types/project';
+import { Project, ProjectResumo, GlobalCollaborator, Collaborator, ProjectCollaborator, NestedScoringParameters, MedicoRole, ShiftHours, UpdateProjectCollabDto } from '@/types/project';
 
 export interface ProjectContextType {
-    projects: Project[];
+    projects: ProjectResumo[];
     selectedProject: string | null;
     setSelectedProject: (id: string | null) => void;
     actions: {
@@ -65,20 +65,30 @@ export interface Project {
   name: string;
   month: string;
   parameters: NestedScoringParameters;
-  collaborators: Array<{
-    collaboratorId: string;
-    role: string;
-    shiftHours?: ShiftHours;
-    medicoRole?: MedicoRole;
-    pontuacao: number;
-    quantity?: number;
-    durationSeconds?: number;
-    pausaMensalSeconds?: number;
-  }>;
   createdAt: string;
   updatedAt: string;
 }
 
+// Linha da listagem (GET /projetos/resumo): sem parametros, so a contagem de colaboradores por cargo.
+export interface ProjectResumo {
+  id: string;
+  name: string;
+  month: string;
+  colaboradoresPorRole: Record<string, number>;
+  updatedAt: string;
+  parametersVersion: number;
+}
+
+// Filtros do GET de colaboradores do projeto; com page, o total vem em X-Total-Count.
+export interface ProjectCollaboratorsQuery {
+  role?: string;
+  nome?: string;
+  ordenarPor?: 'nome' | 'pontuacao';
+  direcao?: 'ASC' | 'DESC';
+  page?: number;
+  size?: number;
+}
+
 export interface UpdateProjectCollabDto {
   nome?: string;
   role?: string;